@@ -1,15 +1,27 @@
 package esvar.ua.workinghoursbot;
 
+import esvar.ua.workinghoursbot.config.AccountCacheProperties;
 import esvar.ua.workinghoursbot.config.AuditProperties;
 import esvar.ua.workinghoursbot.config.BotProperties;
+import esvar.ua.workinghoursbot.config.CandidatePoolProperties;
 import esvar.ua.workinghoursbot.config.DomainProperties;
+import esvar.ua.workinghoursbot.config.JobProperties;
+import esvar.ua.workinghoursbot.config.OutboundProperties;
+import esvar.ua.workinghoursbot.config.OutboxProperties;
+import esvar.ua.workinghoursbot.config.SessionStoreProperties;
+import esvar.ua.workinghoursbot.config.TelegramClientProperties;
+import esvar.ua.workinghoursbot.config.UpdateDispatcherProperties;
+import esvar.ua.workinghoursbot.config.WebhookProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties({BotProperties.class, AuditProperties.class, DomainProperties.class})
+@EnableConfigurationProperties({BotProperties.class, AuditProperties.class, DomainProperties.class,
+        UpdateDispatcherProperties.class, TelegramClientProperties.class, OutboundProperties.class,
+        OutboxProperties.class, AccountCacheProperties.class, JobProperties.class,
+        CandidatePoolProperties.class, SessionStoreProperties.class, WebhookProperties.class})
 @EnableScheduling
 public class WorkingHoursBotApplication {
 
@@ -0,0 +1,98 @@
+package esvar.ua.workinghoursbot.bot;
+
+import esvar.ua.workinghoursbot.config.OutboundProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapses bursts of calendar keyboard edits. The first edit of a message opens a window; edits of the same
+ * message arriving within it replace the pending one, and only the latest is sent when the window closes.
+ * Sellers tapping several days a second thus cost one edit instead of one per tap.
+ */
+@Component
+public class CalendarEditCoalescer {
+
+    private static final Duration DEFAULT_WINDOW = Duration.ofMillis(400);
+
+    private final long windowMillis;
+    private final Map<MessageKey, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final Counter coalesced;
+
+    public CalendarEditCoalescer(OutboundProperties properties, MeterRegistry meterRegistry) {
+        Duration window = properties.editCoalesceWindow() == null
+                ? DEFAULT_WINDOW
+                : properties.editCoalesceWindow();
+        this.windowMillis = Math.max(0, window.toMillis());
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("calendar-edit-coalescer").factory()
+        );
+        this.coalesced = Counter.builder("bot.outbound.calendar.coalesced")
+                .description("Calendar edits replaced by a later edit of the same message before being sent")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Holds the edit until the window of its message closes, then hands the latest edit to {@code sender}.
+     * With a zero window the edit is handed over right away.
+     */
+    public void offer(CalendarKeyboardEditMessage edit, Consumer<CalendarKeyboardEditMessage> sender) {
+        if (windowMillis == 0) {
+            sender.accept(edit);
+            return;
+        }
+        MessageKey key = new MessageKey(edit.getChatId(), edit.getMessageId());
+        Pending next = new Pending(edit, sender);
+        if (pending.put(key, next) != null) {
+            coalesced.increment();
+            return;
+        }
+        timer.schedule(() -> release(key), windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends the pending edits of a chat now, so an action queued for the chat after them keeps its order.
+     * An edit the timer is releasing concurrently stays visible until it has been handed over, so this waits
+     * for it instead of letting the caller's action overtake it.
+     */
+    public void flush(String chatId) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<MessageKey> keys = pending.keySet().stream()
+                .filter(key -> key.chatId().equals(chatId))
+                .toList();
+        keys.forEach(this::release);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List.copyOf(pending.keySet()).forEach(this::release);
+        timer.shutdownNow();
+    }
+
+    private void release(MessageKey key) {
+        // Handing over inside the mapping keeps the entry locked until the edit is queued for its chat; the
+        // sender only appends to the chat's send chain, so the lock is held briefly.
+        pending.computeIfPresent(key, (ignored, latest) -> {
+            latest.sender().accept(latest.edit());
+            return null;
+        });
+    }
+
+    private record MessageKey(String chatId, Integer messageId) {
+    }
+
+    private record Pending(CalendarKeyboardEditMessage edit, Consumer<CalendarKeyboardEditMessage> sender) {
+    }
+}
@@ -0,0 +1,23 @@
+package esvar.ua.workinghoursbot.bot;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+
+/**
+ * Keyboard-only edit of the schedule calendar. Carries the calendar text, never sent to Telegram, so a
+ * failed edit can fall back to a new message like a failed {@code EditMessageText} does.
+ */
+public class CalendarKeyboardEditMessage extends EditMessageReplyMarkup {
+
+    @JsonIgnore
+    private final String fallbackText;
+
+    public CalendarKeyboardEditMessage(String fallbackText) {
+        this.fallbackText = fallbackText;
+    }
+
+    @JsonIgnore
+    public String getFallbackText() {
+        return fallbackText;
+    }
+}
@@ -0,0 +1,9 @@
+package esvar.ua.workinghoursbot.bot;
+
+/**
+ * Implemented by handlers that own a set of callback data prefixes.
+ */
+public interface CallbackRouteContributor {
+
+    void registerCallbackRoutes(CallbackRouteRegistry routes);
+}
@@ -0,0 +1,98 @@
+package esvar.ua.workinghoursbot.bot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+
+/**
+ * Maps callback data to handlers through a prefix trie built once at startup. Exact routes win over
+ * prefix routes, and the longest matching prefix wins among prefix routes.
+ */
+@Component
+@Slf4j
+public class CallbackRouteRegistry {
+
+    private final Node root = new Node();
+    private final Counter misses;
+    private int routeCount;
+
+    public CallbackRouteRegistry(List<CallbackRouteContributor> contributors, MeterRegistry meterRegistry) {
+        this.misses = Counter.builder("bot.callback.misses")
+                .description("Callback queries that matched no registered route")
+                .register(meterRegistry);
+        contributors.forEach(contributor -> contributor.registerCallbackRoutes(this));
+        log.info("Registered {} callback routes from {} contributors", routeCount, contributors.size());
+    }
+
+    public void exact(String data, Function<CallbackQuery, BotResponse> handler) {
+        Node node = insert(data);
+        if (node.exact != null) {
+            throw new IllegalStateException("Duplicate exact callback route: " + data);
+        }
+        node.exact = handler;
+        routeCount++;
+    }
+
+    public void prefix(String prefix, Function<CallbackQuery, BotResponse> handler) {
+        Node node = insert(prefix);
+        if (node.prefix != null) {
+            throw new IllegalStateException("Duplicate callback route prefix: " + prefix);
+        }
+        node.prefix = handler;
+        routeCount++;
+    }
+
+    public BotResponse route(CallbackQuery callbackQuery) {
+        if (callbackQuery == null || callbackQuery.getFrom() == null) {
+            return BotResponse.empty();
+        }
+        Function<CallbackQuery, BotResponse> handler = resolve(callbackQuery.getData());
+        if (handler == null) {
+            misses.increment();
+            log.info("Ignoring callback query for user {}", callbackQuery.getFrom().getId());
+            return BotResponse.empty();
+        }
+        return handler.apply(callbackQuery);
+    }
+
+    Function<CallbackQuery, BotResponse> resolve(String data) {
+        if (data == null || data.isBlank()) {
+            return null;
+        }
+        Node node = root;
+        Function<CallbackQuery, BotResponse> longestPrefix = root.prefix;
+        for (int i = 0; i < data.length(); i++) {
+            node = node.children.get(data.charAt(i));
+            if (node == null) {
+                return longestPrefix;
+            }
+            if (node.prefix != null) {
+                longestPrefix = node.prefix;
+            }
+        }
+        return node.exact != null ? node.exact : longestPrefix;
+    }
+
+    private Node insert(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Callback route must not be empty");
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), ignored -> new Node());
+        }
+        return node;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private Function<CallbackQuery, BotResponse> exact;
+        private Function<CallbackQuery, BotResponse> prefix;
+    }
+}
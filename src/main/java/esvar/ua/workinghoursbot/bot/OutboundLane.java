@@ -0,0 +1,6 @@
+package esvar.ua.workinghoursbot.bot;
+
+public enum OutboundLane {
+    INTERACTIVE,
+    BULK
+}
@@ -0,0 +1,333 @@
+package esvar.ua.workinghoursbot.bot;
+
+import esvar.ua.workinghoursbot.config.OutboundProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+/**
+ * Shapes outgoing Telegram calls to the Bot API limits: a global bucket, one bucket per chat (a slower
+ * one for groups) and priority lanes so interactive replies overtake bulk notifications.
+ */
+@Component
+@Slf4j
+public class OutboundMessageScheduler {
+
+    private static final long IDLE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long BUCKET_EVICTION_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ObjectProvider<WorkingHoursTelegramBot> telegramBotProvider;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<OutboundLane, Deque<Task<?>>> lanes = new EnumMap<>(OutboundLane.class);
+    private final Map<OutboundLane, AtomicInteger> backlog = new EnumMap<>(OutboundLane.class);
+    private final Map<OutboundLane, Timer> waitTimers = new EnumMap<>(OutboundLane.class);
+    private final Map<String, TokenBucket> chatBuckets = new HashMap<>();
+    private final Set<String> inFlightChats = new HashSet<>();
+    private final TokenBucket globalBucket;
+    private final double chatPerSecond;
+    private final double chatBurst;
+    private final double groupPerMinute;
+    private final int maxInFlight;
+    private final int maxRetries;
+    private final Counter retries;
+    private final Counter failures;
+
+    private int inFlight;
+    private long nextWakeupNanos;
+    private long bucketsEvictedAt;
+    private volatile boolean running;
+    private Thread worker;
+
+    public OutboundMessageScheduler(ObjectProvider<WorkingHoursTelegramBot> telegramBotProvider,
+                                    OutboundProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.telegramBotProvider = telegramBotProvider;
+        int globalPerSecond = positiveOr(properties.globalPerSecond(), 30);
+        this.chatPerSecond = positiveOr(properties.chatPerSecond(), 1);
+        this.chatBurst = positiveOr(properties.chatBurst(), 3);
+        this.groupPerMinute = positiveOr(properties.groupPerMinute(), 20);
+        this.maxInFlight = positiveOr(properties.maxInFlight(), 8);
+        this.maxRetries = positiveOr(properties.maxRetries(), 5);
+        long now = System.nanoTime();
+        this.globalBucket = new TokenBucket(globalPerSecond, globalPerSecond, now);
+        this.bucketsEvictedAt = now;
+        for (OutboundLane lane : OutboundLane.values()) {
+            lanes.put(lane, new ArrayDeque<>());
+            AtomicInteger size = new AtomicInteger();
+            backlog.put(lane, size);
+            Gauge.builder("bot.outbound.backlog", size, AtomicInteger::get)
+                    .description("Telegram calls waiting to be sent")
+                    .tag("lane", lane.name().toLowerCase())
+                    .register(meterRegistry);
+            waitTimers.put(lane, Timer.builder("bot.outbound.wait")
+                    .description("Time a Telegram call waited for rate-limit tokens")
+                    .tag("lane", lane.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.retries = Counter.builder("bot.outbound.retries")
+                .description("Calls rescheduled after a 429 response")
+                .register(meterRegistry);
+        this.failures = Counter.builder("bot.outbound.failures")
+                .description("Calls that failed permanently")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("outbound-scheduler").start(this::runLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public <T extends Serializable> CompletableFuture<T> submit(BotApiMethod<T> method, OutboundLane lane) {
+        Task<T> task = new Task<>(method, lane, chatIdOf(method), System.nanoTime());
+        lock.lock();
+        try {
+            lanes.get(lane).addLast(task);
+            backlog.get(lane).incrementAndGet();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        return task.future;
+    }
+
+    public int backlog(OutboundLane lane) {
+        return backlog.get(lane).get();
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                Task<?> task = awaitNext();
+                if (task != null) {
+                    dispatch(task);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Outbound scheduler loop failed", ex);
+            }
+        }
+    }
+
+    private Task<?> awaitNext() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                long wait = IDLE_WAIT_NANOS;
+                if (inFlight < maxInFlight && hasBacklog()) {
+                    long globalWait = globalBucket.nanosUntilAvailable(now);
+                    if (globalWait > 0) {
+                        wait = globalWait;
+                    } else {
+                        Task<?> task = pollReady(now);
+                        if (task != null) {
+                            return task;
+                        }
+                        wait = Math.min(wait, nextWakeupNanos);
+                    }
+                }
+                evictIdleBuckets(now);
+                changed.awaitNanos(Math.max(wait, 1L));
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Task<?> pollReady(long now) {
+        nextWakeupNanos = IDLE_WAIT_NANOS;
+        for (OutboundLane lane : OutboundLane.values()) {
+            Set<String> blockedChats = new HashSet<>();
+            Iterator<Task<?>> iterator = lanes.get(lane).iterator();
+            while (iterator.hasNext()) {
+                Task<?> task = iterator.next();
+                String chatId = task.chatId;
+                if (chatId != null && (inFlightChats.contains(chatId) || blockedChats.contains(chatId))) {
+                    continue;
+                }
+                long wait = Math.max(task.notBefore - now, 0L);
+                TokenBucket chatBucket = chatId == null ? null : chatBucket(chatId, now);
+                if (wait == 0L && chatBucket != null) {
+                    wait = chatBucket.nanosUntilAvailable(now);
+                }
+                if (wait > 0L) {
+                    if (chatId != null) {
+                        blockedChats.add(chatId);
+                    }
+                    nextWakeupNanos = Math.min(nextWakeupNanos, wait);
+                    continue;
+                }
+                iterator.remove();
+                backlog.get(lane).decrementAndGet();
+                globalBucket.consume(now);
+                if (chatBucket != null) {
+                    chatBucket.consume(now);
+                    inFlightChats.add(chatId);
+                }
+                inFlight++;
+                waitTimers.get(lane).record(now - task.enqueuedAt, TimeUnit.NANOSECONDS);
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private <T extends Serializable> void dispatch(Task<T> task) {
+        WorkingHoursTelegramBot bot = telegramBotProvider.getIfAvailable();
+        if (bot == null) {
+            onComplete(task, null, new IllegalStateException("Telegram bot is not available"));
+            return;
+        }
+        try {
+            bot.executeAsync(task.method).whenComplete((result, ex) -> onComplete(task, result, ex));
+        } catch (TelegramApiException ex) {
+            onComplete(task, null, ex);
+        }
+    }
+
+    private <T extends Serializable> void onComplete(Task<T> task, T result, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        lock.lock();
+        try {
+            inFlight--;
+            if (task.chatId != null) {
+                inFlightChats.remove(task.chatId);
+            }
+            long retryAfterSeconds = retryAfterSeconds(cause);
+            if (retryAfterSeconds > 0 && task.attempts < maxRetries) {
+                task.attempts++;
+                task.notBefore = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfterSeconds);
+                if (task.chatId != null) {
+                    chatBucket(task.chatId, System.nanoTime()).pauseUntil(task.notBefore);
+                }
+                // A chat-less call or a broadcast hitting the limit means the bot as a whole is flood-waited.
+                if (task.chatId == null || task.lane == OutboundLane.BULK) {
+                    globalBucket.pauseUntil(task.notBefore);
+                }
+                lanes.get(task.lane).addFirst(task);
+                backlog.get(task.lane).incrementAndGet();
+                retries.increment();
+                log.debug("Telegram asked to retry after {}s, chatId={}", retryAfterSeconds, task.chatId);
+                changed.signal();
+                return;
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (cause != null) {
+            failures.increment();
+            task.future.completeExceptionally(cause);
+        } else {
+            task.future.complete(result);
+        }
+    }
+
+    private TokenBucket chatBucket(String chatId, long now) {
+        return chatBuckets.computeIfAbsent(chatId, ignored -> chatId.startsWith("-")
+                ? new TokenBucket(groupPerMinute, groupPerMinute / 60d, now)
+                : new TokenBucket(chatBurst, chatPerSecond, now));
+    }
+
+    private boolean hasBacklog() {
+        for (Deque<Task<?>> lane : lanes.values()) {
+            if (!lane.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictIdleBuckets(long now) {
+        if (now - bucketsEvictedAt < BUCKET_EVICTION_INTERVAL_NANOS) {
+            return;
+        }
+        bucketsEvictedAt = now;
+        chatBuckets.entrySet().removeIf(entry -> !inFlightChats.contains(entry.getKey())
+                && entry.getValue().isIdle(now));
+    }
+
+    public static String chatIdOf(BotApiMethod<?> method) {
+        if (method instanceof SendMessage sendMessage) {
+            return sendMessage.getChatId();
+        }
+        if (method instanceof EditMessageText editMessageText) {
+            return editMessageText.getChatId();
+        }
+        if (method instanceof EditMessageReplyMarkup editMessageReplyMarkup) {
+            return editMessageReplyMarkup.getChatId();
+        }
+        return null;
+    }
+
+    private static long retryAfterSeconds(Throwable cause) {
+        if (cause instanceof TelegramApiRequestException apiEx
+                && apiEx.getParameters() != null
+                && apiEx.getParameters().getRetryAfter() != null) {
+            return apiEx.getParameters().getRetryAfter();
+        }
+        return 0L;
+    }
+
+    private static int positiveOr(int value, int fallback) {
+        return value > 0 ? value : fallback;
+    }
+
+    private static final class Task<T extends Serializable> {
+        private final BotApiMethod<T> method;
+        private final OutboundLane lane;
+        private final String chatId;
+        private final long enqueuedAt;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private long notBefore;
+        private int attempts;
+
+        private Task(BotApiMethod<T> method, OutboundLane lane, String chatId, long enqueuedAt) {
+            this.method = method;
+            this.lane = lane;
+            this.chatId = chatId;
+            this.enqueuedAt = enqueuedAt;
+            this.notBefore = enqueuedAt;
+        }
+    }
+}
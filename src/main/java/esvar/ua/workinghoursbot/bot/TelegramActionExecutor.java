@@ -0,0 +1,159 @@
+package esvar.ua.workinghoursbot.bot;
+
+import esvar.ua.workinghoursbot.service.ScheduleSessionStore;
+import esvar.ua.workinghoursbot.service.SubstitutionMenuSessionStore;
+import esvar.ua.workinghoursbot.service.SubstitutionService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+/**
+ * Sends the actions of a {@link BotResponse} asynchronously: actions for different chats go out in
+ * parallel, actions for the same chat keep their order. Calendar keyboard edits go through the
+ * {@link CalendarEditCoalescer} first.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TelegramActionExecutor {
+
+    private final OutboundMessageScheduler outboundMessageScheduler;
+    private final ScheduleSessionStore scheduleSessionStore;
+    private final SubstitutionService substitutionService;
+    private final SubstitutionMenuSessionStore substitutionMenuSessionStore;
+    private final CalendarEditCoalescer calendarEditCoalescer;
+
+    private final Map<String, CompletableFuture<Void>> chatTails = new ConcurrentHashMap<>();
+
+    public CompletableFuture<Void> execute(BotResponse response) {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (BotApiMethod<?> action : response.actions()) {
+            pending.add(enqueue(action));
+        }
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new));
+    }
+
+    private CompletableFuture<Void> enqueue(BotApiMethod<?> action) {
+        if (action instanceof CalendarKeyboardEditMessage calendarEdit) {
+            // Not awaited: the caller must not hold the user's next toggle until the window closes.
+            calendarEditCoalescer.offer(calendarEdit, this::enqueueInOrder);
+            return CompletableFuture.completedFuture(null);
+        }
+        String chatId = OutboundMessageScheduler.chatIdOf(action);
+        if (chatId != null) {
+            calendarEditCoalescer.flush(chatId);
+        }
+        return enqueueInOrder(action);
+    }
+
+    private CompletableFuture<Void> enqueueInOrder(BotApiMethod<?> action) {
+        String chatId = OutboundMessageScheduler.chatIdOf(action);
+        if (chatId == null) {
+            return send(action);
+        }
+        CompletableFuture<Void> tail = chatTails.compute(chatId, (ignored, previous) -> previous == null
+                ? send(action)
+                : previous.thenCompose(done -> send(action)));
+        tail.whenComplete((result, ex) -> chatTails.remove(chatId, tail));
+        return tail;
+    }
+
+    private CompletableFuture<Void> send(BotApiMethod<?> action) {
+        OutboundLane lane = action instanceof SubstitutionCandidateOfferMessage
+                ? OutboundLane.BULK
+                : OutboundLane.INTERACTIVE;
+        CompletableFuture<Void> sent;
+        if (action instanceof SendMessage sendMessage) {
+            sent = outboundMessageScheduler.submit(sendMessage, lane)
+                    .thenAccept(message -> recordSent(sendMessage, message));
+        } else {
+            sent = outboundMessageScheduler.submit(action, lane).thenAccept(result -> { });
+        }
+        return sent.exceptionallyCompose(ex -> handleFailure(action, unwrap(ex)));
+    }
+
+    private void recordSent(SendMessage action, Message sent) {
+        if (sent == null) {
+            return;
+        }
+        scheduleSessionStore.updateMessageIdForChat(sent.getChatId(), sent.getMessageId());
+        if (action instanceof SubstitutionMenuMessage menuMessage) {
+            substitutionMenuSessionStore.updateSession(
+                    menuMessage.getTelegramUserId(),
+                    sent.getChatId(),
+                    sent.getMessageId()
+            );
+        }
+        if (action instanceof SubstitutionCandidateOfferMessage offerMessage) {
+            substitutionService.registerCandidateNotification(
+                    offerMessage.getRequestId(),
+                    sent.getChatId(),
+                    sent.getMessageId()
+            );
+        }
+    }
+
+    private CompletableFuture<Void> handleFailure(BotApiMethod<?> action, Throwable ex) {
+        if (isNotModified(ex)) {
+            log.debug("Message was not modified, ignoring exception as per Telegram API behavior.");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.error("Failed to execute bot action", ex);
+        SendMessage fallback = fallbackFor(action);
+        if (fallback == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return outboundMessageScheduler.submit(fallback, OutboundLane.INTERACTIVE)
+                .thenAccept(message -> recordSent(fallback, message))
+                .exceptionally(nested -> {
+                    log.error("Failed to execute fallback bot action", unwrap(nested));
+                    return null;
+                });
+    }
+
+    private static SendMessage fallbackFor(BotApiMethod<?> action) {
+        if (action instanceof CalendarKeyboardEditMessage keyboardEdit) {
+            SendMessage fallback = new SendMessage();
+            fallback.setChatId(keyboardEdit.getChatId());
+            fallback.setText(keyboardEdit.getFallbackText());
+            fallback.setReplyMarkup(keyboardEdit.getReplyMarkup());
+            return fallback;
+        }
+        if (!(action instanceof EditMessageText editMessageText)) {
+            return null;
+        }
+        SendMessage fallback;
+        if (action instanceof SubstitutionMenuEditMessage menuEditMessage) {
+            fallback = new SubstitutionMenuMessage(menuEditMessage.getTelegramUserId());
+        } else {
+            fallback = new SendMessage();
+        }
+        fallback.setChatId(editMessageText.getChatId());
+        fallback.setText(editMessageText.getText());
+        fallback.setParseMode(editMessageText.getParseMode());
+        fallback.setReplyMarkup(editMessageText.getReplyMarkup());
+        return fallback;
+    }
+
+    private static boolean isNotModified(Throwable ex) {
+        return ex instanceof TelegramApiRequestException apiEx
+                && apiEx.getApiResponse() != null
+                && apiEx.getApiResponse().contains("message is not modified");
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+}
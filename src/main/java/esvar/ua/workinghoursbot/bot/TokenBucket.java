@@ -0,0 +1,54 @@
+package esvar.ua.workinghoursbot.bot;
+
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+    private long pausedUntil;
+
+    TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    long nanosUntilAvailable(long now) {
+        if (now < pausedUntil) {
+            return pausedUntil - now;
+        }
+        refill(now);
+        if (tokens >= 1d) {
+            return 0L;
+        }
+        return (long) Math.ceil((1d - tokens) / tokensPerNano);
+    }
+
+    void consume(long now) {
+        refill(now);
+        tokens -= 1d;
+    }
+
+    void pauseUntil(long until) {
+        pausedUntil = Math.max(pausedUntil, until);
+        tokens = Math.min(tokens, 1d);
+    }
+
+    boolean isIdle(long now) {
+        if (now < pausedUntil) {
+            return false;
+        }
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        if (now <= refilledAt) {
+            return;
+        }
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
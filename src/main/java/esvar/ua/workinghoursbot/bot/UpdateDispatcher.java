@@ -0,0 +1,196 @@
+package esvar.ua.workinghoursbot.bot;
+
+import esvar.ua.workinghoursbot.config.UpdateDispatcherProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Fans updates out to virtual threads while keeping updates of the same user strictly ordered. A polled batch
+ * is grouped by user first, so each user's share of a backlog is queued in one step and drained by one worker.
+ */
+@Component
+@Slf4j
+public class UpdateDispatcher {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 8;
+    private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Map<Long, KeyQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedUpdates = new AtomicInteger();
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("update-worker-", 0).factory());
+    private final Semaphore permits;
+    private final Duration shutdownTimeout;
+    private final Timer lagTimer;
+    private final Timer processingTimer;
+    private final Timer latencyTimer;
+    private final DistributionSummary batchSize;
+
+    public UpdateDispatcher(UpdateDispatcherProperties properties, MeterRegistry meterRegistry) {
+        int maxConcurrency = properties.maxConcurrency() > 0 ? properties.maxConcurrency() : DEFAULT_MAX_CONCURRENCY;
+        this.permits = new Semaphore(maxConcurrency);
+        this.shutdownTimeout = properties.shutdownTimeout() != null
+                ? properties.shutdownTimeout()
+                : DEFAULT_SHUTDOWN_TIMEOUT;
+        this.lagTimer = Timer.builder("bot.dispatcher.lag")
+                .description("Time an update waits in its per-user queue")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("bot.dispatcher.processing")
+                .description("Time spent handling a single update")
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("bot.dispatcher.latency")
+                .description("Time from receiving an update until it is handled")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("bot.dispatcher.batch.size")
+                .description("Updates received in one poll")
+                .register(meterRegistry);
+        Gauge.builder("bot.dispatcher.queue.depth", queuedUpdates, AtomicInteger::get)
+                .description("Updates waiting or in progress")
+                .register(meterRegistry);
+        Gauge.builder("bot.dispatcher.active.keys", queues, Map::size)
+                .description("Users with queued updates")
+                .register(meterRegistry);
+    }
+
+    public void dispatch(Update update, Consumer<Update> handler) {
+        enqueue(resolveKey(update), List.of(new Task(update, handler, System.nanoTime())));
+    }
+
+    public void dispatchAll(List<Update> updates, Consumer<Update> handler) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        long receivedAt = System.nanoTime();
+        batchSize.record(updates.size());
+        Map<Long, List<Task>> groups = new LinkedHashMap<>();
+        for (Update update : updates) {
+            groups.computeIfAbsent(resolveKey(update), ignored -> new ArrayList<>())
+                    .add(new Task(update, handler, receivedAt));
+        }
+        groups.forEach(this::enqueue);
+    }
+
+    private void enqueue(long key, List<Task> tasks) {
+        queuedUpdates.addAndGet(tasks.size());
+        queues.compute(key, (ignored, queue) -> {
+            if (queue == null) {
+                KeyQueue created = new KeyQueue(key);
+                created.tasks.addAll(tasks);
+                workers.execute(() -> drain(created));
+                return created;
+            }
+            queue.tasks.addAll(tasks);
+            return queue;
+        });
+    }
+
+    public int queueDepth() {
+        return queuedUpdates.get();
+    }
+
+    static long resolveKey(Update update) {
+        if (update.hasMessage() && update.getMessage().getFrom() != null) {
+            return update.getMessage().getFrom().getId();
+        }
+        if (update.hasCallbackQuery() && update.getCallbackQuery().getFrom() != null) {
+            return update.getCallbackQuery().getFrom().getId();
+        }
+        if (update.hasEditedMessage() && update.getEditedMessage().getFrom() != null) {
+            return update.getEditedMessage().getFrom().getId();
+        }
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasMyChatMember()) {
+            return update.getMyChatMember().getChat().getId();
+        }
+        return 0L;
+    }
+
+    private void drain(KeyQueue queue) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            while (true) {
+                Task task = queue.tasks.poll();
+                if (task == null) {
+                    KeyQueue remaining = queues.computeIfPresent(queue.key,
+                            (ignored, current) -> current.tasks.isEmpty() ? null : current);
+                    if (remaining == null) {
+                        return;
+                    }
+                    continue;
+                }
+                run(task);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void run(Task task) {
+        long startedAt = System.nanoTime();
+        lagTimer.record(startedAt - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+        try {
+            task.handler().accept(task.update());
+        } catch (RuntimeException ex) {
+            log.error("Failed to handle update {}", task.update().getUpdateId(), ex);
+        } finally {
+            long finishedAt = System.nanoTime();
+            processingTimer.record(finishedAt - startedAt, TimeUnit.NANOSECONDS);
+            latencyTimer.record(finishedAt - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+            queuedUpdates.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Update dispatcher stopped with {} updates still queued", queuedUpdates.get());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    private record Task(Update update, Consumer<Update> handler, long enqueuedAt) {
+    }
+
+    private static final class KeyQueue {
+        private final long key;
+        private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+
+        private KeyQueue(long key) {
+            this.key = key;
+        }
+    }
+}
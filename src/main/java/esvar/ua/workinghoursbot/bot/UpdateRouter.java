@@ -1,9 +1,8 @@
 package esvar.ua.workinghoursbot.bot;
 
-import esvar.ua.workinghoursbot.domain.RegistrationStatus;
 import esvar.ua.workinghoursbot.domain.Role;
-import esvar.ua.workinghoursbot.domain.UserAccount;
 import esvar.ua.workinghoursbot.domain.AuditEventType;
+import esvar.ua.workinghoursbot.service.AccountSnapshot;
 import esvar.ua.workinghoursbot.service.RegistrationService;
 import esvar.ua.workinghoursbot.service.ScheduleInteractionHandler;
 import esvar.ua.workinghoursbot.service.ShiftConfirmationService;
@@ -14,12 +13,15 @@ import esvar.ua.workinghoursbot.service.SeniorSellerMenuService;
 import esvar.ua.workinghoursbot.service.TmMenuService;
 import esvar.ua.workinghoursbot.service.UserAccountService;
 import esvar.ua.workinghoursbot.service.AccessGuardService;
+import esvar.ua.workinghoursbot.service.UpdateContext;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
-import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
@@ -39,18 +41,44 @@ public class UpdateRouter {
     private final LocationInfoService locationInfoService;
     private final AuditService auditService;
     private final AccessGuardService accessGuardService;
+    private final CallbackRouteRegistry callbackRouteRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private DistributionSummary statementsPerUpdate;
+    private DistributionSummary memoizedPerUpdate;
+
+    @PostConstruct
+    void registerMeters() {
+        statementsPerUpdate = DistributionSummary.builder("bot.update.queries")
+                .description("SQL statements executed while routing one update")
+                .register(meterRegistry);
+        memoizedPerUpdate = DistributionSummary.builder("bot.update.memoized")
+                .description("Lookups answered from the update context instead of the database")
+                .register(meterRegistry);
+    }
 
     public BotResponse route(Update update) {
         if (update == null) {
             return BotResponse.empty();
         }
 
+        try (UpdateContext context = UpdateContext.open()) {
+            try {
+                return routeInContext(update);
+            } finally {
+                statementsPerUpdate.record(context.statementCount());
+                memoizedPerUpdate.record(context.memoizedHits());
+            }
+        }
+    }
+
+    private BotResponse routeInContext(Update update) {
         if (update.hasMessage()) {
             return handleMessage(update.getMessage());
         }
 
         if (update.hasCallbackQuery()) {
-            return handleCallback(update.getCallbackQuery());
+            return callbackRouteRegistry.route(update.getCallbackQuery());
         }
 
         return BotResponse.empty();
@@ -83,43 +111,20 @@ public class UpdateRouter {
         return handleText(telegramUserId, chatId, text);
     }
 
-    private BotResponse handleCallback(CallbackQuery callbackQuery) {
-        if (callbackQuery == null || callbackQuery.getFrom() == null) {
-            return BotResponse.empty();
-        }
-
-        BotResponse tmResponse = tmMenuService.handleCallback(callbackQuery);
-        if (!tmResponse.actions().isEmpty()) {
-            return tmResponse;
-        }
-
-        BotResponse substitutionResponse = substitutionInteractionHandler.handleCallback(callbackQuery);
-        if (!substitutionResponse.actions().isEmpty()) {
-            return substitutionResponse;
-        }
-
-        BotResponse response = scheduleInteractionHandler.handleCallback(callbackQuery);
-        if (!response.actions().isEmpty()) {
-            return response;
-        }
-        log.info("Ignoring callback query for user {}", callbackQuery.getFrom().getId());
-        return response;
-    }
-
     private BotResponse handleStartCommand(Long telegramUserId, Long chatId) {
-        Optional<UserAccount> accountOptional = userAccountService.findByTelegramUserId(telegramUserId);
+        Optional<AccountSnapshot> accountOptional = userAccountService.findSnapshot(telegramUserId);
         auditService.log(
                 AuditEventType.USER_START,
-                accountOptional.map(UserAccount::getId).orElse(null),
+                accountOptional.map(AccountSnapshot::id).orElse(null),
                 null,
-                accountOptional.map(account -> account.getLocation() == null ? null : account.getLocation().getId()).orElse(null),
-                accountOptional.map(account -> "Користувач: " + account.getLastName())
+                accountOptional.map(AccountSnapshot::locationId).orElse(null),
+                accountOptional.map(account -> "Користувач: " + account.lastName())
                         .orElse("TelegramUserId: " + telegramUserId)
         );
-        return userAccountService.findByTelegramUserId(telegramUserId)
-                .filter(account -> account.getStatus() == RegistrationStatus.APPROVED)
+        return accountOptional
+                .filter(AccountSnapshot::isApproved)
                 .map(account -> {
-                    if (account.getRole() == Role.TM) {
+                    if (account.role() == Role.TM) {
                         return tmMenuService.showMainMenu(telegramUserId, chatId);
                     }
                     return registrationService.startRegistration(telegramUserId, chatId);
@@ -128,34 +133,33 @@ public class UpdateRouter {
     }
 
     private BotResponse handleText(Long telegramUserId, Long chatId, String text) {
-        UserAccount account = userAccountService.findByTelegramUserId(telegramUserId).orElse(null);
+        AccountSnapshot account = userAccountService.findSnapshot(telegramUserId).orElse(null);
         BotResponse guardResponse = accessGuardService.check(account, chatId, text);
         if (guardResponse != null) {
             return guardResponse;
         }
-        if (account != null && account.getStatus() == RegistrationStatus.APPROVED && account.getRole() != Role.TM) {
+        if (account != null && account.isApproved() && account.role() != Role.TM) {
             BotResponse confirmationResponse = shiftConfirmationService.handleResponse(telegramUserId, chatId, text);
             if (!confirmationResponse.actions().isEmpty()) {
                 return confirmationResponse;
             }
         }
-        if (account != null && account.getStatus() == RegistrationStatus.APPROVED) {
-            BotResponse locationResponse = locationInfoService.showMyLocation(account, chatId, text);
+        if (account != null && account.isApproved()) {
+            BotResponse locationResponse = locationInfoService.showMyLocation(telegramUserId, chatId, text);
             if (!locationResponse.actions().isEmpty()) {
                 return locationResponse;
             }
         }
-        if (account != null && account.getStatus() == RegistrationStatus.APPROVED && account.getRole() == Role.TM) {
+        if (account != null && account.isApproved() && account.role() == Role.TM) {
             return tmMenuService.handleText(telegramUserId, chatId, text);
         }
-        if (account != null && account.getStatus() == RegistrationStatus.APPROVED
-                && account.getRole() == Role.SENIOR_SELLER) {
+        if (account != null && account.isApproved() && account.role() == Role.SENIOR_SELLER) {
             BotResponse seniorResponse = seniorSellerMenuService.handleText(telegramUserId, chatId, text);
             if (!seniorResponse.actions().isEmpty()) {
                 return seniorResponse;
             }
         }
-        if (account != null && account.getStatus() == RegistrationStatus.APPROVED && account.getRole() != Role.TM) {
+        if (account != null && account.isApproved() && account.role() != Role.TM) {
             BotResponse substitutionResponse = substitutionInteractionHandler.handleMessage(telegramUserId, chatId, text);
             if (!substitutionResponse.actions().isEmpty()) {
                 return substitutionResponse;
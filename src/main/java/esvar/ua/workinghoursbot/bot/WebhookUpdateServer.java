@@ -0,0 +1,129 @@
+package esvar.ua.workinghoursbot.bot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import esvar.ua.workinghoursbot.config.WebhookProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+/**
+ * Embedded HTTP endpoint for webhook mode. Each request runs on a virtual thread, is checked against the
+ * {@code X-Telegram-Bot-Api-Secret-Token} header, acknowledged with 200 and only then handed to the sink, so
+ * Telegram never waits for routing. Any recorded {@link Update} JSON can be POSTed to it locally together with
+ * the secret header. Serves a single instance only; see {@code TelegramBotConfig}.
+ */
+@Slf4j
+public class WebhookUpdateServer {
+
+    static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final WebhookProperties properties;
+    private final Consumer<Update> sink;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final byte[] secretToken;
+    private final Counter accepted;
+    private final Counter unauthorized;
+    private final Counter malformed;
+    private ExecutorService executor;
+    private HttpServer server;
+
+    public WebhookUpdateServer(WebhookProperties properties, Consumer<Update> sink, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sink = sink;
+        if (properties.secretToken() == null || properties.secretToken().isBlank()) {
+            throw new IllegalArgumentException("Webhook secret token must not be blank");
+        }
+        this.secretToken = properties.secretToken().getBytes(StandardCharsets.UTF_8);
+        this.accepted = counter(meterRegistry, "accepted");
+        this.unauthorized = counter(meterRegistry, "unauthorized");
+        this.malformed = counter(meterRegistry, "malformed");
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(properties.port()), 0);
+        server.setExecutor(executor);
+        server.createContext(properties.path(), this::handle);
+        server.start();
+        log.info("Webhook endpoint listening. port={}, path={}", port(), properties.path());
+    }
+
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.close();
+        server = null;
+    }
+
+    public synchronized int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!properties.path().equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (!authorized(exchange.getRequestHeaders().getFirst(SECRET_TOKEN_HEADER))) {
+                unauthorized.increment();
+                exchange.sendResponseHeaders(401, -1);
+                return;
+            }
+            Update update;
+            try (InputStream body = exchange.getRequestBody()) {
+                byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+                if (bytes.length > MAX_BODY_BYTES) {
+                    malformed.increment();
+                    exchange.sendResponseHeaders(413, -1);
+                    return;
+                }
+                update = objectMapper.readValue(bytes, Update.class);
+            } catch (JsonProcessingException ex) {
+                malformed.increment();
+                log.debug("Rejected malformed webhook update", ex);
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            // Acknowledge first: Telegram resends an update it has not had a 200 for.
+            exchange.sendResponseHeaders(200, -1);
+            accepted.increment();
+            sink.accept(update);
+        }
+    }
+
+    private boolean authorized(String header) {
+        return header != null && MessageDigest.isEqual(secretToken, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("bot.webhook.updates")
+                .description("Updates received on the webhook endpoint")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,128 +1,52 @@
 package esvar.ua.workinghoursbot.bot;
 
 import esvar.ua.workinghoursbot.config.BotProperties;
-import esvar.ua.workinghoursbot.service.ScheduleSessionStore;
-import esvar.ua.workinghoursbot.service.SubstitutionMenuSessionStore;
-import esvar.ua.workinghoursbot.service.SubstitutionService;
-import lombok.RequiredArgsConstructor;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
-import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
-import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.Update;
-import org.telegram.telegrambots.meta.api.objects.Message;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class WorkingHoursTelegramBot extends TelegramLongPollingBot {
 
     private final BotProperties botProperties;
     private final UpdateRouter updateRouter;
-    private final ScheduleSessionStore scheduleSessionStore;
-    private final SubstitutionService substitutionService;
-    private final SubstitutionMenuSessionStore substitutionMenuSessionStore;
+    private final UpdateDispatcher updateDispatcher;
+    private final TelegramActionExecutor actionExecutor;
+
+    public WorkingHoursTelegramBot(DefaultBotOptions telegramBotOptions,
+                                   BotProperties botProperties,
+                                   UpdateRouter updateRouter,
+                                   UpdateDispatcher updateDispatcher,
+                                   TelegramActionExecutor actionExecutor) {
+        super(telegramBotOptions, botProperties.token());
+        this.botProperties = botProperties;
+        this.updateRouter = updateRouter;
+        this.updateDispatcher = updateDispatcher;
+        this.actionExecutor = actionExecutor;
+    }
 
     @Override
     public String getBotUsername() {
         return botProperties.username();
     }
 
-    @Override
-    public String getBotToken() {
-        return botProperties.token();
-    }
-
     @Override
     public void onUpdateReceived(Update update) {
-        BotResponse response = updateRouter.route(update);
-        for (BotApiMethod<?> action : response.actions()) {
-            try {
-                executeAction(action);
-            } catch (TelegramApiException ex) {
-                handleExecutionFailure(action, ex);
-            }
-        }
+        updateDispatcher.dispatch(update, this::handleUpdate);
     }
 
-    private void executeAction(BotApiMethod<?> action) throws TelegramApiException {
-        if (action instanceof SendMessage sendMessage) {
-            Message sent = execute(sendMessage);
-            if (sent != null) {
-                scheduleSessionStore.updateMessageIdForChat(sent.getChatId(), sent.getMessageId());
-                if (action instanceof SubstitutionMenuMessage menuMessage) {
-                    substitutionMenuSessionStore.updateSession(
-                            menuMessage.getTelegramUserId(),
-                            sent.getChatId(),
-                            sent.getMessageId()
-                    );
-                }
-                if (action instanceof SubstitutionCandidateOfferMessage offerMessage) {
-                    substitutionService.registerCandidateNotification(
-                            offerMessage.getRequestId(),
-                            sent.getChatId(),
-                            sent.getMessageId()
-                    );
-                }
-            }
-            return;
-        }
-        if (action instanceof EditMessageText editMessageText) {
-            try {
-                execute(editMessageText);
-            } catch (TelegramApiRequestException e) {
-                if (e.getApiResponse().contains("message is not modified")) {
-                    log.debug("Message was not modified, ignoring exception as per Telegram API behavior.");
-                    return;
-                }
-                throw e;
-            }
-            return;
-        }
-        execute(action);
+    @Override
+    public void onUpdatesReceived(List<Update> updates) {
+        updateDispatcher.dispatchAll(updates, this::handleUpdate);
     }
 
-    private void handleExecutionFailure(BotApiMethod<?> action, TelegramApiException ex) {
-        if (ex instanceof TelegramApiRequestException apiEx && apiEx.getApiResponse().contains("message is not modified")) {
-            return;
-        }
-
-        log.error("Failed to execute bot action", ex);
-        if (action instanceof EditMessageText editMessageText) {
-            SendMessage fallback;
-            if (action instanceof SubstitutionMenuEditMessage menuEditMessage) {
-                SubstitutionMenuMessage menuFallback = new SubstitutionMenuMessage(menuEditMessage.getTelegramUserId());
-                menuFallback.setChatId(editMessageText.getChatId());
-                menuFallback.setText(editMessageText.getText());
-                menuFallback.setParseMode(editMessageText.getParseMode());
-                menuFallback.setReplyMarkup(editMessageText.getReplyMarkup());
-                fallback = menuFallback;
-            } else {
-                fallback = new SendMessage();
-                fallback.setChatId(editMessageText.getChatId());
-                fallback.setText(editMessageText.getText());
-                fallback.setParseMode(editMessageText.getParseMode());
-                fallback.setReplyMarkup(editMessageText.getReplyMarkup());
-            }
-            try {
-                Message sent = execute(fallback);
-                if (sent != null) {
-                    scheduleSessionStore.updateMessageIdForChat(sent.getChatId(), sent.getMessageId());
-                    if (fallback instanceof SubstitutionMenuMessage menuMessage) {
-                        substitutionMenuSessionStore.updateSession(
-                                menuMessage.getTelegramUserId(),
-                                sent.getChatId(),
-                                sent.getMessageId()
-                        );
-                    }
-                }
-            } catch (TelegramApiException nested) {
-                log.error("Failed to execute fallback bot action", nested);
-            }
-        }
+    private void handleUpdate(Update update) {
+        BotResponse response = updateRouter.route(update);
+        // Wait for delivery so message-id bookkeeping is visible to this user's next update.
+        actionExecutor.execute(response).join();
     }
 }
@@ -0,0 +1,11 @@
+package esvar.ua.workinghoursbot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.account-cache")
+public record AccountCacheProperties(
+        int maxSize,
+        Duration ttl
+) {
+}
@@ -0,0 +1,10 @@
+package esvar.ua.workinghoursbot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.candidate-pool")
+public record CandidatePoolProperties(
+        Duration ttl
+) {
+}
@@ -8,5 +8,15 @@ public record DomainProperties(
         Schedule schedule
 ) {
     public record Tm(String pin, int maxAttempts) {}
-    public record Schedule(int maxSellersPerLocation) {}
+
+    /**
+     * {@code storageMode} selects where month reads come from; writes always go to both
+     * {@code schedule_days} and the packed {@code schedule_months} table.
+     */
+    public record Schedule(int maxSellersPerLocation, ScheduleStorageMode storageMode) {}
+
+    public enum ScheduleStorageMode {
+        ROWS,
+        PACKED
+    }
 }
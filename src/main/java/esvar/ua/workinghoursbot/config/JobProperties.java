@@ -0,0 +1,9 @@
+package esvar.ua.workinghoursbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.jobs")
+public record JobProperties(
+        int chunkSize
+) {
+}
@@ -0,0 +1,16 @@
+package esvar.ua.workinghoursbot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.outbound")
+public record OutboundProperties(
+        int globalPerSecond,
+        int chatPerSecond,
+        int chatBurst,
+        int groupPerMinute,
+        int maxInFlight,
+        int maxRetries,
+        Duration editCoalesceWindow
+) {
+}
@@ -0,0 +1,14 @@
+package esvar.ua.workinghoursbot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.outbox")
+public record OutboxProperties(
+        int batchSize,
+        int maxAttempts,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        Duration retention
+) {
+}
@@ -0,0 +1,19 @@
+package esvar.ua.workinghoursbot.config;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.session-store")
+public record SessionStoreProperties(
+        int maxSize,
+        Duration ttl,
+        Map<String, Limits> stores
+) {
+
+    public record Limits(
+            int maxSize,
+            Duration ttl
+    ) {
+    }
+}
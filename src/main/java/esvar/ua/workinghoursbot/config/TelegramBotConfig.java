@@ -1,14 +1,24 @@
 package esvar.ua.workinghoursbot.config;
 
+import esvar.ua.workinghoursbot.bot.WebhookUpdateServer;
 import esvar.ua.workinghoursbot.bot.WorkingHoursTelegramBot;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
+/**
+ * Wires update ingestion: long polling by default, or the embedded webhook endpoint when
+ * {@code bot.webhook.enabled} is set. Both feed {@link WorkingHoursTelegramBot#onUpdateReceived}.
+ * Either way exactly one instance may run per bot token: sessions, the acceptance gate, per-user ordering and
+ * the outbox relay all live in this process, so updates must not be spread across instances.
+ */
 @Configuration
 @RequiredArgsConstructor
 @ConditionalOnProperty(value = "bot.enabled", havingValue = "true", matchIfMissing = true)
@@ -17,9 +27,36 @@ public class TelegramBotConfig {
     private final WorkingHoursTelegramBot workingHoursTelegramBot;
 
     @Bean
+    @ConditionalOnProperty(value = "bot.webhook.enabled", havingValue = "false", matchIfMissing = true)
     public TelegramBotsApi telegramBotsApi() throws TelegramApiException {
         TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
+        // Registration also deletes any webhook left from webhook mode, which would block getUpdates.
         botsApi.registerBot(workingHoursTelegramBot);
         return botsApi;
     }
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnProperty(value = "bot.webhook.enabled", havingValue = "true")
+    public WebhookUpdateServer webhookUpdateServer(WebhookProperties properties, MeterRegistry meterRegistry)
+            throws IOException, TelegramApiException {
+        if (properties.secretToken() == null || properties.secretToken().isBlank()) {
+            throw new IllegalStateException("bot.webhook.secret-token must be set when bot.webhook.enabled is true");
+        }
+        if (properties.publicUrl() == null || properties.publicUrl().isBlank()) {
+            throw new IllegalStateException("bot.webhook.public-url must be set when bot.webhook.enabled is true");
+        }
+        WebhookUpdateServer server = new WebhookUpdateServer(
+                properties, workingHoursTelegramBot::onUpdateReceived, meterRegistry);
+        server.start();
+        try {
+            workingHoursTelegramBot.execute(SetWebhook.builder()
+                    .url(properties.publicUrl())
+                    .secretToken(properties.secretToken())
+                    .build());
+        } catch (TelegramApiException ex) {
+            server.stop();
+            throw ex;
+        }
+        return server;
+    }
 }
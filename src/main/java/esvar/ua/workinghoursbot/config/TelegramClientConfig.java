@@ -0,0 +1,33 @@
+package esvar.ua.workinghoursbot.config;
+
+import java.time.Duration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.telegram.telegrambots.Constants;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+
+@Configuration
+public class TelegramClientConfig {
+
+    private static final int DEFAULT_MAX_THREADS = 8;
+    // Bot API bounds for getUpdates: at most 100 updates per call.
+    private static final int MAX_UPDATES_LIMIT = 100;
+    private static final Duration DEFAULT_UPDATES_TIMEOUT = Duration.ofSeconds(50);
+    // The long poll must return before the client's socket timeout, or every idle poll ends in a read error.
+    private static final Duration MAX_UPDATES_TIMEOUT = Duration.ofMillis(Constants.SOCKET_TIMEOUT).minusSeconds(5);
+
+    @Bean
+    public DefaultBotOptions telegramBotOptions(TelegramClientProperties properties) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setMaxThreads(properties.maxThreads() > 0 ? properties.maxThreads() : DEFAULT_MAX_THREADS);
+        options.setGetUpdatesLimit(properties.updatesLimit() > 0
+                ? Math.min(properties.updatesLimit(), MAX_UPDATES_LIMIT)
+                : MAX_UPDATES_LIMIT);
+        Duration timeout = properties.updatesTimeout() != null ? properties.updatesTimeout() : DEFAULT_UPDATES_TIMEOUT;
+        if (timeout.compareTo(MAX_UPDATES_TIMEOUT) > 0) {
+            timeout = MAX_UPDATES_TIMEOUT;
+        }
+        options.setGetUpdatesTimeout((int) Math.max(0, timeout.toSeconds()));
+        return options;
+    }
+}
@@ -0,0 +1,12 @@
+package esvar.ua.workinghoursbot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.client")
+public record TelegramClientProperties(
+        int maxThreads,
+        int updatesLimit,
+        Duration updatesTimeout
+) {
+}
@@ -0,0 +1,11 @@
+package esvar.ua.workinghoursbot.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.dispatcher")
+public record UpdateDispatcherProperties(
+        int maxConcurrency,
+        Duration shutdownTimeout
+) {
+}
@@ -0,0 +1,13 @@
+package esvar.ua.workinghoursbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "bot.webhook")
+public record WebhookProperties(
+        boolean enabled,
+        int port,
+        String path,
+        String secretToken,
+        String publicUrl
+) {
+}
@@ -0,0 +1,55 @@
+package esvar.ua.workinghoursbot.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Progress of a chunked job run: the key of the last committed item, so a restart continues after it, and the
+ * keys of items that failed and were skipped.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Getter
+@Setter
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Column(name = "run_key", nullable = false)
+    private String runKey;
+
+    @Column(name = "last_key")
+    private String lastKey;
+
+    @Column(name = "processed", nullable = false)
+    private long processed;
+
+    // Comma-separated, capped by ChunkedJobRunner; the full list is in the logs.
+    @Column(name = "failed_keys", columnDefinition = "TEXT")
+    private String failedKeys;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public boolean isUnfinished(String runKey) {
+        return completedAt == null && this.runKey.equals(runKey);
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        updatedAt = Instant.now();
+    }
+}
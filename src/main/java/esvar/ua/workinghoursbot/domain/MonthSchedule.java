@@ -0,0 +1,126 @@
+package esvar.ua.workinghoursbot.domain;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Work days of one month packed into an {@code int}: bit {@code day - 1} is set when the day is a working one.
+ */
+public record MonthSchedule(YearMonth month, int mask) {
+
+    public MonthSchedule {
+        Objects.requireNonNull(month, "month");
+        if ((mask & ~fullMask(month)) != 0) {
+            throw new IllegalArgumentException("Mask has days outside of " + month + ": " + Integer.toBinaryString(mask));
+        }
+    }
+
+    public static MonthSchedule empty(YearMonth month) {
+        return new MonthSchedule(month, 0);
+    }
+
+    public static MonthSchedule of(YearMonth month, LocalDate... dates) {
+        return of(month, List.of(dates));
+    }
+
+    /**
+     * Dates outside of {@code month} are ignored.
+     */
+    public static MonthSchedule of(YearMonth month, Collection<LocalDate> dates) {
+        int mask = 0;
+        if (dates != null) {
+            for (LocalDate date : dates) {
+                if (date != null && date.getYear() == month.getYear() && date.getMonth() == month.getMonth()) {
+                    mask |= bit(date.getDayOfMonth());
+                }
+            }
+        }
+        return new MonthSchedule(month, mask);
+    }
+
+    public int daysInMonth() {
+        return month.lengthOfMonth();
+    }
+
+    public boolean contains(int day) {
+        return day >= 1 && day <= 31 && (mask & bit(day)) != 0;
+    }
+
+    public boolean contains(LocalDate date) {
+        return date != null
+                && date.getYear() == month.getYear()
+                && date.getMonth() == month.getMonth()
+                && contains(date.getDayOfMonth());
+    }
+
+    public MonthSchedule toggle(int day) {
+        checkDay(day);
+        return new MonthSchedule(month, mask ^ bit(day));
+    }
+
+    public MonthSchedule toggle(LocalDate date) {
+        checkDate(date);
+        return toggle(date.getDayOfMonth());
+    }
+
+    public MonthSchedule with(LocalDate date) {
+        checkDate(date);
+        return new MonthSchedule(month, mask | bit(date.getDayOfMonth()));
+    }
+
+    public MonthSchedule without(LocalDate date) {
+        checkDate(date);
+        return new MonthSchedule(month, mask & ~bit(date.getDayOfMonth()));
+    }
+
+    public MonthSchedule cleared() {
+        return mask == 0 ? this : empty(month);
+    }
+
+    public int workingCount() {
+        return Integer.bitCount(mask);
+    }
+
+    public int offCount() {
+        return daysInMonth() - workingCount();
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    /**
+     * Working dates in ascending order.
+     */
+    public List<LocalDate> toDates() {
+        List<LocalDate> dates = new ArrayList<>(workingCount());
+        for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            dates.add(month.atDay(Integer.numberOfTrailingZeros(remaining) + 1));
+        }
+        return dates;
+    }
+
+    private static int bit(int day) {
+        return 1 << (day - 1);
+    }
+
+    private static int fullMask(YearMonth month) {
+        return (int) ((1L << month.lengthOfMonth()) - 1);
+    }
+
+    private void checkDay(int day) {
+        if (day < 1 || day > daysInMonth()) {
+            throw new IllegalArgumentException("Day " + day + " is outside of " + month);
+        }
+    }
+
+    private void checkDate(LocalDate date) {
+        if (date == null || date.getYear() != month.getYear() || date.getMonth() != month.getMonth()) {
+            throw new IllegalArgumentException("Date " + date + " is outside of " + month);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package esvar.ua.workinghoursbot.domain;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,66 @@
+package esvar.ua.workinghoursbot.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+@Entity
+@Table(name = "schedule_months", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"telegram_user_id", "location_id", "month"})
+})
+@Getter
+@Setter
+public class ScheduleMonth {
+
+    @Id
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "id", nullable = false, length = 36)
+    private UUID id;
+
+    @Column(name = "telegram_user_id", nullable = false)
+    private Long telegramUserId;
+
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "location_id", nullable = false, length = 36)
+    private UUID locationId;
+
+    @Convert(converter = YearMonthStringConverter.class)
+    @Column(name = "month", nullable = false, length = 7)
+    private YearMonth month;
+
+    @Column(name = "work_mask", nullable = false)
+    private int workMask;
+
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public MonthSchedule toSchedule() {
+        return new MonthSchedule(month, workMask);
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        updatedAt = Instant.now();
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = Instant.now();
+    }
+}
@@ -0,0 +1,82 @@
+package esvar.ua.workinghoursbot.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Persisted copy of a schedule edit session, so unsaved drafts survive a restart.
+ */
+@Entity
+@Table(name = "schedule_session_snapshots")
+@Getter
+@Setter
+public class ScheduleSessionSnapshot {
+
+    private static final int DRAFT_BYTES = 8;
+
+    @Id
+    @Column(name = "telegram_user_id", nullable = false)
+    private Long telegramUserId;
+
+    @Column(name = "mode", nullable = false)
+    private String mode;
+
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "active_location_id", length = 36)
+    private UUID activeLocationId;
+
+    @Convert(converter = YearMonthStringConverter.class)
+    @Column(name = "active_month", length = 7)
+    private YearMonth activeMonth;
+
+    @Column(name = "calendar_chat_id")
+    private Long calendarChatId;
+
+    @Column(name = "calendar_message_id")
+    private Integer calendarMessageId;
+
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(name = "drafts", nullable = false)
+    private byte[] drafts;
+
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "last_updated_at", nullable = false)
+    private Instant lastUpdatedAt;
+
+    public static byte[] encodeDrafts(Collection<MonthSchedule> drafts) {
+        ByteBuffer buffer = ByteBuffer.allocate(drafts.size() * DRAFT_BYTES);
+        for (MonthSchedule draft : drafts) {
+            buffer.putInt(draft.month().getYear() * 12 + draft.month().getMonthValue() - 1);
+            buffer.putInt(draft.mask());
+        }
+        return buffer.array();
+    }
+
+    public static List<MonthSchedule> decodeDrafts(byte[] encoded) {
+        if (encoded == null || encoded.length % DRAFT_BYTES != 0) {
+            return List.of();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        List<MonthSchedule> drafts = new ArrayList<>(encoded.length / DRAFT_BYTES);
+        while (buffer.hasRemaining()) {
+            int monthIndex = buffer.getInt();
+            int mask = buffer.getInt();
+            drafts.add(new MonthSchedule(YearMonth.of(monthIndex / 12, monthIndex % 12 + 1), mask));
+        }
+        return drafts;
+    }
+}
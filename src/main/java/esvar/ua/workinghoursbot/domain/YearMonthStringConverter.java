@@ -0,0 +1,19 @@
+package esvar.ua.workinghoursbot.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.time.YearMonth;
+
+@Converter(autoApply = false)
+public class YearMonthStringConverter implements AttributeConverter<YearMonth, String> {
+
+    @Override
+    public String convertToDatabaseColumn(YearMonth attribute) {
+        return (attribute == null) ? null : attribute.toString(); // Формат yyyy-MM
+    }
+
+    @Override
+    public YearMonth convertToEntityAttribute(String dbData) {
+        return (dbData == null) ? null : YearMonth.parse(dbData);
+    }
+}
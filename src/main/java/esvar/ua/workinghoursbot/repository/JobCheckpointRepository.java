@@ -0,0 +1,7 @@
+package esvar.ua.workinghoursbot.repository;
+
+import esvar.ua.workinghoursbot.domain.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
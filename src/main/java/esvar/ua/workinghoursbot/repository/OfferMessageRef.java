@@ -0,0 +1,7 @@
+package esvar.ua.workinghoursbot.repository;
+
+/**
+ * Where a substitution offer was delivered: enough to edit the message without loading the candidate row.
+ */
+public record OfferMessageRef(Long chatId, Long messageId) {
+}
@@ -0,0 +1,76 @@
+package esvar.ua.workinghoursbot.repository;
+
+import esvar.ua.workinghoursbot.domain.OutboxMessage;
+import esvar.ua.workinghoursbot.domain.OutboxStatus;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, UUID> {
+
+    /**
+     * Inserts the message unless its idempotency key is already queued. Unlike a lookup followed by
+     * {@code save}, a concurrent duplicate is skipped by the database instead of failing the caller's transaction.
+     *
+     * @return whether a row was inserted
+     */
+    default boolean insertIfAbsent(OutboxMessage message) {
+        return insertIgnoringDuplicateKey(
+                message.getId().toString(),
+                message.getIdempotencyKey(),
+                message.getChatId(),
+                message.getMethodType(),
+                message.getPayload(),
+                message.getStatus().name(),
+                message.getNextAttemptAt(),
+                message.getCreatedAt().toString()
+        ) > 0;
+    }
+
+    @Modifying
+    @Query(value = """
+            insert into telegram_outbox
+                (id, idempotency_key, chat_id, method_type, payload, status, attempts, next_attempt_at, created_at)
+            values (:id, :idempotencyKey, :chatId, :methodType, :payload, :status, 0, :nextAttemptAt, :createdAt)
+            on conflict(idempotency_key) do nothing
+            """, nativeQuery = true)
+    int insertIgnoringDuplicateKey(@Param("id") String id,
+                                   @Param("idempotencyKey") String idempotencyKey,
+                                   @Param("chatId") String chatId,
+                                   @Param("methodType") String methodType,
+                                   @Param("payload") String payload,
+                                   @Param("status") String status,
+                                   @Param("nextAttemptAt") long nextAttemptAt,
+                                   @Param("createdAt") String createdAt);
+
+    @Query("""
+            select m from OutboxMessage m
+            where m.status = :status and m.nextAttemptAt <= :now
+            order by m.nextAttemptAt asc
+            """)
+    List<OutboxMessage> findReady(@Param("status") OutboxStatus status,
+                                  @Param("now") long now,
+                                  Pageable pageable);
+
+    @Query("""
+            select m from OutboxMessage m
+            where m.status = :status and m.nextAttemptAt <= :now and m.id not in :excluded
+            order by m.nextAttemptAt asc
+            """)
+    List<OutboxMessage> findReadyExcluding(@Param("status") OutboxStatus status,
+                                           @Param("now") long now,
+                                           @Param("excluded") Collection<UUID> excluded,
+                                           Pageable pageable);
+
+    @Modifying
+    @Query("""
+            delete from OutboxMessage m
+            where m.status = :status and m.sentAt < :cutoff
+            """)
+    int deleteSentBefore(@Param("status") OutboxStatus status, @Param("cutoff") long cutoff);
+}
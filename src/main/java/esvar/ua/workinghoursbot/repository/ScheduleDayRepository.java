@@ -4,8 +4,11 @@ import esvar.ua.workinghoursbot.domain.ScheduleDay;
 import esvar.ua.workinghoursbot.domain.ScheduleStatus;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ScheduleDayRepository extends JpaRepository<ScheduleDay, UUID> {
 
@@ -16,13 +19,6 @@ public interface ScheduleDayRepository extends JpaRepository<ScheduleDay, UUID>
             LocalDate end
     );
 
-    long deleteByTelegramUserIdAndLocationIdAndDateBetween(
-            Long telegramUserId,
-            UUID locationId,
-            LocalDate start,
-            LocalDate end
-    );
-
     boolean existsByTelegramUserIdAndDateAndStatus(Long telegramUserId, LocalDate date, ScheduleStatus status);
 
     boolean existsByTelegramUserIdAndLocationIdAndDateAndStatus(
@@ -36,5 +32,8 @@ public interface ScheduleDayRepository extends JpaRepository<ScheduleDay, UUID>
 
     List<ScheduleDay> findByDateAndStatus(LocalDate date, ScheduleStatus status);
 
+    @Query("select distinct d.telegramUserId from ScheduleDay d where d.date = :date and d.status = :status")
+    Set<Long> findTelegramUserIdsByDateAndStatus(@Param("date") LocalDate date, @Param("status") ScheduleStatus status);
+
     List<ScheduleDay> findByLocationIdAndDateBetween(UUID locationId, LocalDate start, LocalDate end);
 }
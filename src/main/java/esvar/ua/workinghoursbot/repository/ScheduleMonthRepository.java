@@ -0,0 +1,15 @@
+package esvar.ua.workinghoursbot.repository;
+
+import esvar.ua.workinghoursbot.domain.ScheduleMonth;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ScheduleMonthRepository extends JpaRepository<ScheduleMonth, UUID> {
+
+    Optional<ScheduleMonth> findByTelegramUserIdAndLocationIdAndMonth(Long telegramUserId, UUID locationId, YearMonth month);
+
+    List<ScheduleMonth> findByLocationIdAndMonth(UUID locationId, YearMonth month);
+}
@@ -0,0 +1,55 @@
+package esvar.ua.workinghoursbot.repository;
+
+import esvar.ua.workinghoursbot.domain.ScheduleSessionSnapshot;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ScheduleSessionSnapshotRepository extends JpaRepository<ScheduleSessionSnapshot, Long> {
+
+    /**
+     * Writes every snapshot with one upsert each. The id is assigned, so {@code saveAll} would merge and read
+     * every row back before writing it.
+     */
+    default void upsertAll(Collection<ScheduleSessionSnapshot> snapshots) {
+        for (ScheduleSessionSnapshot snapshot : snapshots) {
+            upsert(
+                    snapshot.getTelegramUserId(),
+                    snapshot.getMode(),
+                    snapshot.getActiveLocationId() == null ? null : snapshot.getActiveLocationId().toString(),
+                    snapshot.getActiveMonth() == null ? null : snapshot.getActiveMonth().toString(),
+                    snapshot.getCalendarChatId(),
+                    snapshot.getCalendarMessageId(),
+                    snapshot.getDrafts(),
+                    snapshot.getLastUpdatedAt().toString()
+            );
+        }
+    }
+
+    @Modifying
+    @Query(value = """
+            insert into schedule_session_snapshots
+                (telegram_user_id, mode, active_location_id, active_month, calendar_chat_id, calendar_message_id,
+                 drafts, last_updated_at)
+            values (:telegramUserId, :mode, :activeLocationId, :activeMonth, :calendarChatId, :calendarMessageId,
+                    :drafts, :lastUpdatedAt)
+            on conflict(telegram_user_id) do update set
+                mode = excluded.mode,
+                active_location_id = excluded.active_location_id,
+                active_month = excluded.active_month,
+                calendar_chat_id = excluded.calendar_chat_id,
+                calendar_message_id = excluded.calendar_message_id,
+                drafts = excluded.drafts,
+                last_updated_at = excluded.last_updated_at
+            """, nativeQuery = true)
+    int upsert(@Param("telegramUserId") Long telegramUserId,
+               @Param("mode") String mode,
+               @Param("activeLocationId") String activeLocationId,
+               @Param("activeMonth") String activeMonth,
+               @Param("calendarChatId") Long calendarChatId,
+               @Param("calendarMessageId") Integer calendarMessageId,
+               @Param("drafts") byte[] drafts,
+               @Param("lastUpdatedAt") String lastUpdatedAt);
+}
@@ -1,12 +1,18 @@
 package esvar.ua.workinghoursbot.repository;
 
+import esvar.ua.workinghoursbot.domain.ScheduleStatus;
 import esvar.ua.workinghoursbot.domain.ShiftConfirmation;
 import esvar.ua.workinghoursbot.domain.ShiftConfirmationStatus;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ShiftConfirmationRepository extends JpaRepository<ShiftConfirmation, UUID> {
 
@@ -22,4 +28,46 @@ public interface ShiftConfirmationRepository extends JpaRepository<ShiftConfirma
     );
 
     List<ShiftConfirmation> findByStatus(ShiftConfirmationStatus status);
+
+    /**
+     * Moves a still PENDING confirmation to {@code status}; returns 0 when it was already resolved.
+     */
+    @Modifying
+    @Query("""
+            update ShiftConfirmation c
+            set c.status = :status, c.respondedAt = :respondedAt, c.autoRejected = false
+            where c.id = :id
+            and c.status = esvar.ua.workinghoursbot.domain.ShiftConfirmationStatus.PENDING
+            """)
+    int resolvePending(@Param("id") UUID id,
+                       @Param("status") ShiftConfirmationStatus status,
+                       @Param("respondedAt") Instant respondedAt);
+
+    @Query("""
+            select c from ShiftConfirmation c
+            where c.status = :status and c.id > :afterId
+            order by c.id asc
+            """)
+    List<ShiftConfirmation> findByStatusAfter(@Param("status") ShiftConfirmationStatus status,
+                                              @Param("afterId") UUID afterId,
+                                              Pageable pageable);
+
+    @Query("""
+            select new esvar.ua.workinghoursbot.repository.ShiftConfirmationTarget(
+                d.telegramUserId, d.locationId, ua.id, ua.telegramChatId, ua.lastName, l.name)
+            from ScheduleDay d
+            join UserAccount ua on ua.telegramUserId = d.telegramUserId
+            join ua.location l
+            where d.date = :date
+            and d.status = :status
+            and ua.status = esvar.ua.workinghoursbot.domain.RegistrationStatus.APPROVED
+            and not exists (
+                select 1 from ShiftConfirmation c
+                where c.telegramUserId = d.telegramUserId
+                and c.locationId = d.locationId
+                and c.date = d.date)
+            order by d.telegramUserId, d.locationId
+            """)
+    List<ShiftConfirmationTarget> findConfirmationTargets(@Param("date") LocalDate date,
+                                                          @Param("status") ScheduleStatus status);
 }
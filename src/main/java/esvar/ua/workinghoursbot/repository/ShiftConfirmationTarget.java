@@ -0,0 +1,16 @@
+package esvar.ua.workinghoursbot.repository;
+
+import java.util.UUID;
+
+/**
+ * A WORK schedule day of an approved account that has not been asked for confirmation yet.
+ */
+public record ShiftConfirmationTarget(
+        Long telegramUserId,
+        UUID locationId,
+        UUID accountId,
+        Long chatId,
+        String lastName,
+        String locationName
+) {
+}
@@ -2,14 +2,20 @@ package esvar.ua.workinghoursbot.repository;
 
 import esvar.ua.workinghoursbot.domain.SubstitutionCandidateState;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequestCandidate;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SubstitutionRequestCandidateRepository extends JpaRepository<SubstitutionRequestCandidate, UUID> {
 
+    List<SubstitutionRequestCandidate> findByRequest_Id(UUID requestId);
+
     Optional<SubstitutionRequestCandidate> findByRequest_IdAndCandidate_Id(UUID requestId, UUID candidateId);
 
     Optional<SubstitutionRequestCandidate> findByRequest_IdAndNotifiedChatId(UUID requestId, Long notifiedChatId);
@@ -20,4 +26,30 @@ public interface SubstitutionRequestCandidateRepository extends JpaRepository<Su
             UUID requestId,
             Collection<SubstitutionCandidateState> states
     );
+
+    @Query("""
+            select new esvar.ua.workinghoursbot.repository.OfferMessageRef(c.notifiedChatId, c.notifiedMessageId)
+            from SubstitutionRequestCandidate c
+            where c.request.id = :requestId
+            and c.state = :state
+            and c.notifiedChatId is not null
+            and c.notifiedMessageId is not null
+            """)
+    List<OfferMessageRef> findOfferMessages(
+            @Param("requestId") UUID requestId,
+            @Param("state") SubstitutionCandidateState state
+    );
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update SubstitutionRequestCandidate c
+            set c.state = :to, c.updatedAt = :now
+            where c.request.id = :requestId and c.state = :from
+            """)
+    int transitionState(
+            @Param("requestId") UUID requestId,
+            @Param("from") SubstitutionCandidateState from,
+            @Param("to") SubstitutionCandidateState to,
+            @Param("now") Instant now
+    );
 }
@@ -2,6 +2,7 @@ package esvar.ua.workinghoursbot.repository;
 
 import esvar.ua.workinghoursbot.domain.SubstitutionRequest;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequestStatus;
+import esvar.ua.workinghoursbot.domain.UserAccount;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -49,4 +51,22 @@ public interface SubstitutionRequestRepository extends JpaRepository<Substitutio
 
     @Lock(LockModeType.OPTIMISTIC)
     Optional<SubstitutionRequest> findWithLockById(UUID id);
+
+    /**
+     * Proposes {@code candidate} as the replacement if nobody has been proposed yet.
+     *
+     * @return 1 for the first caller, 0 for everyone after it
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update SubstitutionRequest r
+            set r.status = :claimedStatus, r.proposedReplacementUser = :candidate, r.version = r.version + 1
+            where r.id = :id and r.status in :openStatuses and r.proposedReplacementUser is null
+            """)
+    int claimReplacement(
+            @Param("id") UUID id,
+            @Param("candidate") UserAccount candidate,
+            @Param("claimedStatus") SubstitutionRequestStatus claimedStatus,
+            @Param("openStatuses") Collection<SubstitutionRequestStatus> openStatuses
+    );
 }
@@ -0,0 +1,41 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.domain.RegistrationStatus;
+import esvar.ua.workinghoursbot.domain.Role;
+import esvar.ua.workinghoursbot.domain.SellerStatus;
+import esvar.ua.workinghoursbot.domain.UserAccount;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the {@link UserAccount} fields needed to route an update.
+ */
+public record AccountSnapshot(
+        UUID id,
+        Long telegramUserId,
+        Long chatId,
+        String lastName,
+        Role role,
+        RegistrationStatus status,
+        SellerStatus sellerStatus,
+        UUID locationId,
+        boolean blocked
+) {
+
+    public static AccountSnapshot of(UserAccount account) {
+        return new AccountSnapshot(
+                account.getId(),
+                account.getTelegramUserId(),
+                account.getTelegramChatId(),
+                account.getLastName(),
+                account.getRole(),
+                account.getStatus(),
+                account.getSellerStatus(),
+                account.getLocation() == null ? null : account.getLocation().getId(),
+                account.isBlocked()
+        );
+    }
+
+    public boolean isApproved() {
+        return status == RegistrationStatus.APPROVED;
+    }
+}
@@ -0,0 +1,119 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.config.AccountCacheProperties;
+import esvar.ua.workinghoursbot.repository.UserAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded, TTL'd read-through cache of {@link AccountSnapshot}s keyed by telegram user id. Missing
+ * accounts are cached too, so every writer must publish {@link UserAccountChangedEvent}.
+ */
+@Component
+public class AccountSnapshotCache {
+
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final UserAccountRepository userAccountRepository;
+    private final Clock clock;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<Long, Entry> entries;
+    // Bumped on every invalidation so a load that raced with a write does not re-cache stale data.
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public AccountSnapshotCache(UserAccountRepository userAccountRepository,
+                                AccountCacheProperties properties,
+                                Clock clock,
+                                MeterRegistry meterRegistry) {
+        this.userAccountRepository = userAccountRepository;
+        this.clock = clock;
+        this.maxSize = properties.maxSize() > 0 ? properties.maxSize() : DEFAULT_MAX_SIZE;
+        Duration ttl = properties.ttl() == null || properties.ttl().isNegative() || properties.ttl().isZero()
+                ? DEFAULT_TTL
+                : properties.ttl();
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = Counter.builder("bot.account.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("bot.account.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("bot.account.cache.size", this, AccountSnapshotCache::size).register(meterRegistry);
+    }
+
+    public Optional<AccountSnapshot> find(Long telegramUserId) {
+        if (telegramUserId == null) {
+            return Optional.empty();
+        }
+        long now = clock.millis();
+        synchronized (entries) {
+            Entry entry = entries.get(telegramUserId);
+            if (entry != null && entry.expiresAt() > now) {
+                hits.increment();
+                return Optional.ofNullable(entry.snapshot());
+            }
+        }
+        misses.increment();
+        long loadedAt = generation.get();
+        AccountSnapshot snapshot = userAccountRepository.findByTelegramUserId(telegramUserId)
+                .map(AccountSnapshot::of)
+                .orElse(null);
+        synchronized (entries) {
+            if (generation.get() == loadedAt) {
+                entries.put(telegramUserId, new Entry(snapshot, now + ttlMillis));
+            }
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    public void invalidate(Long telegramUserId) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            if (telegramUserId == null) {
+                entries.clear();
+            } else {
+                entries.remove(telegramUserId);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @EventListener
+    public void onAccountChanged(UserAccountChangedEvent event) {
+        invalidate(event.telegramUserId());
+    }
+
+    /**
+     * Evicts again once the writing transaction is over: a reader may have re-cached the
+     * pre-commit row between the write and the commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onAccountChangeCompleted(UserAccountChangedEvent event) {
+        invalidate(event.telegramUserId());
+    }
+
+    private record Entry(AccountSnapshot snapshot, long expiresAt) {
+    }
+}
@@ -5,6 +5,9 @@ import esvar.ua.workinghoursbot.domain.AuditEvent;
 import esvar.ua.workinghoursbot.domain.AuditEventType;
 import esvar.ua.workinghoursbot.repository.AuditEventRepository;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -25,6 +28,36 @@ public class AuditService {
                           UUID targetUserId,
                           UUID locationId,
                           String payload) {
+        AuditEvent saved = auditEventRepository.save(event(eventType, actorUserId, targetUserId, locationId, payload));
+        sendToAuditChat(saved);
+        return saved;
+    }
+
+    /**
+     * Stores the events in one batch and queues their audit chat copies with one conditional outbox insert each.
+     */
+    @Transactional
+    public List<AuditEvent> logAll(List<AuditEvent> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+        List<AuditEvent> saved = auditEventRepository.saveAll(events);
+        Long chatId = auditChatId();
+        if (chatId != null) {
+            Map<String, SendMessage> messages = new LinkedHashMap<>();
+            for (AuditEvent event : saved) {
+                messages.put("audit:" + event.getId(), buildMessage(chatId, event));
+            }
+            telegramSender.sendAll(messages);
+        }
+        return saved;
+    }
+
+    public static AuditEvent event(AuditEventType eventType,
+                                   UUID actorUserId,
+                                   UUID targetUserId,
+                                   UUID locationId,
+                                   String payload) {
         AuditEvent event = new AuditEvent();
         event.setEventType(eventType);
         event.setActorUserId(actorUserId);
@@ -32,25 +65,30 @@ public class AuditService {
         event.setLocationId(locationId);
         event.setPayload(payload);
         event.setCreatedAt(Instant.now());
-        AuditEvent saved = auditEventRepository.save(event);
-        sendToAuditChat(saved);
-        return saved;
+        return event;
     }
 
     private void sendToAuditChat(AuditEvent event) {
-        if (!auditProperties.enabled()) {
+        Long chatId = auditChatId();
+        if (chatId == null) {
             return;
         }
-        Long chatId = auditProperties.chatId();
-        if (chatId == null || chatId <= 0) {
-            return;
+        telegramSender.send(buildMessage(chatId, event), event.getId() == null ? null : "audit:" + event.getId());
+    }
+
+    private Long auditChatId() {
+        if (!auditProperties.enabled()) {
+            return null;
         }
-        String messageText = formatMessage(event);
-        SendMessage message = SendMessage.builder()
+        Long chatId = auditProperties.chatId();
+        return chatId == null || chatId <= 0 ? null : chatId;
+    }
+
+    private SendMessage buildMessage(Long chatId, AuditEvent event) {
+        return SendMessage.builder()
                 .chatId(chatId.toString())
-                .text(messageText)
+                .text(formatMessage(event))
                 .build();
-        telegramSender.send(message);
     }
 
     private String formatMessage(AuditEvent event) {
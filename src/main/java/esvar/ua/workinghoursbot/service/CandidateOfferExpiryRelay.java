@@ -0,0 +1,90 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.bot.OutboundLane;
+import esvar.ua.workinghoursbot.bot.OutboundMessageScheduler;
+import esvar.ua.workinghoursbot.repository.OfferMessageRef;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Replaces offers that can no longer be accepted with the event's notice and strips their buttons. The whole
+ * batch of a request goes to the BULK lane at once, so the scheduler sends the edits in parallel within its
+ * rate limits. Best effort: a button that survives a failed edit is answered with "already taken" when tapped.
+ */
+@Component
+@Slf4j
+public class CandidateOfferExpiryRelay {
+
+    private final OutboundMessageScheduler outboundMessageScheduler;
+    private final TelegramNotificationService notificationService;
+    private final MeterRegistry meterRegistry;
+    private final Timer batchTimer;
+    private final Counter stripped;
+    private final Counter failed;
+
+    public CandidateOfferExpiryRelay(OutboundMessageScheduler outboundMessageScheduler,
+                                     TelegramNotificationService notificationService,
+                                     MeterRegistry meterRegistry) {
+        this.outboundMessageScheduler = outboundMessageScheduler;
+        this.notificationService = notificationService;
+        this.meterRegistry = meterRegistry;
+        this.batchTimer = Timer.builder("bot.substitution.offer.expiry")
+                .description("Time from commit until every expired offer of a request was edited")
+                .register(meterRegistry);
+        this.stripped = Counter.builder("bot.substitution.offer.strip")
+                .description("Expired offer messages replaced by a notice without buttons")
+                .tag("result", "ok")
+                .register(meterRegistry);
+        this.failed = Counter.builder("bot.substitution.offer.strip")
+                .description("Expired offer messages replaced by a notice without buttons")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOffersExpired(CandidateOffersExpiredEvent event) {
+        strip(event);
+    }
+
+    CompletableFuture<Void> strip(CandidateOffersExpiredEvent event) {
+        // Coalesced so each message is edited once even if it was reported twice.
+        List<OfferMessageRef> offers = List.copyOf(new LinkedHashSet<>(event.offers()));
+        if (offers.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<CompletableFuture<?>> edits = new ArrayList<>(offers.size());
+        for (OfferMessageRef offer : offers) {
+            edits.add(outboundMessageScheduler.submit(
+                            notificationService.editMessage(
+                                    offer.chatId(), offer.messageId().intValue(), event.notice(), null),
+                            OutboundLane.BULK
+                    )
+                    .handle((result, error) -> {
+                        if (error == null) {
+                            stripped.increment();
+                        } else {
+                            failed.increment();
+                            log.debug("Failed to strip expired offer. requestId={}, chatId={}",
+                                    event.requestId(), offer.chatId(), error);
+                        }
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(edits.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    long nanos = sample.stop(batchTimer);
+                    log.info("Expired offers stripped. requestId={}, count={}, tookMs={}",
+                            event.requestId(), offers.size(), TimeUnit.NANOSECONDS.toMillis(nanos));
+                });
+    }
+}
@@ -0,0 +1,11 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.repository.OfferMessageRef;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Offers of a request that were expired in one update; {@code notice} replaces their text and buttons.
+ */
+public record CandidateOffersExpiredEvent(UUID requestId, List<OfferMessageRef> offers, String notice) {
+}
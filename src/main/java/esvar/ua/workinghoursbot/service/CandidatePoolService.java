@@ -0,0 +1,250 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.config.CandidatePoolProperties;
+import esvar.ua.workinghoursbot.domain.RegistrationStatus;
+import esvar.ua.workinghoursbot.domain.Role;
+import esvar.ua.workinghoursbot.domain.ScheduleStatus;
+import esvar.ua.workinghoursbot.domain.SubstitutionRequestScope;
+import esvar.ua.workinghoursbot.domain.UserAccount;
+import esvar.ua.workinghoursbot.repository.ScheduleDayRepository;
+import esvar.ua.workinghoursbot.repository.UserAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Substitution candidates per scope: approved sellers and seniors of a location, of all locations managed by
+ * a TM, or of every location, sorted by last name. Who works on a date is kept per date and turned into a
+ * busy bitmap per pool, so filtering and paging a candidate list never goes to the database. Pools are
+ * dropped on {@link UserAccountChangedEvent} and {@link LocationChangedEvent}, dates on
+ * {@link ScheduleChangedEvent}.
+ */
+@Component
+public class CandidatePoolService {
+
+    private static final List<Role> CANDIDATE_ROLES = List.of(Role.SELLER, Role.SENIOR_SELLER);
+    private static final Comparator<AccountSnapshot> BY_LAST_NAME =
+            Comparator.comparing(AccountSnapshot::lastName, String.CASE_INSENSITIVE_ORDER);
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private final UserAccountRepository userAccountRepository;
+    private final ScheduleDayRepository scheduleDayRepository;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final Map<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<UUID, Expiring<Optional<UUID>>> tmByLocation = new ConcurrentHashMap<>();
+    private final Map<LocalDate, Expiring<Set<Long>>> workingByDate = new ConcurrentHashMap<>();
+    // Bumped on invalidation so a load that raced with a write does not re-cache stale data.
+    private final AtomicLong accountGeneration = new AtomicLong();
+    private final AtomicLong scheduleGeneration = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public CandidatePoolService(UserAccountRepository userAccountRepository,
+                                ScheduleDayRepository scheduleDayRepository,
+                                CandidatePoolProperties properties,
+                                Clock clock,
+                                MeterRegistry meterRegistry) {
+        this.userAccountRepository = userAccountRepository;
+        this.scheduleDayRepository = scheduleDayRepository;
+        this.clock = clock;
+        Duration ttl = properties.ttl() == null || properties.ttl().isNegative() || properties.ttl().isZero()
+                ? DEFAULT_TTL
+                : properties.ttl();
+        this.ttlMillis = ttl.toMillis();
+        this.hits = Counter.builder("bot.candidate.pool").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("bot.candidate.pool").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Candidates of the scope who do not work on {@code date}, without {@code excludedAccountId}.
+     * TM scope falls back to the location when nobody manages it.
+     */
+    public List<AccountSnapshot> findFree(SubstitutionRequestScope scope,
+                                          UUID locationId,
+                                          LocalDate date,
+                                          UUID excludedAccountId) {
+        Pool pool = pool(poolKey(scope, locationId));
+        BitSet busy = pool.busyOn(date, working(date));
+        List<AccountSnapshot> members = pool.members();
+        List<AccountSnapshot> free = new ArrayList<>(members.size() - busy.cardinality());
+        for (int i = busy.nextClearBit(0); i < members.size(); i = busy.nextClearBit(i + 1)) {
+            AccountSnapshot member = members.get(i);
+            if (!member.id().equals(excludedAccountId)) {
+                free.add(member);
+            }
+        }
+        return free;
+    }
+
+    public void invalidateAccounts() {
+        accountGeneration.incrementAndGet();
+        pools.clear();
+        tmByLocation.clear();
+    }
+
+    public void invalidateSchedule(YearMonth month) {
+        scheduleGeneration.incrementAndGet();
+        if (month == null) {
+            workingByDate.clear();
+        } else {
+            workingByDate.keySet().removeIf(date -> YearMonth.from(date).equals(month));
+        }
+    }
+
+    @EventListener
+    public void onAccountChanged(UserAccountChangedEvent event) {
+        invalidateAccounts();
+    }
+
+    /**
+     * Evicts again once the writing transaction is over: a reader may have re-cached the
+     * pre-commit rows between the write and the commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onAccountChangeCompleted(UserAccountChangedEvent event) {
+        invalidateAccounts();
+    }
+
+    /**
+     * Location pools and TM assignments follow location activation and TM (re)assignment, which are not
+     * account writes.
+     */
+    @EventListener
+    public void onLocationChanged(LocationChangedEvent event) {
+        invalidateAccounts();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onLocationChangeCompleted(LocationChangedEvent event) {
+        invalidateAccounts();
+    }
+
+    @EventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        invalidateSchedule(event.month());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onScheduleChangeCompleted(ScheduleChangedEvent event) {
+        invalidateSchedule(event.month());
+    }
+
+    private PoolKey poolKey(SubstitutionRequestScope scope, UUID locationId) {
+        if (scope == SubstitutionRequestScope.LOCATION) {
+            return new PoolKey(SubstitutionRequestScope.LOCATION, locationId);
+        }
+        if (scope == SubstitutionRequestScope.TM) {
+            return tmFor(locationId)
+                    .map(tmId -> new PoolKey(SubstitutionRequestScope.TM, tmId))
+                    .orElseGet(() -> new PoolKey(SubstitutionRequestScope.LOCATION, locationId));
+        }
+        return new PoolKey(SubstitutionRequestScope.ALL, null);
+    }
+
+    private Optional<UUID> tmFor(UUID locationId) {
+        long now = clock.millis();
+        Expiring<Optional<UUID>> cached = tmByLocation.get(locationId);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.value();
+        }
+        long loadedAt = accountGeneration.get();
+        Optional<UUID> tmId = userAccountRepository.findActiveTmByManagedLocation(locationId).map(UserAccount::getId);
+        if (accountGeneration.get() == loadedAt) {
+            tmByLocation.put(locationId, new Expiring<>(tmId, now + ttlMillis));
+        }
+        return tmId;
+    }
+
+    private Pool pool(PoolKey key) {
+        long now = clock.millis();
+        Pool cached = pools.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long loadedAt = accountGeneration.get();
+        List<AccountSnapshot> members = load(key).stream()
+                .map(AccountSnapshot::of)
+                .sorted(BY_LAST_NAME)
+                .toList();
+        Pool pool = new Pool(members, now + ttlMillis, new ConcurrentHashMap<>());
+        if (accountGeneration.get() == loadedAt) {
+            pools.put(key, pool);
+        }
+        return pool;
+    }
+
+    private List<UserAccount> load(PoolKey key) {
+        return switch (key.scope()) {
+            case LOCATION -> userAccountRepository.findByStatusAndRoleInAndLocation_Id(
+                    RegistrationStatus.APPROVED, CANDIDATE_ROLES, key.id());
+            case TM -> userAccountRepository.findByStatusAndRoleInAndLocationManagedByTm(
+                    RegistrationStatus.APPROVED, CANDIDATE_ROLES, key.id());
+            case ALL -> userAccountRepository.findByStatusAndRoleIn(RegistrationStatus.APPROVED, CANDIDATE_ROLES);
+        };
+    }
+
+    private Set<Long> working(LocalDate date) {
+        long now = clock.millis();
+        Expiring<Set<Long>> cached = workingByDate.get(date);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.value();
+        }
+        long loadedAt = scheduleGeneration.get();
+        Set<Long> working = Set.copyOf(scheduleDayRepository.findTelegramUserIdsByDateAndStatus(date, ScheduleStatus.WORK));
+        if (scheduleGeneration.get() == loadedAt) {
+            workingByDate.put(date, new Expiring<>(working, now + ttlMillis));
+        }
+        return working;
+    }
+
+    private record PoolKey(SubstitutionRequestScope scope, UUID id) {
+    }
+
+    private record Expiring<T>(T value, long expiresAt) {
+    }
+
+    private record Pool(List<AccountSnapshot> members, long expiresAt, Map<LocalDate, BusyDay> busyByDate) {
+
+        /**
+         * Bit {@code i} is set when {@code members.get(i)} works on the date. Recomputed whenever the
+         * working set of the date has been reloaded.
+         */
+        BitSet busyOn(LocalDate date, Set<Long> working) {
+            BusyDay cached = busyByDate.get(date);
+            if (cached != null && cached.working() == working) {
+                return cached.busy();
+            }
+            BitSet busy = new BitSet(members.size());
+            for (int i = 0; i < members.size(); i++) {
+                if (working.contains(members.get(i).telegramUserId())) {
+                    busy.set(i);
+                }
+            }
+            busyByDate.put(date, new BusyDay(working, busy));
+            return busy;
+        }
+    }
+
+    private record BusyDay(Set<Long> working, BitSet busy) {
+    }
+}
@@ -0,0 +1,226 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.domain.JobCheckpoint;
+import esvar.ua.workinghoursbot.repository.JobCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs a job over keyset-paginated chunks, one transaction per chunk. The checkpoint is written in the
+ * chunk's own transaction, so after a crash the run continues right after the last committed item. A chunk
+ * that fails is rolled back and replayed one item per transaction; items that still fail are recorded on the
+ * checkpoint and skipped, so one bad row cannot hold back every item after it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedJobRunner {
+
+    private static final int MAX_RECORDED_FAILURES = 50;
+
+    private final JobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    @FunctionalInterface
+    public interface ChunkSource<T> {
+
+        /**
+         * Next {@code limit} items ordered by key, strictly after {@code afterKey} ({@code null} for the first chunk).
+         */
+        List<T> fetch(String afterKey, int limit);
+    }
+
+    public boolean isUnfinished(String jobName, String runKey) {
+        return checkpointRepository.findById(jobName)
+                .map(checkpoint -> checkpoint.isUnfinished(runKey))
+                .orElse(false);
+    }
+
+    /**
+     * @return number of items processed by this call; skipped items are not counted. Only a failure outside the
+     * processor (fetching a chunk, writing the checkpoint) stops the run, which then resumes after the last
+     * committed item.
+     */
+    public <T> long run(String jobName,
+                        String runKey,
+                        int chunkSize,
+                        ChunkSource<T> source,
+                        Function<T, String> keyOf,
+                        Consumer<T> processor) {
+        JobCheckpoint start = checkpointRepository.findById(jobName)
+                .filter(checkpoint -> checkpoint.isUnfinished(runKey))
+                .orElse(null);
+        String afterKey = start == null ? null : start.getLastKey();
+        long processedBefore = start == null ? 0 : start.getProcessed();
+        if (afterKey != null) {
+            log.info("Resuming job {} ({}) after {}", jobName, runKey, afterKey);
+        }
+        Timer chunkTimer = Timer.builder("bot.job.chunk")
+                .description("Time to process and commit one chunk")
+                .tag("job", jobName)
+                .register(meterRegistry);
+        Counter items = Counter.builder("bot.job.items")
+                .description("Items committed by chunked jobs")
+                .tag("job", jobName)
+                .register(meterRegistry);
+        Counter skipped = Counter.builder("bot.job.item.failures")
+                .description("Items that failed and were skipped by chunked jobs")
+                .tag("job", jobName)
+                .register(meterRegistry);
+        long processed = 0;
+        while (true) {
+            String cursor = afterKey;
+            long total = processedBefore + processed;
+            ChunkResult result;
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                try {
+                    result = transactionTemplate.execute(status ->
+                            processChunk(jobName, runKey, chunkSize, source, keyOf, processor, cursor, total));
+                } catch (RuntimeException ex) {
+                    log.warn("Job {} ({}) chunk after {} failed; retrying it item by item", jobName, runKey, cursor, ex);
+                    result = processItemByItem(jobName, runKey, chunkSize, source, keyOf, processor, cursor, total);
+                }
+            } catch (RuntimeException ex) {
+                meterRegistry.counter("bot.job.failures", "job", jobName).increment();
+                log.error("Job {} ({}) stopped after {} items; it resumes after {}",
+                        jobName, runKey, total, cursor, ex);
+                return processed;
+            }
+            if (result == null || result.consumed() == 0) {
+                break;
+            }
+            sample.stop(chunkTimer);
+            items.increment(result.committed());
+            skipped.increment(result.failed());
+            processed += result.committed();
+            afterKey = result.lastKey();
+            if (result.consumed() < chunkSize) {
+                break;
+            }
+        }
+        long total = processedBefore + processed;
+        String lastKey = afterKey;
+        transactionTemplate.executeWithoutResult(status -> {
+            JobCheckpoint checkpoint = checkpoint(jobName, runKey, lastKey, total);
+            checkpoint.setCompletedAt(clock.instant());
+            checkpointRepository.save(checkpoint);
+        });
+        log.info("Job {} ({}) finished: {} items", jobName, runKey, total);
+        return processed;
+    }
+
+    private <T> ChunkResult processChunk(String jobName,
+                                         String runKey,
+                                         int chunkSize,
+                                         ChunkSource<T> source,
+                                         Function<T, String> keyOf,
+                                         Consumer<T> processor,
+                                         String afterKey,
+                                         long processedBefore) {
+        List<T> chunk = source.fetch(afterKey, chunkSize);
+        if (chunk.isEmpty()) {
+            return new ChunkResult(0, 0, afterKey);
+        }
+        chunk.forEach(processor);
+        String lastKey = keyOf.apply(chunk.get(chunk.size() - 1));
+        checkpointRepository.save(checkpoint(jobName, runKey, lastKey, processedBefore + chunk.size()));
+        return new ChunkResult(chunk.size(), 0, lastKey);
+    }
+
+    /**
+     * Replays up to {@code chunkSize} items after {@code afterKey} as single-item chunks. Savepoints are not
+     * available under JPA, and an exception that crossed a transactional service has already marked the chunk
+     * transaction rollback-only, so each item gets a transaction of its own.
+     */
+    private <T> ChunkResult processItemByItem(String jobName,
+                                              String runKey,
+                                              int chunkSize,
+                                              ChunkSource<T> source,
+                                              Function<T, String> keyOf,
+                                              Consumer<T> processor,
+                                              String afterKey,
+                                              long processedBefore) {
+        String cursor = afterKey;
+        int committed = 0;
+        int failed = 0;
+        while (committed + failed < chunkSize) {
+            String itemCursor = cursor;
+            long total = processedBefore + committed;
+            try {
+                ChunkResult item = transactionTemplate.execute(status ->
+                        processChunk(jobName, runKey, 1, source, keyOf, processor, itemCursor, total));
+                if (item == null || item.consumed() == 0) {
+                    break;
+                }
+                committed++;
+                cursor = item.lastKey();
+            } catch (RuntimeException ex) {
+                String failedKey = transactionTemplate.execute(status ->
+                        skipFailedItem(jobName, runKey, source, keyOf, itemCursor, total));
+                if (failedKey == null) {
+                    break;
+                }
+                log.error("Job {} ({}) skipped item {}", jobName, runKey, failedKey, ex);
+                failed++;
+                cursor = failedKey;
+            }
+        }
+        return new ChunkResult(committed + failed, failed, cursor);
+    }
+
+    private <T> String skipFailedItem(String jobName,
+                                      String runKey,
+                                      ChunkSource<T> source,
+                                      Function<T, String> keyOf,
+                                      String afterKey,
+                                      long processed) {
+        List<T> next = source.fetch(afterKey, 1);
+        if (next.isEmpty()) {
+            return null;
+        }
+        String failedKey = keyOf.apply(next.get(0));
+        JobCheckpoint checkpoint = checkpoint(jobName, runKey, failedKey, processed);
+        String failedKeys = checkpoint.getFailedKeys();
+        int recorded = failedKeys == null || failedKeys.isEmpty() ? 0 : failedKeys.split(",").length;
+        if (recorded < MAX_RECORDED_FAILURES) {
+            checkpoint.setFailedKeys(recorded == 0 ? failedKey : failedKeys + "," + failedKey);
+        }
+        checkpointRepository.save(checkpoint);
+        return failedKey;
+    }
+
+    private JobCheckpoint checkpoint(String jobName, String runKey, String lastKey, long processed) {
+        JobCheckpoint checkpoint = checkpointRepository.findById(jobName).orElseGet(JobCheckpoint::new);
+        if (!runKey.equals(checkpoint.getRunKey()) || checkpoint.getCompletedAt() != null) {
+            checkpoint.setFailedKeys(null);
+        }
+        checkpoint.setJobName(jobName);
+        checkpoint.setRunKey(runKey);
+        checkpoint.setLastKey(lastKey);
+        checkpoint.setProcessed(processed);
+        checkpoint.setCompletedAt(null);
+        return checkpoint;
+    }
+
+    /**
+     * @param consumed items the cursor moved past, committed or skipped
+     */
+    private record ChunkResult(int consumed, int failed, String lastKey) {
+
+        int committed() {
+            return consumed - failed;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package esvar.ua.workinghoursbot.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public class InMemorySessionStoreBackend<K, V> implements SessionStoreBackend<K, V> {
+
+    private final Map<K, V> values = new ConcurrentHashMap<>();
+
+    @Override
+    public V get(K key) {
+        return values.get(key);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        return values.computeIfAbsent(key, factory);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public V remove(K key) {
+        return values.remove(key);
+    }
+
+    @Override
+    public boolean remove(K key, V value) {
+        return values.remove(key, value);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        values.forEach(action);
+    }
+}
@@ -84,11 +84,11 @@ public class LocationInfoService {
         return BotResponse.of(message);
     }
 
-    public BotResponse showMyLocation(UserAccount account, Long chatId, String text) {
+    public BotResponse showMyLocation(Long telegramUserId, Long chatId, String text) {
         if (text == null || !COMMAND_MY_LOCATION.equalsIgnoreCase(text)) {
             return BotResponse.empty();
         }
-        return showMyLocation(account, chatId);
+        return showMyLocation(userAccountRepository.findByTelegramUserId(telegramUserId).orElse(null), chatId);
     }
 
     private String formatName(UserAccount account) {
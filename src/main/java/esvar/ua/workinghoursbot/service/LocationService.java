@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -16,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class LocationService {
 
     private final LocationRepository locationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<Location> findActivePage(int page, int size) {
         return locationRepository.findByActiveTrueOrderBySortOrderAscNameAsc(PageRequest.of(page, size));
@@ -50,13 +52,16 @@ public class LocationService {
         location.setActive(true);
         location.setScheduleEditEnabled(false);
         location.setCode(generateUniqueCode());
-        return locationRepository.save(location);
+        Location saved = locationRepository.save(location);
+        eventPublisher.publishEvent(new LocationChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public void deactivateLocation(Location location) {
         location.setActive(false);
         locationRepository.save(location);
+        eventPublisher.publishEvent(new LocationChangedEvent(location.getId()));
     }
 
     private String generateUniqueCode() {
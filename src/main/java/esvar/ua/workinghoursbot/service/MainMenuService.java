@@ -15,11 +15,16 @@ public class MainMenuService {
     private final TmScheduleEditGateService scheduleEditGateService;
 
     public ReplyKeyboardMarkup mainMenuKeyboard(Long telegramUserId) {
-        UserAccount account = userAccountService.findByTelegramUserId(telegramUserId).orElse(null);
+        AccountSnapshot account = userAccountService.findSnapshot(telegramUserId).orElse(null);
         if (account == null) {
             return KeyboardFactory.mainMenuKeyboard(false, false);
         }
-        return mainMenuKeyboard(account);
+        if (account.role() == Role.TM) {
+            return KeyboardFactory.tmMainMenuKeyboard();
+        }
+        boolean editEnabled = scheduleEditGateService.isScheduleEditEnabled(account);
+        boolean showActiveRequests = account.role() == Role.SENIOR_SELLER;
+        return KeyboardFactory.mainMenuKeyboard(editEnabled, showActiveRequests);
     }
 
     public ReplyKeyboardMarkup mainMenuKeyboard(UserAccount account) {
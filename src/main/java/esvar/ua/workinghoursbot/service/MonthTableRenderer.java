@@ -0,0 +1,87 @@
+package esvar.ua.workinghoursbot.service;
+
+import java.time.DayOfWeek;
+import java.time.YearMonth;
+
+/**
+ * Monospaced month grid shared by the seller and TM schedule views: a weekday header and one row per week,
+ * every cell a two-digit day followed by a marker and padded to {@link #CELL_WIDTH}. Writes straight into the
+ * caller's builder; day labels, the header and the padding are precomputed, so a render allocates nothing
+ * besides what the builder itself needs.
+ */
+public final class MonthTableRenderer {
+
+    static final int CELL_WIDTH = 4;
+
+    private static final String[] WEEKDAY_LABELS = {"Пн", "Вт", "Ср", "Чт", "Пт", "Сб", "Нд"};
+    private static final String[] DAY_LABELS = new String[32];
+    private static final String[] PADDING = new String[CELL_WIDTH + 1];
+    private static final String HEADER_ROW;
+
+    static {
+        for (int day = 1; day < DAY_LABELS.length; day++) {
+            DAY_LABELS[day] = (day < 10 ? "0" : "") + day;
+        }
+        for (int width = 0; width < PADDING.length; width++) {
+            PADDING[width] = " ".repeat(width);
+        }
+        StringBuilder header = new StringBuilder();
+        for (String label : WEEKDAY_LABELS) {
+            header.append(label).append(PADDING[padding(label.length())]);
+        }
+        HEADER_ROW = header.toString().stripTrailing();
+    }
+
+    private MonthTableRenderer() {
+    }
+
+    /**
+     * Marker appended after the day label, e.g. ✅ or 🔵. Its length in chars counts towards the cell width.
+     */
+    @FunctionalInterface
+    public interface CellMarker {
+        String marker(int dayOfMonth);
+    }
+
+    /**
+     * Appends the header row, a newline and the week rows; the last row has no trailing newline.
+     */
+    public static void appendTable(StringBuilder out, YearMonth month, CellMarker cellMarker) {
+        out.append(HEADER_ROW).append('\n');
+        int startIndex = month.atDay(1).getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
+        int daysInMonth = month.lengthOfMonth();
+        int day = 1;
+        for (int week = 0; week < 6 && day <= daysInMonth; week++) {
+            int rowStart = out.length();
+            for (int weekday = 0; weekday < 7; weekday++) {
+                if (week == 0 && weekday < startIndex || day > daysInMonth) {
+                    out.append(PADDING[CELL_WIDTH]);
+                    continue;
+                }
+                String marker = cellMarker.marker(day);
+                out.append(DAY_LABELS[day]).append(marker);
+                out.append(PADDING[padding(DAY_LABELS[day].length() + marker.length())]);
+                day++;
+            }
+            stripTrailing(out, rowStart);
+            if (day <= daysInMonth) {
+                out.append('\n');
+            }
+        }
+    }
+
+    /**
+     * Pads a cell to {@link #CELL_WIDTH}, always leaving at least one space.
+     */
+    private static int padding(int length) {
+        return length >= CELL_WIDTH ? 1 : CELL_WIDTH - length;
+    }
+
+    private static void stripTrailing(StringBuilder out, int rowStart) {
+        int end = out.length();
+        while (end > rowStart && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        out.setLength(end);
+    }
+}
@@ -0,0 +1,84 @@
+package esvar.ua.workinghoursbot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process first-writer-wins gate in front of offer acceptance. When an offer is broadcast, every candidate
+ * taps "accept" at about the same time; only the first one per request goes on to the database, the others are
+ * turned away without touching it. A won claim is kept after commit so late taps are answered from memory too,
+ * until the request is reopened or closed by the TM, or until the claim has sat idle for the TTL of the
+ * {@code acceptance-claims} session store. The database update stays the source of truth: an empty gate
+ * (e.g. after a restart or an eviction) only means the conditional update decides.
+ */
+@Component
+public class OfferAcceptanceGate {
+
+    // Keyed per request rather than a fixed lock array, so two requests never share a stripe.
+    private final SessionStore<UUID, Long> claims;
+    private final Counter passed;
+    private final Counter rejected;
+
+    public OfferAcceptanceGate(SessionStores sessionStores, MeterRegistry meterRegistry) {
+        this.claims = sessionStores.create("acceptance-claims");
+        this.passed = Counter.builder("bot.substitution.accept.gate")
+                .description("Offer acceptances let through to the database")
+                .tag("result", "passed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("bot.substitution.accept.gate")
+                .description("Offer acceptances answered from memory because the request is already claimed")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    public boolean tryClaim(UUID requestId, Long candidateTelegramUserId) {
+        if (claims.putIfAbsent(requestId, candidateTelegramUserId) == null) {
+            passed.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Settles a claim taken by {@link #tryClaim}. A lost claim is dropped at once; a won one is kept if the
+     * surrounding transaction commits and dropped if it rolls back.
+     */
+    public void settle(UUID requestId, boolean won) {
+        if (!won) {
+            claims.remove(requestId);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    claims.remove(requestId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Forgets the claim once the current transaction commits, for paths that reopen or close a request.
+     */
+    public void releaseAfterCommit(UUID requestId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            claims.remove(requestId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                claims.remove(requestId);
+            }
+        });
+    }
+}
@@ -0,0 +1,6 @@
+package esvar.ua.workinghoursbot.service;
+
+import java.util.UUID;
+
+public record OutboxEnqueuedEvent(UUID outboxMessageId) {
+}
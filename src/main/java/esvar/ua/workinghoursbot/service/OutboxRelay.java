@@ -0,0 +1,130 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.bot.OutboundLane;
+import esvar.ua.workinghoursbot.bot.OutboundMessageScheduler;
+import esvar.ua.workinghoursbot.domain.OutboxMessage;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+/**
+ * Drains the Telegram outbox through the outbound scheduler. Delivery is at-least-once: rows stay
+ * PENDING until Telegram accepts them, so a restart replays whatever was not confirmed. Each read skips the
+ * rows already in flight, and a backlog is topped up once half of the last batch has been confirmed rather
+ * than after every delivery.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxService outboxService;
+    private final OutboundMessageScheduler outboundMessageScheduler;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final ExecutorService drainer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("outbox-relay").factory());
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(OutboxEnqueuedEvent event) {
+        wakeUp();
+    }
+
+    @Scheduled(fixedDelayString = "${bot.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @Scheduled(cron = "0 30 3 * * *", zone = "Europe/Kiev")
+    public void purge() {
+        int purged = outboxService.purgeSent();
+        if (purged > 0) {
+            log.info("Purged {} delivered outbox messages", purged);
+        }
+    }
+
+    public void wakeUp() {
+        if (drainRequested.compareAndSet(false, true)) {
+            drainer.execute(() -> {
+                drainRequested.set(false);
+                drain();
+            });
+        }
+    }
+
+    private void drain() {
+        List<OutboxMessage> batch;
+        try {
+            batch = outboxService.findReady(List.copyOf(inFlight));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read outbox", ex);
+            return;
+        }
+        boolean full = batch.size() >= outboxService.batchSize();
+        for (OutboxMessage message : batch) {
+            UUID id = message.getId();
+            if (!inFlight.add(id)) {
+                continue;
+            }
+            BotApiMethod<?> method;
+            try {
+                method = outboxService.decode(message);
+            } catch (IllegalArgumentException ex) {
+                log.error("Dropping undecodable outbox message {}", id, ex);
+                complete(id, ex, true, false);
+                continue;
+            }
+            outboundMessageScheduler.submit(method, OutboundLane.BULK)
+                    .whenComplete((result, error) -> {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        complete(id, cause, isPermanent(cause), full);
+                    });
+        }
+    }
+
+    private void complete(UUID id, Throwable error, boolean permanent, boolean moreWaiting) {
+        try {
+            if (error == null) {
+                outboxService.markSent(id);
+            } else {
+                log.warn("Outbox delivery failed. id={}, permanent={}", id, permanent, error);
+                outboxService.markFailed(id, error, permanent);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Failed to update outbox message {}", id, ex);
+        } finally {
+            inFlight.remove(id);
+        }
+        if (moreWaiting && inFlight.size() <= outboxService.batchSize() / 2) {
+            wakeUp();
+        }
+    }
+
+    private static boolean isPermanent(Throwable error) {
+        if (error instanceof TelegramApiRequestException apiEx && apiEx.getErrorCode() != null) {
+            int code = apiEx.getErrorCode();
+            return code == 400 || code == 403 || code == 404;
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainer.shutdownNow();
+    }
+}
@@ -0,0 +1,182 @@
+package esvar.ua.workinghoursbot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import esvar.ua.workinghoursbot.bot.OutboundMessageScheduler;
+import esvar.ua.workinghoursbot.config.OutboxProperties;
+import esvar.ua.workinghoursbot.domain.OutboxMessage;
+import esvar.ua.workinghoursbot.domain.OutboxStatus;
+import esvar.ua.workinghoursbot.repository.OutboxMessageRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String METHODS_PACKAGE = "org.telegram.telegrambots.meta.api.methods.";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final OutboxProperties outboxProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    @Transactional
+    public void enqueue(BotApiMethod<?> method, String idempotencyKey) {
+        OutboxMessage message = newMessage(method, idempotencyKey, clock.millis(), clock.instant());
+        if (!outboxMessageRepository.insertIfAbsent(message)) {
+            log.debug("Outbox message already enqueued. key={}", idempotencyKey);
+            return;
+        }
+        eventPublisher.publishEvent(new OutboxEnqueuedEvent(message.getId()));
+    }
+
+    /**
+     * Bulk variant of {@link #enqueue}: one conditional insert per message, so keys that are already queued
+     * are dropped by the database and a concurrent duplicate never fails the caller.
+     *
+     * @return number of newly queued messages
+     */
+    @Transactional
+    public int enqueueAll(Map<String, ? extends BotApiMethod<?>> methodsByKey) {
+        if (methodsByKey.isEmpty()) {
+            return 0;
+        }
+        long now = clock.millis();
+        Instant createdAt = clock.instant();
+        List<OutboxMessage> messages = new ArrayList<>(methodsByKey.size());
+        methodsByKey.forEach((key, method) -> {
+            if (method != null) {
+                messages.add(newMessage(method, key, now, createdAt));
+            }
+        });
+        UUID first = null;
+        int inserted = 0;
+        for (OutboxMessage message : messages) {
+            if (outboxMessageRepository.insertIfAbsent(message)) {
+                first = first != null ? first : message.getId();
+                inserted++;
+            }
+        }
+        if (first != null) {
+            eventPublisher.publishEvent(new OutboxEnqueuedEvent(first));
+        }
+        return inserted;
+    }
+
+    /**
+     * The next ready rows, skipping {@code inFlight} so rows handed to the scheduler but not yet confirmed do
+     * not take up the page.
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxMessage> findReady(Collection<UUID> inFlight) {
+        PageRequest page = PageRequest.of(0, batchSize());
+        if (inFlight.isEmpty()) {
+            return outboxMessageRepository.findReady(OutboxStatus.PENDING, clock.millis(), page);
+        }
+        return outboxMessageRepository.findReadyExcluding(OutboxStatus.PENDING, clock.millis(), inFlight, page);
+    }
+
+    public int batchSize() {
+        return outboxProperties.batchSize() > 0 ? outboxProperties.batchSize() : 50;
+    }
+
+    public BotApiMethod<?> decode(OutboxMessage message) {
+        try {
+            Class<?> type = Class.forName(message.getMethodType());
+            if (!type.getName().startsWith(METHODS_PACKAGE) || !BotApiMethod.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException("Unsupported outbox method type: " + message.getMethodType());
+            }
+            return (BotApiMethod<?>) OBJECT_MAPPER.readValue(message.getPayload(), type);
+        } catch (ClassNotFoundException | JsonProcessingException ex) {
+            throw new IllegalArgumentException("Cannot decode outbox message " + message.getId(), ex);
+        }
+    }
+
+    @Transactional
+    public void markSent(UUID id) {
+        outboxMessageRepository.findById(id).ifPresent(message -> {
+            message.setStatus(OutboxStatus.SENT);
+            message.setSentAt(clock.millis());
+            message.setLastError(null);
+        });
+    }
+
+    @Transactional
+    public void markFailed(UUID id, Throwable error, boolean permanent) {
+        outboxMessageRepository.findById(id).ifPresent(message -> {
+            int attempts = message.getAttempts() + 1;
+            message.setAttempts(attempts);
+            message.setLastError(truncate(String.valueOf(error)));
+            if (permanent || attempts >= maxAttempts()) {
+                message.setStatus(OutboxStatus.FAILED);
+                log.warn("Outbox message dropped after {} attempts. key={}", attempts, message.getIdempotencyKey());
+                return;
+            }
+            message.setNextAttemptAt(clock.millis() + backoff(attempts).toMillis());
+        });
+    }
+
+    @Transactional
+    public int purgeSent() {
+        Duration retention = outboxProperties.retention() != null ? outboxProperties.retention() : Duration.ofDays(7);
+        return outboxMessageRepository.deleteSentBefore(OutboxStatus.SENT, clock.millis() - retention.toMillis());
+    }
+
+    Duration backoff(int attempts) {
+        Duration initial = outboxProperties.initialBackoff() != null
+                ? outboxProperties.initialBackoff()
+                : Duration.ofSeconds(5);
+        Duration max = outboxProperties.maxBackoff() != null ? outboxProperties.maxBackoff() : Duration.ofMinutes(30);
+        Duration delay = initial.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private int maxAttempts() {
+        return outboxProperties.maxAttempts() > 0 ? outboxProperties.maxAttempts() : 8;
+    }
+
+    private static OutboxMessage newMessage(BotApiMethod<?> method, String idempotencyKey, long now,
+                                            Instant createdAt) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(UUID.randomUUID());
+        message.setIdempotencyKey(idempotencyKey);
+        message.setChatId(OutboundMessageScheduler.chatIdOf(method));
+        message.setMethodType(method.getClass().getName());
+        message.setPayload(serialize(method));
+        message.setStatus(OutboxStatus.PENDING);
+        message.setNextAttemptAt(now);
+        message.setCreatedAt(createdAt);
+        return message;
+    }
+
+    private static String serialize(BotApiMethod<?> method) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(method);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Cannot serialize Telegram method " + method.getMethod(), ex);
+        }
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_ERROR_LENGTH ? value : value.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,152 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.domain.ShiftConfirmation;
+import esvar.ua.workinghoursbot.domain.ShiftConfirmationStatus;
+import esvar.ua.workinghoursbot.repository.ShiftConfirmationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * PENDING shift confirmations by telegram user, loaded once at startup and kept current by the paths that
+ * create and resolve confirmations. Changes are applied after commit, so a rolled back transaction never
+ * shows up here.
+ */
+@Component
+@Slf4j
+public class PendingConfirmationIndex {
+
+    private static final Comparator<PendingConfirmation> BY_ASKED_AT =
+            Comparator.comparing(PendingConfirmation::askedAt);
+
+    private final ShiftConfirmationRepository confirmationRepository;
+    private final Map<Long, Map<UUID, PendingConfirmation>> byUser = new ConcurrentHashMap<>();
+    private final Set<UUID> removedWhileWarming = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile boolean warm;
+
+    public PendingConfirmationIndex(ShiftConfirmationRepository confirmationRepository, MeterRegistry meterRegistry) {
+        this.confirmationRepository = confirmationRepository;
+        Gauge.builder("bot.confirmation.pending", size, AtomicInteger::get)
+                .description("Pending shift confirmations held in memory")
+                .register(meterRegistry);
+    }
+
+    public record PendingConfirmation(UUID id, Long telegramUserId, UUID locationId, LocalDate date, Instant askedAt) {
+
+        public static PendingConfirmation of(ShiftConfirmation confirmation) {
+            return new PendingConfirmation(
+                    confirmation.getId(),
+                    confirmation.getTelegramUserId(),
+                    confirmation.getLocationId(),
+                    confirmation.getDate(),
+                    confirmation.getAskedAt()
+            );
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<ShiftConfirmation> pending = confirmationRepository.findByStatus(ShiftConfirmationStatus.PENDING);
+        for (ShiftConfirmation confirmation : pending) {
+            putUnlessRemoved(PendingConfirmation.of(confirmation));
+        }
+        warm = true;
+        removedWhileWarming.clear();
+        log.info("Pending confirmation index warmed: {} entries", size.get());
+    }
+
+    /**
+     * Until {@link #warmUp()} completes a missing entry proves nothing and callers must ask the database.
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * The most recently asked pending confirmation of the user, like
+     * {@link ShiftConfirmationRepository#findFirstByTelegramUserIdAndStatusOrderByAskedAtDesc}.
+     */
+    public Optional<PendingConfirmation> latest(Long telegramUserId) {
+        Map<UUID, PendingConfirmation> entries = byUser.get(telegramUserId);
+        if (entries == null) {
+            return Optional.empty();
+        }
+        return entries.values().stream().max(BY_ASKED_AT);
+    }
+
+    public void addAfterCommit(Collection<ShiftConfirmation> confirmations) {
+        List<PendingConfirmation> entries = confirmations.stream().map(PendingConfirmation::of).toList();
+        afterCommit(() -> entries.forEach(this::put));
+    }
+
+    public void removeAfterCommit(PendingConfirmation confirmation) {
+        afterCommit(() -> remove(confirmation));
+    }
+
+    void put(PendingConfirmation confirmation) {
+        byUser.compute(confirmation.telegramUserId(), (userId, entries) -> add(entries, confirmation));
+    }
+
+    /**
+     * Warm-up insert. The check runs under the same per-user mapping as {@link #remove}, so a confirmation
+     * resolved while the warm-up query was running cannot be put back between the check and the insert.
+     */
+    private void putUnlessRemoved(PendingConfirmation confirmation) {
+        byUser.compute(confirmation.telegramUserId(), (userId, entries) ->
+                removedWhileWarming.contains(confirmation.id()) ? entries : add(entries, confirmation));
+    }
+
+    void remove(PendingConfirmation confirmation) {
+        byUser.compute(confirmation.telegramUserId(), (userId, entries) -> {
+            if (!warm) {
+                removedWhileWarming.add(confirmation.id());
+            }
+            if (entries == null) {
+                return null;
+            }
+            if (entries.remove(confirmation.id()) != null) {
+                size.decrementAndGet();
+            }
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    private Map<UUID, PendingConfirmation> add(Map<UUID, PendingConfirmation> entries,
+                                               PendingConfirmation confirmation) {
+        Map<UUID, PendingConfirmation> target = entries != null ? entries : new ConcurrentHashMap<>();
+        if (target.put(confirmation.id(), confirmation) == null) {
+            size.incrementAndGet();
+        }
+        return target;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +21,7 @@ public class RegistrationRequestService {
 
     private final UserAccountRepository userAccountRepository;
     private final AuditService auditService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<UserAccount> findPendingByTmId(UUID tmUserId) {
         return userAccountRepository.findByStatusAndLocationManagedByTmOrderByCreatedAtAsc(
@@ -94,7 +96,7 @@ public class RegistrationRequestService {
         }
         request.setApprovedByTelegramUserId(approvedByTelegramUserId);
         request.setApprovedAt(Instant.now());
-        UserAccount saved = userAccountRepository.save(request);
+        UserAccount saved = saveAndPublish(request);
         userAccountRepository.findByTelegramUserId(approvedByTelegramUserId)
                 .ifPresent(actor -> auditService.log(
                         AuditEventType.USER_APPROVED,
@@ -115,7 +117,7 @@ public class RegistrationRequestService {
         if (request.getRole() == Role.SELLER) {
             request.setSellerStatus(SellerStatus.REJECTED);
         }
-        return userAccountRepository.save(request);
+        return saveAndPublish(request);
     }
 
     private ApprovalResult rejectWithReason(
@@ -130,10 +132,16 @@ public class RegistrationRequestService {
         }
         request.setApprovedByTelegramUserId(approvedByTelegramUserId);
         request.setApprovedAt(Instant.now());
-        UserAccount saved = userAccountRepository.save(request);
+        UserAccount saved = saveAndPublish(request);
         return new ApprovalResult(saved, false, message);
     }
 
+    private UserAccount saveAndPublish(UserAccount account) {
+        UserAccount saved = userAccountRepository.save(account);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(account.getTelegramUserId()));
+        return saved;
+    }
+
     public record ApprovalResult(UserAccount account, boolean approved, String message) {
     }
 }
@@ -1,11 +1,10 @@
 package esvar.ua.workinghoursbot.service;
 
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
 import java.time.DayOfWeek;
-import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
@@ -17,14 +16,32 @@ public class ScheduleCalendarKeyboardBuilder {
     private static final String CALLBACK_NOOP = "noop";
     private static final String EMPTY_CELL = "·";
     private static final boolean USE_LEADING_ZERO = true;
+    private static final InlineKeyboardButton EMPTY_BUTTON = button(EMPTY_CELL, CALLBACK_NOOP);
+    private static final List<InlineKeyboardButton> WEEKDAY_HEADER = List.of(
+            button("Пн", CALLBACK_NOOP),
+            button("Вт", CALLBACK_NOOP),
+            button("Ср", CALLBACK_NOOP),
+            button("Чт", CALLBACK_NOOP),
+            button("Пт", CALLBACK_NOOP),
+            button("Сб", CALLBACK_NOOP),
+            button("Нд", CALLBACK_NOOP)
+    );
 
-    public InlineKeyboardMarkup buildEditKeyboard(YearMonth month, Set<LocalDate> workDays) {
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-        rows.add(buildWeekdayHeader());
-        rows.addAll(buildCalendarRows(month, workDays));
+    private final SessionStore<YearMonth, EditTemplate> editTemplates;
+
+    public ScheduleCalendarKeyboardBuilder(SessionStores sessionStores) {
+        this.editTemplates = sessionStores.create("calendar-keyboards");
+    }
+
+    /**
+     * Built from a per-month template: the header, empty cells and both states of every day are created once
+     * and shared by all keyboards of that month, so a toggle only assembles the rows. The shared buttons must
+     * not be modified.
+     */
+    public InlineKeyboardMarkup buildEditKeyboard(MonthSchedule workDays) {
         // Кнопки Очистити / Відміна / < / > / Зберегти прибрані з inline‑календаря
         InlineKeyboardMarkup markup = new InlineKeyboardMarkup();
-        markup.setKeyboard(rows);
+        markup.setKeyboard(editTemplates.computeIfAbsent(workDays.month(), EditTemplate::new).rows(workDays));
         return markup;
     }
 
@@ -49,45 +66,6 @@ public class ScheduleCalendarKeyboardBuilder {
         return markup;
     }
 
-    private List<InlineKeyboardButton> buildWeekdayHeader() {
-        return List.of(
-                button("Пн", CALLBACK_NOOP),
-                button("Вт", CALLBACK_NOOP),
-                button("Ср", CALLBACK_NOOP),
-                button("Чт", CALLBACK_NOOP),
-                button("Пт", CALLBACK_NOOP),
-                button("Сб", CALLBACK_NOOP),
-                button("Нд", CALLBACK_NOOP)
-        );
-    }
-
-    private List<List<InlineKeyboardButton>> buildCalendarRows(YearMonth month, Set<LocalDate> workDays) {
-        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
-        LocalDate firstDay = month.atDay(1);
-        int daysInMonth = month.lengthOfMonth();
-        int firstWeekdayIndex = firstDay.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
-        int dayCounter = 1;
-        for (int week = 0; week < 6; week++) {
-            List<InlineKeyboardButton> row = new ArrayList<>();
-            for (int dayOfWeek = 0; dayOfWeek < 7; dayOfWeek++) {
-                if (week == 0 && dayOfWeek < firstWeekdayIndex || dayCounter > daysInMonth) {
-                    row.add(button(EMPTY_CELL, CALLBACK_NOOP));
-                    continue;
-                }
-                LocalDate date = month.atDay(dayCounter);
-                boolean isWork = workDays != null && workDays.contains(date);
-                String label = formatDayLabel(dayCounter, isWork);
-                row.add(button(label, "E:D:" + date));
-                dayCounter++;
-            }
-            rows.add(row);
-            if (dayCounter > daysInMonth) {
-                break;
-            }
-        }
-        return rows;
-    }
-
     private List<InlineKeyboardButton> buildViewNavigationRow(YearMonth month) {
         return List.of(
                 button("◀️", "V:P"),
@@ -101,12 +79,12 @@ public class ScheduleCalendarKeyboardBuilder {
                 + " " + month.getYear();
     }
 
-    private String formatDayLabel(int day, boolean isWork) {
+    private static String formatDayLabel(int day, boolean isWork) {
         String dayText = USE_LEADING_ZERO && day < 10 ? "0" + day : Integer.toString(day);
         return dayText + (isWork ? "✅" : "❌");
     }
 
-    private InlineKeyboardButton button(String text, String callbackData) {
+    private static InlineKeyboardButton button(String text, String callbackData) {
         InlineKeyboardButton button = new InlineKeyboardButton();
         button.setText(text);
         button.setCallbackData(callbackData);
@@ -120,4 +98,44 @@ public class ScheduleCalendarKeyboardBuilder {
     private String buildTmCallback(UUID locationId, String action) {
         return "TM_SCHED:" + locationId + ":" + action;
     }
+
+    private static final class EditTemplate {
+
+        private final int firstWeekdayIndex;
+        private final int daysInMonth;
+        // Indexed by day of month; index 0 is unused.
+        private final InlineKeyboardButton[] workButtons;
+        private final InlineKeyboardButton[] offButtons;
+
+        private EditTemplate(YearMonth month) {
+            this.firstWeekdayIndex = month.atDay(1).getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
+            this.daysInMonth = month.lengthOfMonth();
+            this.workButtons = new InlineKeyboardButton[daysInMonth + 1];
+            this.offButtons = new InlineKeyboardButton[daysInMonth + 1];
+            for (int day = 1; day <= daysInMonth; day++) {
+                String callbackData = "E:D:" + month.atDay(day);
+                workButtons[day] = button(formatDayLabel(day, true), callbackData);
+                offButtons[day] = button(formatDayLabel(day, false), callbackData);
+            }
+        }
+
+        private List<List<InlineKeyboardButton>> rows(MonthSchedule workDays) {
+            List<List<InlineKeyboardButton>> rows = new ArrayList<>(7);
+            rows.add(WEEKDAY_HEADER);
+            int day = 1;
+            for (int week = 0; week < 6 && day <= daysInMonth; week++) {
+                InlineKeyboardButton[] row = new InlineKeyboardButton[7];
+                for (int dayOfWeek = 0; dayOfWeek < 7; dayOfWeek++) {
+                    if (week == 0 && dayOfWeek < firstWeekdayIndex || day > daysInMonth) {
+                        row[dayOfWeek] = EMPTY_BUTTON;
+                        continue;
+                    }
+                    row[dayOfWeek] = workDays.contains(day) ? workButtons[day] : offButtons[day];
+                    day++;
+                }
+                rows.add(List.of(row));
+            }
+            return rows;
+        }
+    }
 }
@@ -1,10 +1,10 @@
 package esvar.ua.workinghoursbot.service;
 
-import java.time.LocalDate;
+import esvar.ua.workinghoursbot.bot.CalendarKeyboardEditMessage;
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
 import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.Locale;
-import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
@@ -16,25 +16,40 @@ public class ScheduleCalendarRenderer {
 
     private final ScheduleCalendarKeyboardBuilder keyboardBuilder;
 
-    public SendMessage buildEditMessage(Long chatId, String locationName, YearMonth month, Set<LocalDate> workDays) {
+    public SendMessage buildEditMessage(Long chatId, String locationName, MonthSchedule workDays) {
         SendMessage message = SendMessage.builder()
                 .chatId(chatId.toString())
-                .text(buildEditText(locationName, month))
+                .text(buildEditText(locationName, workDays.month()))
                 .build();
-        message.setReplyMarkup(keyboardBuilder.buildEditKeyboard(month, workDays));
+        message.setReplyMarkup(keyboardBuilder.buildEditKeyboard(workDays));
         return message;
     }
 
     public EditMessageText buildEditMessage(Long chatId,
                                             Integer messageId,
                                             String locationName,
-                                            YearMonth month,
-                                            Set<LocalDate> workDays) {
+                                            MonthSchedule workDays) {
         EditMessageText edit = new EditMessageText();
         edit.setChatId(chatId.toString());
         edit.setMessageId(messageId);
-        edit.setText(buildEditText(locationName, month));
-        edit.setReplyMarkup(keyboardBuilder.buildEditKeyboard(month, workDays));
+        edit.setText(buildEditText(locationName, workDays.month()));
+        edit.setReplyMarkup(keyboardBuilder.buildEditKeyboard(workDays));
+        return edit;
+    }
+
+    /**
+     * Toggling a day only changes the keyboard, so the text is not sent again.
+     */
+    public CalendarKeyboardEditMessage buildKeyboardUpdate(Long chatId,
+                                                          Integer messageId,
+                                                          String locationName,
+                                                          MonthSchedule workDays) {
+        CalendarKeyboardEditMessage edit = new CalendarKeyboardEditMessage(
+                buildEditText(locationName, workDays.month())
+        );
+        edit.setChatId(chatId.toString());
+        edit.setMessageId(messageId);
+        edit.setReplyMarkup(keyboardBuilder.buildEditKeyboard(workDays));
         return edit;
     }
 
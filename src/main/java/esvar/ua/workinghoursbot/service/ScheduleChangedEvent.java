@@ -0,0 +1,7 @@
+package esvar.ua.workinghoursbot.service;
+
+import java.time.YearMonth;
+import java.util.UUID;
+
+public record ScheduleChangedEvent(UUID locationId, YearMonth month) {
+}
@@ -1,16 +1,19 @@
 package esvar.ua.workinghoursbot.service;
 
 import esvar.ua.workinghoursbot.bot.BotResponse;
+import esvar.ua.workinghoursbot.bot.CallbackRouteContributor;
+import esvar.ua.workinghoursbot.bot.CallbackRouteRegistry;
 import esvar.ua.workinghoursbot.bot.KeyboardFactory;
 import esvar.ua.workinghoursbot.domain.AuditEventType;
 import esvar.ua.workinghoursbot.domain.Location;
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
 import esvar.ua.workinghoursbot.domain.RegistrationStatus;
 import esvar.ua.workinghoursbot.domain.Role;
 import esvar.ua.workinghoursbot.domain.UserAccount;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.Optional;
-import java.util.Set;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,7 +30,7 @@ import org.telegram.telegrambots.meta.api.objects.Message;
 @Slf4j
 @Transactional
 
-public class ScheduleInteractionHandler {
+public class ScheduleInteractionHandler implements CallbackRouteContributor {
 
     private static final String COMMAND_EDIT = "✍️ Внести графік";
     private static final String COMMAND_VIEW = "🗓 Мій графік";
@@ -40,7 +43,6 @@ public class ScheduleInteractionHandler {
 
     private final UserAccountService userAccountService;
     private final SchedulePersistenceService schedulePersistenceService;
-    private final ScheduleService scheduleService;
     private final ScheduleSessionStore sessionStore;
     private final ScheduleCalendarRenderer calendarRenderer;
     private final ScheduleCalendarKeyboardBuilder keyboardBuilder;
@@ -54,6 +56,9 @@ public class ScheduleInteractionHandler {
         if (text == null || text.isBlank()) {
             return BotResponse.empty();
         }
+        if (!isEditMenuAction(text) && !COMMAND_EDIT.equalsIgnoreCase(text) && !COMMAND_VIEW.equalsIgnoreCase(text)) {
+            return BotResponse.empty();
+        }
 
         Optional<UserAccount> accountOptional = userAccountService.findByTelegramUserId(telegramUserId);
         if (accountOptional.isEmpty()) {
@@ -91,24 +96,12 @@ public class ScheduleInteractionHandler {
         return BotResponse.empty();
     }
 
-    public BotResponse handleCallback(CallbackQuery callbackQuery) {
-        if (callbackQuery == null || callbackQuery.getFrom() == null) {
-            return BotResponse.empty();
-        }
-
-        String data = callbackQuery.getData();
-        if (data == null || data.isBlank()) {
-            return BotResponse.empty();
-        }
-
-        if (data.startsWith("E:")) {
-            return handleEditCallback(callbackQuery, data);
-        }
-        if (data.startsWith("V:")) {
-            return handleViewCallback(callbackQuery, data);
-        }
-
-        return BotResponse.empty();
+    @Override
+    public void registerCallbackRoutes(CallbackRouteRegistry routes) {
+        routes.prefix("E:", callbackQuery -> handleEditCallback(callbackQuery, callbackQuery.getData()));
+        routes.prefix("V:", callbackQuery -> handleViewCallback(callbackQuery, callbackQuery.getData()));
+        // Weekday headers and blank calendar cells.
+        routes.exact("noop", callbackQuery -> BotResponse.empty());
     }
 
     private BotResponse enterEditMode(ScheduleSession session, UserAccount account, Long chatId) {
@@ -124,7 +117,7 @@ public class ScheduleInteractionHandler {
         }
 
         YearMonth month = YearMonth.now();
-        Set<LocalDate> workDays = schedulePersistenceService.loadMonth(
+        MonthSchedule workDays = schedulePersistenceService.loadMonth(
                 account.getTelegramUserId(),
                 location.getId(),
                 month
@@ -134,14 +127,14 @@ public class ScheduleInteractionHandler {
         session.setActiveLocationId(location.getId());
         session.setActiveYearMonth(month);
         session.clearDrafts();
-        session.getOrCreateDraft(month).addAll(workDays);
+        session.putDraft(workDays);
         session.setCalendarChatId(chatId);
         session.setCalendarMessageId(null);
 
         log.info("Enter edit mode. userId={}, locationId={}, month={}",
                 account.getTelegramUserId(), location.getId(), month);
 
-        SendMessage calendarMessage = calendarRenderer.buildEditMessage(chatId, location.getName(), month, workDays);
+        SendMessage calendarMessage = calendarRenderer.buildEditMessage(chatId, location.getName(), workDays);
         sessionStore.markPendingCalendarMessage(chatId, account.getTelegramUserId());
 
         SendMessage menuMessage = simpleMessage(chatId, "Режим редагування графіка.");
@@ -157,7 +150,7 @@ public class ScheduleInteractionHandler {
         }
 
         YearMonth month = YearMonth.now();
-        Set<LocalDate> workDays = schedulePersistenceService.loadMonth(
+        MonthSchedule workDays = schedulePersistenceService.loadMonth(
                 account.getTelegramUserId(),
                 location.getId(),
                 month
@@ -174,12 +167,8 @@ public class ScheduleInteractionHandler {
 
         SendMessage message = new SendMessage();
         message.setChatId(chatId.toString());
-        ScheduleService.ScheduleSummary summary = scheduleService.getMonthSummary(
-                account.getTelegramUserId(),
-                month.getYear(),
-                month.getMonthValue()
-        );
-        message.setText(scheduleRenderer.renderMonthTable(location.getName(), month, workDays, summary));
+        ScheduleService.ScheduleSummary summary = ScheduleService.ScheduleSummary.of(workDays);
+        message.setText(scheduleRenderer.renderMonthTable(location.getName(), workDays, summary));
         message.setParseMode("HTML");
         message.setReplyMarkup(keyboardBuilder.buildViewKeyboard(month));
 
@@ -204,23 +193,23 @@ public class ScheduleInteractionHandler {
             session.setActiveYearMonth(activeMonth);
         }
 
-        Set<LocalDate> draftDays = session.getOrCreateDraft(activeMonth);
+        MonthSchedule draftDays = session.getOrCreateDraft(activeMonth);
 
         if (BTN_CLEAR.equals(text)) {
-            draftDays.clear();
+            draftDays = draftDays.cleared();
+            session.putDraft(draftDays);
             log.info("Clear schedule draft. userId={}, locationId={}, month={}",
                     account.getTelegramUserId(), location.getId(), activeMonth);
-            return BotResponse.of(buildCalendarUpdate(session, chatId, location.getName(), activeMonth, draftDays));
+            return BotResponse.of(buildCalendarUpdate(session, chatId, location.getName(), draftDays));
         }
 
         if (BTN_SAVE.equals(text)) {
             log.info("Save schedule draft. userId={}, locationId={}, month={}, count={}",
-                    account.getTelegramUserId(), location.getId(), activeMonth, draftDays.size());
+                    account.getTelegramUserId(), location.getId(), activeMonth, draftDays.workingCount());
 
             schedulePersistenceService.saveMonth(
                     account.getTelegramUserId(),
                     location.getId(),
-                    activeMonth,
                     draftDays
             );
 
@@ -229,31 +218,28 @@ public class ScheduleInteractionHandler {
                     account.getId(),
                     null,
                     location.getId(),
-                    "Місяць: %s | Робочих днів: %d".formatted(activeMonth, draftDays.size())
+                    "Місяць: %s | Робочих днів: %d".formatted(activeMonth, draftDays.workingCount())
             );
             auditService.log(
                     AuditEventType.SCHEDULE_CHANGE_REQUESTED,
                     account.getId(),
                     null,
                     location.getId(),
-                    "Місяць: %s | Робочих днів: %d".formatted(activeMonth, draftDays.size())
+                    "Місяць: %s | Робочих днів: %d".formatted(activeMonth, draftDays.workingCount())
             );
 
-            Set<LocalDate> persistedDays = schedulePersistenceService.loadMonth(
+            MonthSchedule persistedDays = schedulePersistenceService.loadMonth(
                     account.getTelegramUserId(),
                     location.getId(),
                     activeMonth
             );
-
-            draftDays.clear();
-            draftDays.addAll(persistedDays);
+            session.putDraft(persistedDays);
 
             BotApiMethod<?> calendarUpdate = buildCalendarUpdate(
                     session,
                     chatId,
                     location.getName(),
-                    activeMonth,
-                    draftDays
+                    persistedDays
             );
 
             SendMessage notice = simpleMessage(chatId, "Збережено ✅");
@@ -269,20 +255,12 @@ public class ScheduleInteractionHandler {
             }
 
             session.setActiveYearMonth(target);
-            boolean hasDraft = session.hasDraft(target);
-            Set<LocalDate> targetDays = session.getOrCreateDraft(target);
-            if (!hasDraft) {
-                targetDays.addAll(schedulePersistenceService.loadMonth(
-                        account.getTelegramUserId(),
-                        location.getId(),
-                        target
-                ));
-            }
+            MonthSchedule targetDays = draftFor(session, account.getTelegramUserId(), location.getId(), target);
 
             log.info("Switch edit month. userId={}, locationId={}, month={}",
                     account.getTelegramUserId(), location.getId(), target);
 
-            return BotResponse.of(buildCalendarUpdate(session, chatId, location.getName(), target, targetDays));
+            return BotResponse.of(buildCalendarUpdate(session, chatId, location.getName(), targetDays));
         }
 
         if (BTN_BACK.equals(text)) {
@@ -352,26 +330,32 @@ public class ScheduleInteractionHandler {
             return BotResponse.of(answer(callbackQuery, "Недоступно"));
         }
 
+        // The calendar already shows this month: only the keyboard changes.
+        boolean sameMonth = targetMonth.equals(session.getActiveYearMonth());
         session.setActiveYearMonth(targetMonth);
-        boolean hasDraft = session.hasDraft(targetMonth);
-        Set<LocalDate> draftDays = session.getOrCreateDraft(targetMonth);
-        if (!hasDraft) {
-            draftDays.addAll(schedulePersistenceService.loadMonth(
-                    telegramUserId,
-                    location.getId(),
-                    targetMonth
-            ));
-        }
-        boolean isWork = toggleDay(draftDays, date);
+        draftFor(session, telegramUserId, location.getId(), targetMonth);
+        MonthSchedule draftDays = session.toggleDraftDay(date);
+        boolean isWork = draftDays.contains(date);
 
         log.info("Toggle day. userId={}, date={}, isWork={}",
                 telegramUserId, date, isWork);
 
+        if (sameMonth) {
+            // Answered at once; the keyboard edit may be coalesced with the next taps.
+            return BotResponse.of(
+                    answer(callbackQuery, null),
+                    calendarRenderer.buildKeyboardUpdate(
+                            session.getCalendarChatId(),
+                            session.getCalendarMessageId(),
+                            location.getName(),
+                            draftDays
+                    )
+            );
+        }
         EditMessageText edit = calendarRenderer.buildEditMessage(
                 session.getCalendarChatId(),
                 session.getCalendarMessageId(),
                 location.getName(),
-                targetMonth,
                 draftDays
         );
         return BotResponse.of(edit);
@@ -420,7 +404,7 @@ public class ScheduleInteractionHandler {
         session.setMode(InteractionMode.VIEW_SCHEDULE);
         session.setActiveYearMonth(target);
 
-        Set<LocalDate> workDays = schedulePersistenceService.loadMonth(
+        MonthSchedule workDays = schedulePersistenceService.loadMonth(
                 telegramUserId,
                 location.getId(),
                 target
@@ -429,12 +413,8 @@ public class ScheduleInteractionHandler {
         EditMessageText edit = new EditMessageText();
         edit.setChatId(session.getCalendarChatId().toString());
         edit.setMessageId(session.getCalendarMessageId());
-        ScheduleService.ScheduleSummary summary = scheduleService.getMonthSummary(
-                telegramUserId,
-                target.getYear(),
-                target.getMonthValue()
-        );
-        edit.setText(scheduleRenderer.renderMonthTable(location.getName(), target, workDays, summary));
+        ScheduleService.ScheduleSummary summary = ScheduleService.ScheduleSummary.of(workDays);
+        edit.setText(scheduleRenderer.renderMonthTable(location.getName(), workDays, summary));
         edit.setParseMode("HTML");
         edit.setReplyMarkup(keyboardBuilder.buildViewKeyboard(target));
 
@@ -444,14 +424,12 @@ public class ScheduleInteractionHandler {
     private BotApiMethod<?> buildCalendarUpdate(ScheduleSession session,
                                                 Long chatId,
                                                 String locationName,
-                                                YearMonth month,
-                                                Set<LocalDate> workDays) {
+                                                MonthSchedule workDays) {
         if (session.getCalendarChatId() != null && session.getCalendarMessageId() != null) {
             return calendarRenderer.buildEditMessage(
                     session.getCalendarChatId(),
                     session.getCalendarMessageId(),
                     locationName,
-                    month,
                     workDays
             );
         }
@@ -459,7 +437,7 @@ public class ScheduleInteractionHandler {
         session.setCalendarChatId(chatId);
         session.setCalendarMessageId(null);
         sessionStore.markPendingCalendarMessage(chatId, session.getTelegramUserId());
-        return calendarRenderer.buildEditMessage(chatId, locationName, month, workDays);
+        return calendarRenderer.buildEditMessage(chatId, locationName, workDays);
     }
 
     private BotApiMethod<?> buildCancelEditMessage(ScheduleSession session) {
@@ -473,13 +451,13 @@ public class ScheduleInteractionHandler {
         return edit;
     }
 
-    private boolean toggleDay(Set<LocalDate> draftDays, LocalDate date) {
-        if (draftDays.contains(date)) {
-            draftDays.remove(date);
-            return false;
+    private MonthSchedule draftFor(ScheduleSession session, Long telegramUserId, UUID locationId, YearMonth month) {
+        if (session.hasDraft(month)) {
+            return session.getOrCreateDraft(month);
         }
-        draftDays.add(date);
-        return true;
+        MonthSchedule stored = schedulePersistenceService.loadMonth(telegramUserId, locationId, month);
+        session.putDraft(stored);
+        return stored;
     }
 
     private boolean isEditMenuAction(String text) {
@@ -1,16 +1,22 @@
 package esvar.ua.workinghoursbot.service;
 
+import esvar.ua.workinghoursbot.config.DomainProperties;
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
 import esvar.ua.workinghoursbot.domain.ScheduleDay;
+import esvar.ua.workinghoursbot.domain.ScheduleMonth;
 import esvar.ua.workinghoursbot.domain.ScheduleStatus;
 import esvar.ua.workinghoursbot.repository.ScheduleDayRepository;
+import esvar.ua.workinghoursbot.repository.ScheduleMonthRepository;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,45 +26,92 @@ import org.springframework.transaction.annotation.Transactional;
 public class SchedulePersistenceService {
 
     private final ScheduleDayRepository scheduleDayRepository;
+    private final ScheduleMonthRepository scheduleMonthRepository;
+    private final DomainProperties domainProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public Set<LocalDate> loadMonth(Long telegramUserId, UUID locationId, YearMonth month) {
+    public MonthSchedule loadMonth(Long telegramUserId, UUID locationId, YearMonth month) {
+        if (packedReads()) {
+            return scheduleMonthRepository.findByTelegramUserIdAndLocationIdAndMonth(telegramUserId, locationId, month)
+                    .map(ScheduleMonth::toSchedule)
+                    .orElseGet(() -> MonthSchedule.empty(month));
+        }
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
-        return scheduleDayRepository.findByTelegramUserIdAndLocationIdAndDateBetween(
-                        telegramUserId,
-                        locationId,
-                        start,
-                        end
-                ).stream()
-                .filter(day -> day.getStatus() == ScheduleStatus.WORK)
-                .map(ScheduleDay::getDate)
-                .collect(Collectors.toSet());
+        int mask = 0;
+        for (ScheduleDay day : scheduleDayRepository.findByTelegramUserIdAndLocationIdAndDateBetween(
+                telegramUserId,
+                locationId,
+                start,
+                end
+        )) {
+            if (day.getStatus() == ScheduleStatus.WORK) {
+                mask |= 1 << (day.getDate().getDayOfMonth() - 1);
+            }
+        }
+        return new MonthSchedule(month, mask);
+    }
+
+    /**
+     * Work days of every seller at the location, keyed by telegram user id.
+     */
+    public Map<Long, MonthSchedule> loadLocationMonth(UUID locationId, YearMonth month) {
+        Map<Long, MonthSchedule> result = new HashMap<>();
+        if (packedReads()) {
+            for (ScheduleMonth packed : scheduleMonthRepository.findByLocationIdAndMonth(locationId, month)) {
+                if (packed.getWorkMask() != 0) {
+                    result.put(packed.getTelegramUserId(), packed.toSchedule());
+                }
+            }
+            return result;
+        }
+        Map<Long, Integer> masks = new HashMap<>();
+        for (ScheduleDay day : scheduleDayRepository.findByLocationIdAndDateBetween(
+                locationId,
+                month.atDay(1),
+                month.atEndOfMonth()
+        )) {
+            if (day.getStatus() == ScheduleStatus.WORK) {
+                masks.merge(day.getTelegramUserId(), 1 << (day.getDate().getDayOfMonth() - 1), (a, b) -> a | b);
+            }
+        }
+        masks.forEach((userId, mask) -> result.put(userId, new MonthSchedule(month, mask)));
+        return result;
     }
 
     @Transactional
-    public void saveMonth(Long telegramUserId, UUID locationId, YearMonth month, Set<LocalDate> workDays) {
+    public void saveMonth(Long telegramUserId, UUID locationId, MonthSchedule workDays) {
+        YearMonth month = workDays.month();
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
-        int workDaysCount = workDays == null ? 0 : workDays.size();
-
-        log.debug("Saving schedule month. userId={}, locationId={}, month={}, start={}, end={}, workDaysCount={}",
-                telegramUserId, locationId, month, start, end, workDaysCount);
 
-        scheduleDayRepository.deleteByTelegramUserIdAndLocationIdAndDateBetween(
+        List<ScheduleDay> stored = scheduleDayRepository.findByTelegramUserIdAndLocationIdAndDateBetween(
                 telegramUserId,
                 locationId,
                 start,
                 end
         );
-        scheduleDayRepository.flush();
 
-        if (workDays == null || workDays.isEmpty()) {
-            log.debug("No work days to save for userId={}, locationId={}, month={}", telegramUserId, locationId, month);
-            return;
+        // Only touch the dates that changed: unchanged WORK rows stay as they are, OFF rows that become
+        // WORK are updated in place (a delete + insert would trip the unique key inside one flush).
+        int remaining = workDays.mask();
+        List<ScheduleDay> toDelete = new ArrayList<>();
+        int updatedCount = 0;
+        for (ScheduleDay day : stored) {
+            int bit = 1 << (day.getDate().getDayOfMonth() - 1);
+            if ((remaining & bit) == 0) {
+                toDelete.add(day);
+            } else if (day.getStatus() != ScheduleStatus.WORK) {
+                day.setStatus(ScheduleStatus.WORK);
+                updatedCount++;
+            }
+            remaining &= ~bit;
+        }
+        if (!toDelete.isEmpty()) {
+            scheduleDayRepository.deleteAllInBatch(toDelete);
         }
 
-        List<ScheduleDay> toSave = workDays.stream()
-                .filter(date -> !date.isBefore(start) && !date.isAfter(end))
+        List<ScheduleDay> toInsert = new MonthSchedule(month, remaining).toDates().stream()
                 .map(date -> {
                     ScheduleDay day = new ScheduleDay();
                     day.setTelegramUserId(telegramUserId);
@@ -68,15 +121,12 @@ public class SchedulePersistenceService {
                     return day;
                 })
                 .toList();
+        scheduleDayRepository.saveAll(toInsert);
+        writePacked(telegramUserId, locationId, workDays);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(locationId, month));
 
-        log.debug("Prepared schedule days to save. userId={}, locationId={}, month={}, filteredCount={}",
-                telegramUserId, locationId, month, toSave.size());
-
-        scheduleDayRepository.saveAll(toSave);
-        scheduleDayRepository.flush();
-
-        log.debug("Inserted schedule days. userId={}, locationId={}, month={}, insertedCount={}",
-                telegramUserId, locationId, month, toSave.size());
+        log.debug("Saved schedule month. userId={}, locationId={}, month={}, workDays={}, inserted={}, updated={}, deleted={}",
+                telegramUserId, locationId, month, workDays.workingCount(), toInsert.size(), updatedCount, toDelete.size());
     }
 
     @Transactional
@@ -89,6 +139,7 @@ public class SchedulePersistenceService {
         }
 
         scheduleDayRepository.deleteByTelegramUserIdAndLocationIdAndDate(requesterTelegramUserId, locationId, date);
+        updatePackedDay(requesterTelegramUserId, locationId, date, false);
 
         boolean replacementAlreadyWorking = scheduleDayRepository.existsByTelegramUserIdAndLocationIdAndDateAndStatus(
                 replacementTelegramUserId,
@@ -104,5 +155,49 @@ public class SchedulePersistenceService {
             day.setStatus(ScheduleStatus.WORK);
             scheduleDayRepository.save(day);
         }
+        updatePackedDay(replacementTelegramUserId, locationId, date, true);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(locationId, YearMonth.from(date)));
+    }
+
+    private boolean packedReads() {
+        DomainProperties.Schedule schedule = domainProperties.schedule();
+        return schedule != null && schedule.storageMode() == DomainProperties.ScheduleStorageMode.PACKED;
+    }
+
+    private void updatePackedDay(Long telegramUserId, UUID locationId, LocalDate date, boolean work) {
+        YearMonth month = YearMonth.from(date);
+        MonthSchedule current = scheduleMonthRepository.findByTelegramUserIdAndLocationIdAndMonth(
+                        telegramUserId,
+                        locationId,
+                        month
+                )
+                .map(ScheduleMonth::toSchedule)
+                .orElseGet(() -> MonthSchedule.empty(month));
+        writePacked(telegramUserId, locationId, work ? current.with(date) : current.without(date));
+    }
+
+    private void writePacked(Long telegramUserId, UUID locationId, MonthSchedule workDays) {
+        ScheduleMonth packed = scheduleMonthRepository.findByTelegramUserIdAndLocationIdAndMonth(
+                        telegramUserId,
+                        locationId,
+                        workDays.month()
+                )
+                .orElse(null);
+        if (workDays.isEmpty()) {
+            if (packed != null) {
+                scheduleMonthRepository.delete(packed);
+            }
+            return;
+        }
+        if (packed == null) {
+            packed = new ScheduleMonth();
+            packed.setTelegramUserId(telegramUserId);
+            packed.setLocationId(locationId);
+            packed.setMonth(workDays.month());
+        } else if (packed.getWorkMask() == workDays.mask()) {
+            return;
+        }
+        packed.setWorkMask(workDays.mask());
+        scheduleMonthRepository.save(packed);
     }
 }
@@ -1,10 +1,9 @@
 package esvar.ua.workinghoursbot.service;
 
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
 import esvar.ua.workinghoursbot.domain.UserAccount;
 import esvar.ua.workinghoursbot.repository.UserAccountRepository;
-import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.Set;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -24,13 +23,13 @@ public class ScheduleService {
         }
         UUID locationId = account.getLocation().getId();
         YearMonth target = YearMonth.of(year, month);
-        Set<LocalDate> workDays = schedulePersistenceService.loadMonth(telegramUserId, locationId, target);
-        int workingCount = workDays == null ? 0 : workDays.size();
-        int daysInMonth = target.lengthOfMonth();
-        int offCount = Math.max(0, daysInMonth - workingCount);
-        return new ScheduleSummary(workingCount, offCount, daysInMonth);
+        return ScheduleSummary.of(schedulePersistenceService.loadMonth(telegramUserId, locationId, target));
     }
 
     public record ScheduleSummary(int workingCount, int offCount, int daysInMonth) {
+
+        public static ScheduleSummary of(MonthSchedule schedule) {
+            return new ScheduleSummary(schedule.workingCount(), schedule.offCount(), schedule.daysInMonth());
+        }
     }
 }
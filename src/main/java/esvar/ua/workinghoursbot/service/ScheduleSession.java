@@ -1,12 +1,15 @@
 package esvar.ua.workinghoursbot.service;
 
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ScheduleSession {
 
@@ -14,10 +17,13 @@ public class ScheduleSession {
     private InteractionMode mode;
     private UUID activeLocationId;
     private YearMonth activeYearMonth;
-    private final Map<YearMonth, Set<LocalDate>> draftWorkDaysByMonth;
+    private final Map<YearMonth, MonthSchedule> draftWorkDaysByMonth;
     private Long calendarChatId;
     private Integer calendarMessageId;
-    private Instant lastUpdatedAt;
+    private volatile Instant lastUpdatedAt;
+    // Bumped on every change; the store persists a session while it is ahead of flushedVersion.
+    private final AtomicLong version = new AtomicLong(1);
+    private volatile long flushedVersion;
 
     public ScheduleSession(Long telegramUserId) {
         this.telegramUserId = telegramUserId;
@@ -26,6 +32,29 @@ public class ScheduleSession {
         this.lastUpdatedAt = Instant.now();
     }
 
+    /**
+     * A session as it was persisted; it is not dirty until changed again.
+     */
+    static ScheduleSession restore(Long telegramUserId,
+                                   InteractionMode mode,
+                                   UUID activeLocationId,
+                                   YearMonth activeYearMonth,
+                                   Collection<MonthSchedule> drafts,
+                                   Long calendarChatId,
+                                   Integer calendarMessageId,
+                                   Instant lastUpdatedAt) {
+        ScheduleSession session = new ScheduleSession(telegramUserId);
+        session.mode = mode;
+        session.activeLocationId = activeLocationId;
+        session.activeYearMonth = activeYearMonth;
+        drafts.forEach(draft -> session.draftWorkDaysByMonth.put(draft.month(), draft));
+        session.calendarChatId = calendarChatId;
+        session.calendarMessageId = calendarMessageId;
+        session.lastUpdatedAt = lastUpdatedAt;
+        session.flushedVersion = session.version.get();
+        return session;
+    }
+
     public Long getTelegramUserId() {
         return telegramUserId;
     }
@@ -57,8 +86,22 @@ public class ScheduleSession {
         touch();
     }
 
-    public Set<LocalDate> getOrCreateDraft(YearMonth month) {
-        return draftWorkDaysByMonth.computeIfAbsent(month, key -> ConcurrentHashMap.newKeySet());
+    public MonthSchedule getOrCreateDraft(YearMonth month) {
+        return draftWorkDaysByMonth.computeIfAbsent(month, MonthSchedule::empty);
+    }
+
+    public void putDraft(MonthSchedule draft) {
+        draftWorkDaysByMonth.put(draft.month(), draft);
+        touch();
+    }
+
+    public MonthSchedule toggleDraftDay(LocalDate date) {
+        MonthSchedule draft = draftWorkDaysByMonth.compute(
+                YearMonth.from(date),
+                (month, current) -> (current == null ? MonthSchedule.empty(month) : current).toggle(date)
+        );
+        touch();
+        return draft;
     }
 
     public boolean hasDraft(YearMonth month) {
@@ -92,7 +135,27 @@ public class ScheduleSession {
         return lastUpdatedAt;
     }
 
+    Collection<MonthSchedule> drafts() {
+        return List.copyOf(draftWorkDaysByMonth.values());
+    }
+
+    long version() {
+        return version.get();
+    }
+
+    boolean isDirty() {
+        return version.get() != flushedVersion;
+    }
+
+    /**
+     * Records that the state as of {@code flushed} is persisted; later changes keep the session dirty.
+     */
+    void markFlushed(long flushed) {
+        this.flushedVersion = flushed;
+    }
+
     private void touch() {
         this.lastUpdatedAt = Instant.now();
+        version.incrementAndGet();
     }
 }
@@ -1,26 +1,70 @@
 package esvar.ua.workinghoursbot.service;
 
-import java.util.Map;
+import esvar.ua.workinghoursbot.domain.ScheduleSessionSnapshot;
+import esvar.ua.workinghoursbot.repository.ScheduleSessionSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Schedule edit sessions in memory with a write-behind copy in {@code schedule_session_snapshots}. Changed
+ * sessions are flushed periodically and restored on startup, so a restart keeps unsaved drafts; sessions the
+ * {@link SessionStore} evicts are dropped from both.
+ */
 @Component
+@Slf4j
 public class ScheduleSessionStore {
 
-    private final Map<Long, ScheduleSession> sessions = new ConcurrentHashMap<>();
-    private final Map<Long, Long> pendingCalendarMessageByChatId = new ConcurrentHashMap<>();
+    private final ScheduleSessionSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final SessionStore<Long, ScheduleSession> sessions;
+    private final SessionStore<Long, Long> pendingCalendarMessageByChatId;
+    private final Set<Long> pendingDeletes = ConcurrentHashMap.newKeySet();
+    private final Counter flushed;
+
+    public ScheduleSessionStore(ScheduleSessionSnapshotRepository snapshotRepository,
+                                SessionStores sessionStores,
+                                TransactionTemplate transactionTemplate,
+                                Clock clock,
+                                MeterRegistry meterRegistry) {
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.sessions = sessionStores.create("schedule-sessions",
+                (telegramUserId, session) -> pendingDeletes.add(telegramUserId));
+        this.pendingCalendarMessageByChatId = sessionStores.create("schedule-calendar-messages");
+        this.flushed = Counter.builder("bot.schedule.sessions.flushed")
+                .description("Session snapshots written to the database")
+                .register(meterRegistry);
+    }
 
     public ScheduleSession getOrCreate(Long telegramUserId) {
         return sessions.computeIfAbsent(telegramUserId, ScheduleSession::new);
     }
 
     public Optional<ScheduleSession> find(Long telegramUserId) {
-        return Optional.ofNullable(sessions.get(telegramUserId));
+        return sessions.find(telegramUserId);
     }
 
     public void clear(Long telegramUserId) {
-        sessions.remove(telegramUserId);
+        if (sessions.remove(telegramUserId) != null) {
+            pendingDeletes.add(telegramUserId);
+        }
     }
 
     public void markPendingCalendarMessage(Long chatId, Long telegramUserId) {
@@ -42,4 +86,105 @@ public class ScheduleSessionStore {
         session.setCalendarChatId(chatId);
         session.setCalendarMessageId(messageId);
     }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        Instant idleBefore = clock.instant().minus(sessions.ttl());
+        List<Long> expired = new ArrayList<>();
+        int restored = 0;
+        for (ScheduleSessionSnapshot snapshot : snapshotRepository.findAll()) {
+            if (snapshot.getLastUpdatedAt().isBefore(idleBefore)) {
+                expired.add(snapshot.getTelegramUserId());
+            } else if (sessions.putIfAbsent(snapshot.getTelegramUserId(), toSession(snapshot),
+                    snapshot.getLastUpdatedAt()) == null) {
+                restored++;
+            }
+        }
+        if (!expired.isEmpty()) {
+            snapshotRepository.deleteAllByIdInBatch(expired);
+        }
+        log.info("Restored {} schedule sessions, dropped {} expired", restored, expired.size());
+    }
+
+    @Scheduled(fixedDelayString = "${bot.schedule-session.flush-interval-ms:5000}")
+    public void flush() {
+        Set<Long> deletes = new HashSet<>(pendingDeletes);
+        pendingDeletes.removeAll(deletes);
+        // Cleared and started again since the last flush: the save below overwrites the old row.
+        deletes.removeIf(sessions::containsKey);
+
+        List<ScheduleSession> dirty = new ArrayList<>();
+        List<Long> versions = new ArrayList<>();
+        List<ScheduleSessionSnapshot> snapshots = new ArrayList<>();
+        sessions.forEach((telegramUserId, session) -> {
+            if (session.isDirty()) {
+                // Version first: a change made while the snapshot is taken leaves the session dirty.
+                versions.add(session.version());
+                dirty.add(session);
+                snapshots.add(toSnapshot(session));
+            }
+        });
+        if (deletes.isEmpty() && snapshots.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!deletes.isEmpty()) {
+                    snapshotRepository.deleteAllByIdInBatch(deletes);
+                }
+                if (!snapshots.isEmpty()) {
+                    snapshotRepository.upsertAll(snapshots);
+                }
+            });
+        } catch (RuntimeException ex) {
+            pendingDeletes.addAll(deletes);
+            log.warn("Failed to flush {} schedule sessions; retrying on the next flush", snapshots.size(), ex);
+            return;
+        }
+        for (int i = 0; i < dirty.size(); i++) {
+            dirty.get(i).markFlushed(versions.get(i));
+        }
+        flushed.increment(snapshots.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush schedule sessions on shutdown", ex);
+        }
+    }
+
+    private static ScheduleSessionSnapshot toSnapshot(ScheduleSession session) {
+        ScheduleSessionSnapshot snapshot = new ScheduleSessionSnapshot();
+        snapshot.setTelegramUserId(session.getTelegramUserId());
+        snapshot.setMode(session.getMode().name());
+        snapshot.setActiveLocationId(session.getActiveLocationId());
+        snapshot.setActiveMonth(session.getActiveYearMonth());
+        snapshot.setCalendarChatId(session.getCalendarChatId());
+        snapshot.setCalendarMessageId(session.getCalendarMessageId());
+        snapshot.setDrafts(ScheduleSessionSnapshot.encodeDrafts(session.drafts()));
+        snapshot.setLastUpdatedAt(session.getLastUpdatedAt());
+        return snapshot;
+    }
+
+    private static ScheduleSession toSession(ScheduleSessionSnapshot snapshot) {
+        InteractionMode mode;
+        try {
+            mode = InteractionMode.valueOf(snapshot.getMode());
+        } catch (IllegalArgumentException ex) {
+            mode = InteractionMode.NORMAL;
+        }
+        return ScheduleSession.restore(
+                snapshot.getTelegramUserId(),
+                mode,
+                snapshot.getActiveLocationId(),
+                snapshot.getActiveMonth(),
+                ScheduleSessionSnapshot.decodeDrafts(snapshot.getDrafts()),
+                snapshot.getCalendarChatId(),
+                snapshot.getCalendarMessageId(),
+                snapshot.getLastUpdatedAt()
+        );
+    }
 }
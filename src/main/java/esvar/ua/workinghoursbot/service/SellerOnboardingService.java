@@ -8,6 +8,7 @@ import esvar.ua.workinghoursbot.repository.UserAccountRepository;
 import java.time.Instant;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +20,7 @@ public class SellerOnboardingService {
     private final UserAccountRepository userAccountRepository;
     private final LocationRepository locationRepository;
     private final DomainProperties domainProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public JoinRequest createJoinRequest(UserAccount seller, UUID locationId) {
@@ -43,6 +45,7 @@ public class SellerOnboardingService {
         seller.setPendingLocation(location);
         seller.setState(UserState.SELLER_PENDING_MENU);
         userAccountRepository.save(seller);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(seller.getTelegramUserId()));
 
         JoinRequest request = new JoinRequest();
         request.setSeller(seller);
@@ -76,6 +79,7 @@ public class SellerOnboardingService {
         seller.setActive(true);
         seller.setState(UserState.SELLER_MAIN_MENU);
         userAccountRepository.save(seller);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(seller.getTelegramUserId()));
 
         request.setStatus(JoinRequestStatus.APPROVED);
         request.setResolvedAt(Instant.now());
@@ -96,6 +100,7 @@ public class SellerOnboardingService {
         seller.setPendingLocation(null);
         seller.setState(UserState.REGISTRATION_SELLER_LOCATION);
         userAccountRepository.save(seller);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(seller.getTelegramUserId()));
 
         request.setStatus(JoinRequestStatus.REJECTED);
         request.setResolvedAt(Instant.now());
@@ -0,0 +1,208 @@
+package esvar.ua.workinghoursbot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Bounded per-user state with idle expiry. Every read or write of a key restarts its TTL; expired keys are
+ * found by a {@link TimerWheel} advanced from {@link SessionStores}, and when the store is over its size bound
+ * the key closest to expiry goes first. Reads only stamp an access time, the wheel catches up lazily when the
+ * old deadline fires. Created through {@link SessionStores}, which also registers the metrics.
+ */
+public final class SessionStore<K, V> {
+
+    private static final int WHEEL_SIZE = 256;
+    private static final long MIN_TICK_MILLIS = 1_000;
+
+    private final SessionStoreBackend<K, V> backend;
+    private final Clock clock;
+    private final int maxSize;
+    private final Duration ttl;
+    private final long ttlMillis;
+    private final BiConsumer<? super K, ? super V> onEviction;
+    private final Map<K, Long> accessedAt = new ConcurrentHashMap<>();
+    private final TimerWheel<K> wheel;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expired;
+    private final Counter overflowed;
+
+    SessionStore(String name,
+                 SessionStoreBackend<K, V> backend,
+                 int maxSize,
+                 Duration ttl,
+                 BiConsumer<? super K, ? super V> onEviction,
+                 Clock clock,
+                 MeterRegistry meterRegistry) {
+        this.backend = backend;
+        this.clock = clock;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.ttlMillis = ttl.toMillis();
+        this.onEviction = onEviction;
+        this.wheel = new TimerWheel<>(Math.max(MIN_TICK_MILLIS, ttlMillis / WHEEL_SIZE), WHEEL_SIZE, clock.millis());
+        this.hits = Counter.builder("bot.session.store.requests")
+                .tag("store", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("bot.session.store.requests")
+                .tag("store", name).tag("result", "miss").register(meterRegistry);
+        this.expired = Counter.builder("bot.session.store.evictions")
+                .tag("store", name).tag("cause", "expired").register(meterRegistry);
+        this.overflowed = Counter.builder("bot.session.store.evictions")
+                .tag("store", name).tag("cause", "size").register(meterRegistry);
+        Gauge.builder("bot.session.store.size", backend, SessionStoreBackend::size)
+                .tag("store", name).register(meterRegistry);
+        Gauge.builder("bot.session.store.hit.ratio", this, SessionStore::hitRatio)
+                .tag("store", name).register(meterRegistry);
+    }
+
+    public Optional<V> find(K key) {
+        return Optional.ofNullable(get(key));
+    }
+
+    public V get(K key) {
+        V value = backend.get(key);
+        if (value == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        accessedAt.put(key, clock.millis());
+        return value;
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = backend.computeIfAbsent(key, factory);
+        schedule(key);
+        return value;
+    }
+
+    public void put(K key, V value) {
+        backend.put(key, value);
+        schedule(key);
+    }
+
+    /**
+     * Like {@link Map#putIfAbsent}; returns the present value, or {@code null} if {@code value} was stored.
+     */
+    public V putIfAbsent(K key, V value) {
+        return putIfAbsent(key, value, null);
+    }
+
+    /**
+     * Like {@link #putIfAbsent(Object, Object)}, but counts the TTL from {@code lastAccessedAt} rather than from
+     * now, so a value restored from storage keeps the idle time it already had. Clamped to now.
+     */
+    public V putIfAbsent(K key, V value, Instant lastAccessedAt) {
+        V current = backend.computeIfAbsent(key, ignored -> value);
+        if (current != value) {
+            return current;
+        }
+        long now = clock.millis();
+        schedule(key, lastAccessedAt == null ? now : Math.min(lastAccessedAt.toEpochMilli(), now));
+        return null;
+    }
+
+    /**
+     * Checks presence without counting as an access.
+     */
+    public boolean containsKey(K key) {
+        return backend.get(key) != null;
+    }
+
+    public V remove(K key) {
+        accessedAt.remove(key);
+        return backend.remove(key);
+    }
+
+    public boolean remove(K key, V value) {
+        if (!backend.remove(key, value)) {
+            return false;
+        }
+        accessedAt.remove(key);
+        return true;
+    }
+
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        backend.forEach(action);
+    }
+
+    public int size() {
+        return backend.size();
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    /**
+     * Evicts the keys that have been idle for longer than the TTL.
+     */
+    void expire() {
+        long now = clock.millis();
+        for (K key : wheel.advance(now)) {
+            Long accessed = accessedAt.get(key);
+            if (accessed == null) {
+                continue;
+            }
+            if (accessed + ttlMillis <= now) {
+                evict(key, accessed, expired);
+            } else {
+                wheel.schedule(key, accessed + ttlMillis);
+            }
+        }
+    }
+
+    private void schedule(K key) {
+        schedule(key, clock.millis());
+    }
+
+    private void schedule(K key, long accessedMillis) {
+        accessedAt.put(key, accessedMillis);
+        wheel.schedule(key, accessedMillis + ttlMillis);
+        while (backend.size() > maxSize) {
+            TimerWheel.Timer<K> timer = wheel.pollEarliest();
+            if (timer == null) {
+                return;
+            }
+            Long accessed = accessedAt.get(timer.key());
+            if (accessed == null) {
+                continue;
+            }
+            if (accessed + ttlMillis > timer.deadlineMillis()) {
+                // Read since it was scheduled: not the oldest after all.
+                wheel.schedule(timer.key(), accessed + ttlMillis);
+                continue;
+            }
+            evict(timer.key(), accessed, overflowed);
+        }
+    }
+
+    private void evict(K key, Long accessed, Counter cause) {
+        if (!accessedAt.remove(key, accessed)) {
+            return;
+        }
+        V value = backend.remove(key);
+        if (value != null) {
+            cause.increment();
+            onEviction.accept(key, value);
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
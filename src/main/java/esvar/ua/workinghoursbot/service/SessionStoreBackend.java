@@ -0,0 +1,25 @@
+package esvar.ua.workinghoursbot.service;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Where a {@link SessionStore} keeps its values. Size bounds, expiry and metrics stay in the store, so a
+ * backend only has to be a thread-safe map.
+ */
+public interface SessionStoreBackend<K, V> {
+
+    V get(K key);
+
+    V computeIfAbsent(K key, Function<? super K, ? extends V> factory);
+
+    void put(K key, V value);
+
+    V remove(K key);
+
+    boolean remove(K key, V value);
+
+    int size();
+
+    void forEach(BiConsumer<? super K, ? super V> action);
+}
@@ -0,0 +1,72 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.config.SessionStoreProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the {@link SessionStore}s of the bot and drives their expiry. Limits come from
+ * {@code bot.session-store.stores.<name>}, falling back to the {@code bot.session-store} defaults.
+ */
+@Component
+public class SessionStores {
+
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+
+    private final SessionStoreProperties properties;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final List<SessionStore<?, ?>> stores = new CopyOnWriteArrayList<>();
+
+    public SessionStores(SessionStoreProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <K, V> SessionStore<K, V> create(String name) {
+        return create(name, (key, value) -> {
+        });
+    }
+
+    public <K, V> SessionStore<K, V> create(String name, BiConsumer<? super K, ? super V> onEviction) {
+        return create(name, new InMemorySessionStoreBackend<>(), onEviction);
+    }
+
+    public <K, V> SessionStore<K, V> create(String name,
+                                            SessionStoreBackend<K, V> backend,
+                                            BiConsumer<? super K, ? super V> onEviction) {
+        SessionStoreProperties.Limits limits = limits(name);
+        int maxSize = limits != null && limits.maxSize() > 0
+                ? limits.maxSize()
+                : properties.maxSize() > 0 ? properties.maxSize() : DEFAULT_MAX_SIZE;
+        Duration ttl = limits != null && isPositive(limits.ttl())
+                ? limits.ttl()
+                : isPositive(properties.ttl()) ? properties.ttl() : DEFAULT_TTL;
+        SessionStore<K, V> store = new SessionStore<>(name, backend, maxSize, ttl, onEviction, clock, meterRegistry);
+        stores.add(store);
+        return store;
+    }
+
+    @Scheduled(fixedDelayString = "${bot.session-store.tick-ms:1000}")
+    public void expire() {
+        stores.forEach(SessionStore::expire);
+    }
+
+    private SessionStoreProperties.Limits limits(String name) {
+        Map<String, SessionStoreProperties.Limits> configured = properties.stores();
+        return configured == null ? null : configured.get(name);
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return duration != null && !duration.isNegative() && !duration.isZero();
+    }
+}
@@ -2,33 +2,40 @@ package esvar.ua.workinghoursbot.service;
 
 import esvar.ua.workinghoursbot.bot.BotResponse;
 import esvar.ua.workinghoursbot.bot.KeyboardFactory;
+import esvar.ua.workinghoursbot.config.JobProperties;
+import esvar.ua.workinghoursbot.domain.AuditEvent;
 import esvar.ua.workinghoursbot.domain.AuditEventType;
 import esvar.ua.workinghoursbot.domain.Location;
-import esvar.ua.workinghoursbot.domain.RegistrationStatus;
-import esvar.ua.workinghoursbot.domain.ScheduleDay;
 import esvar.ua.workinghoursbot.domain.ScheduleStatus;
 import esvar.ua.workinghoursbot.domain.ShiftConfirmation;
 import esvar.ua.workinghoursbot.domain.ShiftConfirmationStatus;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequest;
 import esvar.ua.workinghoursbot.domain.UserAccount;
-import esvar.ua.workinghoursbot.repository.ScheduleDayRepository;
 import esvar.ua.workinghoursbot.repository.ShiftConfirmationRepository;
+import esvar.ua.workinghoursbot.repository.ShiftConfirmationTarget;
 import esvar.ua.workinghoursbot.repository.UserAccountRepository;
+import esvar.ua.workinghoursbot.service.PendingConfirmationIndex.PendingConfirmation;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 
 @Service
@@ -40,154 +47,198 @@ public class ShiftConfirmationService {
     private static final ZoneId KIEV_ZONE = ZoneId.of("Europe/Kiev");
     private static final String BTN_YES = "Так";
     private static final String BTN_NO = "Ні";
+    private static final String AUTO_REJECT_JOB = "shift-auto-reject";
+    private static final UUID FIRST_ID = new UUID(0, 0);
 
     private final ShiftConfirmationRepository confirmationRepository;
-    private final ScheduleDayRepository scheduleDayRepository;
     private final UserAccountRepository userAccountRepository;
     private final SubstitutionService substitutionService;
     private final SubstitutionNotificationService substitutionNotificationService;
     private final TelegramSender telegramSender;
     private final AuditService auditService;
     private final MainMenuService mainMenuService;
+    private final JobProperties jobProperties;
+    private final ChunkedJobRunner chunkedJobRunner;
+    private final PendingConfirmationIndex pendingConfirmationIndex;
+    private final TransactionTemplate transactionTemplate;
     private final Clock clock;
 
+    /**
+     * Asks tomorrow's shifts for confirmation. Eligible shifts come from a single joined query; each chunk
+     * then inserts its confirmations, audit events and outbox messages in one short transaction, and the
+     * outbox relay delivers the questions through the rate-limited bulk lane after commit.
+     */
     @Scheduled(cron = "0 0 12 * * *", zone = "Europe/Kiev")
-    @Transactional
     public void sendDailyConfirmations() {
         LocalDate targetDate = LocalDate.now(clock.withZone(KIEV_ZONE)).plusDays(1);
-        List<ScheduleDay> scheduleDays = scheduleDayRepository.findByDateAndStatus(targetDate, ScheduleStatus.WORK);
-        if (scheduleDays.isEmpty()) {
+        List<ShiftConfirmationTarget> targets =
+                confirmationRepository.findConfirmationTargets(targetDate, ScheduleStatus.WORK);
+        if (targets.isEmpty()) {
             return;
         }
-        Set<String> processed = new HashSet<>();
-        for (ScheduleDay scheduleDay : scheduleDays) {
-            Long telegramUserId = scheduleDay.getTelegramUserId();
-            UUID locationId = scheduleDay.getLocationId();
-            if (telegramUserId == null || locationId == null) {
-                continue;
-            }
-            String key = telegramUserId + ":" + locationId;
-            if (!processed.add(key)) {
-                continue;
-            }
-            if (confirmationRepository.findByTelegramUserIdAndLocationIdAndDate(telegramUserId, locationId, targetDate)
-                    .isPresent()) {
-                continue;
-            }
-            Optional<UserAccount> accountOptional = userAccountRepository.findByTelegramUserId(telegramUserId);
-            if (accountOptional.isEmpty()) {
-                continue;
-            }
-            UserAccount account = accountOptional.get();
-            if (account.getStatus() != RegistrationStatus.APPROVED || account.getLocation() == null) {
-                continue;
+        long startedAt = System.nanoTime();
+        int chunkSize = chunkSize();
+        int asked = 0;
+        for (int from = 0; from < targets.size(); from += chunkSize) {
+            List<ShiftConfirmationTarget> chunk = targets.subList(from, Math.min(from + chunkSize, targets.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> askChunk(chunk, targetDate));
+                asked += chunk.size();
+            } catch (RuntimeException ex) {
+                log.warn("Не вдалося створити запити підтвердження для {} змін на {}", chunk.size(), targetDate, ex);
             }
+        }
+        log.info("Shift confirmations queued for {}: {}/{} in {} ms", targetDate, asked, targets.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    private void askChunk(List<ShiftConfirmationTarget> chunk, LocalDate targetDate) {
+        Instant askedAt = Instant.now(clock);
+        List<ShiftConfirmation> confirmations = new ArrayList<>(chunk.size());
+        Map<String, SendMessage> questions = new LinkedHashMap<>();
+        List<AuditEvent> auditEvents = new ArrayList<>(chunk.size());
+        for (ShiftConfirmationTarget target : chunk) {
             ShiftConfirmation confirmation = new ShiftConfirmation();
-            confirmation.setTelegramUserId(telegramUserId);
-            confirmation.setLocationId(locationId);
+            confirmation.setTelegramUserId(target.telegramUserId());
+            confirmation.setLocationId(target.locationId());
             confirmation.setDate(targetDate);
             confirmation.setStatus(ShiftConfirmationStatus.PENDING);
-            confirmation.setAskedAt(Instant.now(clock));
+            confirmation.setAskedAt(askedAt);
             confirmation.setAutoRejected(false);
-            confirmationRepository.save(confirmation);
+            confirmations.add(confirmation);
 
-            SendMessage message = SendMessage.builder()
-                    .chatId(account.getTelegramChatId().toString())
-                    .text(buildQuestionText(account.getLocation(), targetDate))
-                    .replyMarkup(KeyboardFactory.yesNoKeyboard())
-                    .build();
-            telegramSender.send(message);
+            questions.put("shift-confirm:%d:%s:%s".formatted(target.telegramUserId(), target.locationId(), targetDate),
+                    SendMessage.builder()
+                            .chatId(target.chatId().toString())
+                            .text(buildQuestionText(target.locationName(), targetDate))
+                            .replyMarkup(KeyboardFactory.yesNoKeyboard())
+                            .build());
 
-            auditService.log(
+            auditEvents.add(AuditService.event(
                     AuditEventType.SHIFT_CONFIRM_REQUEST_SENT,
-                    account.getId(),
+                    target.accountId(),
                     null,
-                    locationId,
+                    target.locationId(),
                     "%s %s | Локація: %s".formatted(
                             DATE_FORMAT.format(targetDate),
-                            account.getLastName(),
-                            account.getLocation().getName()
+                            target.lastName(),
+                            target.locationName()
                     )
-            );
+            ));
         }
+        confirmationRepository.saveAll(confirmations);
+        pendingConfirmationIndex.addAfterCommit(confirmations);
+        telegramSender.sendAll(questions);
+        auditService.logAll(auditEvents);
     }
 
+    /**
+     * Rejects confirmations nobody answered. Runs in keyset chunks with a checkpoint per chunk, so a crash
+     * mid-run is resumed on the next start instead of replaying or holding one long transaction.
+     */
     @Scheduled(cron = "0 0 18 * * *", zone = "Europe/Kiev")
-    @Transactional
     public void autoRejectPending() {
-        List<ShiftConfirmation> pending = confirmationRepository.findByStatus(ShiftConfirmationStatus.PENDING);
-        if (pending.isEmpty()) {
-            return;
-        }
-        for (ShiftConfirmation confirmation : pending) {
-            confirmation.setStatus(ShiftConfirmationStatus.NO);
-            confirmation.setAutoRejected(true);
-            confirmation.setRespondedAt(Instant.now(clock));
-            confirmationRepository.save(confirmation);
-            handleNegativeConfirmation(confirmation, true);
+        chunkedJobRunner.run(
+                AUTO_REJECT_JOB,
+                autoRejectRunKey(),
+                chunkSize(),
+                (afterKey, limit) -> confirmationRepository.findByStatusAfter(
+                        ShiftConfirmationStatus.PENDING,
+                        afterKey == null ? FIRST_ID : UUID.fromString(afterKey),
+                        PageRequest.of(0, limit)),
+                confirmation -> confirmation.getId().toString(),
+                this::autoReject
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedAutoReject() {
+        if (chunkedJobRunner.isUnfinished(AUTO_REJECT_JOB, autoRejectRunKey())) {
+            autoRejectPending();
         }
     }
 
+    private void autoReject(ShiftConfirmation confirmation) {
+        confirmation.setStatus(ShiftConfirmationStatus.NO);
+        confirmation.setAutoRejected(true);
+        confirmation.setRespondedAt(Instant.now(clock));
+        confirmationRepository.save(confirmation);
+        PendingConfirmation pending = PendingConfirmation.of(confirmation);
+        pendingConfirmationIndex.removeAfterCommit(pending);
+        handleNegativeConfirmation(pending, true);
+    }
+
+    private String autoRejectRunKey() {
+        return LocalDate.now(clock.withZone(KIEV_ZONE)).toString();
+    }
+
+    private int chunkSize() {
+        return jobProperties.chunkSize() > 0 ? jobProperties.chunkSize() : 200;
+    }
+
+    /**
+     * Resolves a "Так"/"Ні" answer against the pending confirmation index. Users without a pending
+     * confirmation get an empty response, so the same words reach the other handlers.
+     */
     @Transactional
     public BotResponse handleResponse(Long telegramUserId, Long chatId, String text) {
-        if (!BTN_YES.equalsIgnoreCase(text) && !BTN_NO.equalsIgnoreCase(text)) {
+        boolean yes = BTN_YES.equalsIgnoreCase(text);
+        if (!yes && !BTN_NO.equalsIgnoreCase(text)) {
             return BotResponse.empty();
         }
-        Optional<ShiftConfirmation> confirmationOptional = confirmationRepository
-                .findFirstByTelegramUserIdAndStatusOrderByAskedAtDesc(telegramUserId, ShiftConfirmationStatus.PENDING);
-        if (confirmationOptional.isEmpty()) {
-            SendMessage message = SendMessage.builder()
-                    .chatId(chatId.toString())
-                    .text("Немає активного запиту підтвердження.")
-                    .replyMarkup(mainMenuService.mainMenuKeyboard(telegramUserId))
-                    .build();
-            return BotResponse.of(message);
+        Optional<PendingConfirmation> pendingOptional = findPending(telegramUserId);
+        if (pendingOptional.isEmpty()) {
+            return BotResponse.empty();
         }
-        ShiftConfirmation confirmation = confirmationOptional.get();
-        if (BTN_YES.equalsIgnoreCase(text)) {
-            confirmation.setStatus(ShiftConfirmationStatus.YES);
-            confirmation.setRespondedAt(Instant.now(clock));
-            confirmation.setAutoRejected(false);
-            confirmationRepository.save(confirmation);
-            handlePositiveConfirmation(confirmation);
-            SendMessage message = SendMessage.builder()
-                    .chatId(chatId.toString())
-                    .text("Дякуємо за підтвердження ✅")
-                    .replyMarkup(mainMenuService.mainMenuKeyboard(telegramUserId))
-                    .build();
-            return BotResponse.of(message);
+        PendingConfirmation pending = pendingOptional.get();
+        ShiftConfirmationStatus status = yes ? ShiftConfirmationStatus.YES : ShiftConfirmationStatus.NO;
+        boolean resolved = confirmationRepository.resolvePending(pending.id(), status, Instant.now(clock)) > 0;
+        pendingConfirmationIndex.removeAfterCommit(pending);
+        if (!resolved) {
+            return BotResponse.of(buildMessage(chatId, telegramUserId, "Немає активного запиту підтвердження."));
         }
+        if (yes) {
+            handlePositiveConfirmation(pending);
+            return BotResponse.of(buildMessage(chatId, telegramUserId, "Дякуємо за підтвердження ✅"));
+        }
+        handleNegativeConfirmation(pending, false);
+        return BotResponse.of(buildMessage(chatId, telegramUserId, "Прийнято. Запускаємо пошук підміни."));
+    }
 
-        confirmation.setStatus(ShiftConfirmationStatus.NO);
-        confirmation.setRespondedAt(Instant.now(clock));
-        confirmation.setAutoRejected(false);
-        confirmationRepository.save(confirmation);
-        handleNegativeConfirmation(confirmation, false);
-        SendMessage message = SendMessage.builder()
+    private Optional<PendingConfirmation> findPending(Long telegramUserId) {
+        if (pendingConfirmationIndex.isWarm()) {
+            return pendingConfirmationIndex.latest(telegramUserId);
+        }
+        return confirmationRepository
+                .findFirstByTelegramUserIdAndStatusOrderByAskedAtDesc(telegramUserId, ShiftConfirmationStatus.PENDING)
+                .map(PendingConfirmation::of);
+    }
+
+    private SendMessage buildMessage(Long chatId, Long telegramUserId, String text) {
+        return SendMessage.builder()
                 .chatId(chatId.toString())
-                .text("Прийнято. Запускаємо пошук підміни.")
+                .text(text)
                 .replyMarkup(mainMenuService.mainMenuKeyboard(telegramUserId))
                 .build();
-        return BotResponse.of(message);
     }
 
-    private void handlePositiveConfirmation(ShiftConfirmation confirmation) {
-        userAccountRepository.findByTelegramUserId(confirmation.getTelegramUserId())
+    private void handlePositiveConfirmation(PendingConfirmation confirmation) {
+        userAccountRepository.findByTelegramUserId(confirmation.telegramUserId())
                 .ifPresent(account -> auditService.log(
                         AuditEventType.SHIFT_CONFIRM_YES,
                         account.getId(),
                         null,
-                        confirmation.getLocationId(),
+                        confirmation.locationId(),
                         "%s %s | Локація: %s".formatted(
-                                DATE_FORMAT.format(confirmation.getDate()),
+                                DATE_FORMAT.format(confirmation.date()),
                                 account.getLastName(),
                                 account.getLocation() != null ? account.getLocation().getName() : "-"
                         )
                 ));
     }
 
-    private void handleNegativeConfirmation(ShiftConfirmation confirmation, boolean autoRejected) {
-        userAccountRepository.findByTelegramUserId(confirmation.getTelegramUserId())
+    private void handleNegativeConfirmation(PendingConfirmation confirmation, boolean autoRejected) {
+        userAccountRepository.findByTelegramUserId(confirmation.telegramUserId())
                 .ifPresent(account -> {
                     Location location = account.getLocation();
                     String locationName = location == null ? "-" : location.getName();
@@ -195,9 +246,9 @@ public class ShiftConfirmationService {
                             autoRejected ? AuditEventType.SHIFT_CONFIRM_AUTO_NO : AuditEventType.SHIFT_CONFIRM_NO,
                             account.getId(),
                             null,
-                            confirmation.getLocationId(),
+                            confirmation.locationId(),
                             "%s %s | Локація: %s".formatted(
-                                    DATE_FORMAT.format(confirmation.getDate()),
+                                    DATE_FORMAT.format(confirmation.date()),
                                     account.getLastName(),
                                     locationName
                             )
@@ -208,7 +259,7 @@ public class ShiftConfirmationService {
                 });
     }
 
-    private void notifySenior(UserAccount account, ShiftConfirmation confirmation) {
+    private void notifySenior(UserAccount account, PendingConfirmation confirmation) {
         Location location = account.getLocation();
         if (location == null) {
             return;
@@ -222,7 +273,7 @@ public class ShiftConfirmationService {
                             Локація: %s
                             """.formatted(
                             account.getLastName(),
-                            DATE_FORMAT.format(confirmation.getDate()),
+                            DATE_FORMAT.format(confirmation.date()),
                             location.getName()
                     );
                     SendMessage message = SendMessage.builder()
@@ -233,11 +284,11 @@ public class ShiftConfirmationService {
                 });
     }
 
-    private void createSubstitutionRequest(UserAccount account, ShiftConfirmation confirmation, boolean autoRejected) {
+    private void createSubstitutionRequest(UserAccount account, PendingConfirmation confirmation, boolean autoRejected) {
         try {
             SubstitutionRequest request = substitutionService.createRequest(
                     account.getTelegramUserId(),
-                    confirmation.getDate(),
+                    confirmation.date(),
                     false,
                     UUID.randomUUID(),
                     autoRejected ? "не підтвердив" : "не можу"
@@ -247,13 +298,12 @@ public class ShiftConfirmationService {
         } catch (Exception ex) {
             log.warn("Не вдалося створити запит на підміну після підтвердження. userId={}, date={}",
                     account.getTelegramUserId(),
-                    confirmation.getDate(),
+                    confirmation.date(),
                     ex);
         }
     }
 
-    private String buildQuestionText(Location location, LocalDate date) {
-        String locationName = location == null ? "-" : location.getName();
+    private String buildQuestionText(String locationName, LocalDate date) {
         return """
                 ✅ Підтвердження виходу на зміну
                 Дата: %s
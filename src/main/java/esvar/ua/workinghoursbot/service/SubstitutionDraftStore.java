@@ -1,17 +1,19 @@
 package esvar.ua.workinghoursbot.service;
 
 import java.time.LocalDate;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import org.springframework.stereotype.Component;
 
 @Component
 public class SubstitutionDraftStore {
 
-    private final Map<Long, Draft> drafts = new ConcurrentHashMap<>();
+    private final SessionStore<Long, Draft> drafts;
+
+    public SubstitutionDraftStore(SessionStores sessionStores) {
+        this.drafts = sessionStores.create("substitution-drafts");
+    }
 
     public Draft createDraft(Long telegramUserId, LocalDate date, boolean urgent) {
         Draft draft = new Draft(UUID.randomUUID(), date, urgent);
@@ -1,13 +1,14 @@
 package esvar.ua.workinghoursbot.service;
 
 import esvar.ua.workinghoursbot.bot.BotResponse;
+import esvar.ua.workinghoursbot.bot.CallbackRouteContributor;
+import esvar.ua.workinghoursbot.bot.CallbackRouteRegistry;
 import esvar.ua.workinghoursbot.bot.InlineKeyboardFactory;
+import esvar.ua.workinghoursbot.bot.SubstitutionCandidateOfferMessage;
 import esvar.ua.workinghoursbot.domain.Location;
 import esvar.ua.workinghoursbot.domain.RegistrationStatus;
 import esvar.ua.workinghoursbot.domain.Role;
-import esvar.ua.workinghoursbot.domain.SubstitutionCandidateState;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequest;
-import esvar.ua.workinghoursbot.domain.SubstitutionRequestCandidate;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequestScope;
 import esvar.ua.workinghoursbot.domain.UserAccount;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequestStatus;
@@ -18,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -35,7 +37,7 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKe
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
-public class SubstitutionInteractionHandler {
+public class SubstitutionInteractionHandler implements CallbackRouteContributor {
 
     private static final String COMMAND_SUBSTITUTION = "🔁 Підміна";
     private static final String COMMAND_ACTIVE_REQUESTS = "📌 Активні запити на підміни";
@@ -63,8 +65,8 @@ public class SubstitutionInteractionHandler {
     private static final String CB_SENIOR_STAY_WORKING = "SENIOR_SUB_STAY_WORKING:";
     private static final String CB_SENIOR_FIND_AGAIN = "SENIOR_SUB_FIND_AGAIN:";
 
-    private static final String CB_CANDIDATE_ACCEPT = "CAND_SUB_ACCEPT:";
-    private static final String CB_CANDIDATE_DECLINE = "CAND_SUB_DECLINE:";
+    static final String CB_CANDIDATE_ACCEPT = "CAND_SUB_ACCEPT:";
+    static final String CB_CANDIDATE_DECLINE = "CAND_SUB_DECLINE:";
 
     private static final String CB_TM_APPROVE = "TM_SUB_APPROVE:";
     private static final String CB_TM_REJECT = "TM_SUB_REJECT:";
@@ -114,83 +116,52 @@ public class SubstitutionInteractionHandler {
         return BotResponse.of(renderSellerMenu(telegramUserId, chatId, view));
     }
 
-    public BotResponse handleCallback(CallbackQuery callbackQuery) {
-        if (callbackQuery == null || callbackQuery.getFrom() == null) {
-            return BotResponse.empty();
-        }
-        String data = callbackQuery.getData();
-        if (data == null || data.isBlank()) {
-            return BotResponse.empty();
-        }
-
+    @Override
+    public void registerCallbackRoutes(CallbackRouteRegistry routes) {
+        routes.prefix(CB_SUB_CREATE, callbackQuery -> guarded(callbackQuery, this::handleCreateSelection));
+        routes.exact(CB_SUB_CREATE_URGENT, callbackQuery -> guarded(callbackQuery, this::handleUrgentSelection));
+        routes.prefix(CB_SUB_CONFIRM, callbackQuery -> guarded(callbackQuery, this::handleConfirm));
+        routes.exact(CB_SUB_CANCEL, callbackQuery -> guarded(callbackQuery, this::handleCancelDraft));
+        routes.prefix(CB_SUB_PAGE, callbackQuery -> guarded(callbackQuery, this::handleDatePage));
+        routes.prefix(CB_SENIOR_OPEN, callbackQuery -> guarded(callbackQuery, this::handleSeniorOpen));
+        routes.prefix(CB_SENIOR_TAKE, callbackQuery -> guarded(callbackQuery, this::handleSeniorTake));
+        routes.prefix(CB_SENIOR_FIND, callbackQuery -> guarded(callbackQuery, this::handleSeniorFind));
+        routes.prefix(CB_SENIOR_SCOPE, callbackQuery -> guarded(callbackQuery, this::handleSeniorScope));
+        routes.prefix(CB_SENIOR_NOTIFY_ALL, callbackQuery -> guarded(callbackQuery, this::handleNotifyAll));
+        routes.prefix(CB_SENIOR_PICK_LIST, callbackQuery -> guarded(callbackQuery, this::handlePickList));
+        routes.prefix(CB_SENIOR_PICK_PAGE, callbackQuery -> guarded(callbackQuery, this::handlePickPage));
+        routes.prefix(CB_SENIOR_PICK, callbackQuery -> guarded(callbackQuery, this::handlePickCandidate));
+        routes.prefix(CB_SENIOR_REJECT, callbackQuery -> guarded(callbackQuery, this::handleSeniorReject));
+        routes.prefix(CB_SENIOR_REJECT_REASON, callbackQuery -> guarded(callbackQuery, this::handleRejectReason));
+        routes.exact(CB_SENIOR_ACTIVE_LIST, callbackQuery -> guarded(callbackQuery, this::handleSeniorActiveList));
+        routes.prefix(CB_SENIOR_ACTIVE_OPEN, callbackQuery -> guarded(callbackQuery, this::handleSeniorActiveOpen));
+        routes.prefix(CB_SENIOR_ACTIVE_PAGE, callbackQuery -> guarded(callbackQuery, this::handleSeniorActivePage));
+        routes.prefix(CB_SENIOR_TM_REJECT_MENU, callbackQuery -> guarded(callbackQuery, this::handleSeniorTmRejectMenu));
+        routes.prefix(CB_SENIOR_STAY_WORKING, callbackQuery -> guarded(callbackQuery, this::handleSeniorStayWorking));
+        routes.prefix(CB_SENIOR_FIND_AGAIN, callbackQuery -> guarded(callbackQuery, this::handleSeniorFindAgain));
+        routes.prefix(CB_CANDIDATE_ACCEPT, callbackQuery -> guarded(callbackQuery, this::handleCandidateAccept));
+        routes.prefix(CB_CANDIDATE_DECLINE, callbackQuery -> guarded(callbackQuery, this::handleCandidateDecline));
+        routes.prefix(CB_TM_APPROVE, callbackQuery -> guarded(callbackQuery, this::handleTmApprove));
+        routes.prefix(CB_TM_REJECT, callbackQuery -> guarded(callbackQuery, this::handleTmReject));
+        routes.prefix(CB_NAV_BACK, callbackQuery -> guarded(callbackQuery, this::handleNavBack));
+    }
+
+    private BotResponse guarded(CallbackQuery callbackQuery, Function<CallbackQuery, BotResponse> handler) {
         try {
-            BotResponse response = null;
-            if (data.startsWith(CB_SUB_CREATE)) {
-                response = handleCreateSelection(callbackQuery);
-            } else if (CB_SUB_CREATE_URGENT.equals(data)) {
-                response = handleUrgentSelection(callbackQuery);
-            } else if (data.startsWith(CB_SUB_CONFIRM)) {
-                response = handleConfirm(callbackQuery);
-            } else if (CB_SUB_CANCEL.equals(data)) {
-                response = handleCancelDraft(callbackQuery);
-            } else if (data.startsWith(CB_SUB_PAGE)) {
-                response = handleDatePage(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_OPEN)) {
-                response = handleSeniorOpen(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_TAKE)) {
-                response = handleSeniorTake(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_FIND)) {
-                response = handleSeniorFind(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_SCOPE)) {
-                response = handleSeniorScope(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_NOTIFY_ALL)) {
-                response = handleNotifyAll(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_PICK_LIST)) {
-                response = handlePickList(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_PICK_PAGE)) {
-                response = handlePickPage(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_PICK)) {
-                response = handlePickCandidate(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_REJECT)) {
-                response = handleSeniorReject(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_REJECT_REASON)) {
-                response = handleRejectReason(callbackQuery);
-            } else if (CB_SENIOR_ACTIVE_LIST.equals(data)) {
-                response = handleSeniorActiveList(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_ACTIVE_OPEN)) {
-                response = handleSeniorActiveOpen(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_ACTIVE_PAGE)) {
-                response = handleSeniorActivePage(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_TM_REJECT_MENU)) {
-                response = handleSeniorTmRejectMenu(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_STAY_WORKING)) {
-                response = handleSeniorStayWorking(callbackQuery);
-            } else if (data.startsWith(CB_SENIOR_FIND_AGAIN)) {
-                response = handleSeniorFindAgain(callbackQuery);
-            } else if (data.startsWith(CB_CANDIDATE_ACCEPT)) {
-                response = handleCandidateAccept(callbackQuery);
-            } else if (data.startsWith(CB_CANDIDATE_DECLINE)) {
-                response = handleCandidateDecline(callbackQuery);
-            } else if (data.startsWith(CB_TM_APPROVE)) {
-                response = handleTmApprove(callbackQuery);
-            } else if (data.startsWith(CB_TM_REJECT)) {
-                response = handleTmReject(callbackQuery);
-            } else if (data.startsWith(CB_NAV_BACK)) {
-                response = handleNavBack(callbackQuery);
-            }
+            BotResponse response = handler.apply(callbackQuery);
             if (response == null) {
                 return BotResponse.empty();
             }
             return withAnswer(callbackQuery, response);
         } catch (IllegalStateException ex) {
             log.warn("Substitution callback validation failed: data={}, user={}",
-                    data,
+                    callbackQuery.getData(),
                     callbackQuery.getFrom().getId(),
                     ex);
             return BotResponse.of(notificationService.answerCallbackQuery(callbackQuery.getId(), ex.getMessage()));
         } catch (Exception ex) {
             log.error("Substitution callback failed: data={}, user={}",
-                    data,
+                    callbackQuery.getData(),
                     callbackQuery.getFrom().getId(),
                     ex);
             return BotResponse.of(notificationService.answerCallbackQuery(
@@ -371,7 +342,7 @@ public class SubstitutionInteractionHandler {
         UUID requestId = CallbackIdEncoder.decode(parts[0]);
         SubstitutionRequestScope scope = SubstitutionRequestScope.valueOf(parts[1]);
         SubstitutionRequest request = substitutionService.setScope(requestId, scope);
-        List<UserAccount> candidates = substitutionService.findCandidates(requestId, scope, senior);
+        List<AccountSnapshot> candidates = substitutionService.findCandidates(requestId, scope, senior);
         String text = renderCandidatesSummary(request, candidates);
         InlineKeyboardMarkup keyboard = InlineKeyboardFactory.rows(List.of(
                 List.of(
@@ -387,10 +358,10 @@ public class SubstitutionInteractionHandler {
         UUID requestId = CallbackIdEncoder.decode(callbackQuery.getData().substring(CB_SENIOR_NOTIFY_ALL.length()));
         UserAccount senior = requireSenior(callbackQuery);
         SubstitutionRequest request = substitutionService.getRequest(requestId);
-        List<UserAccount> candidates = substitutionService.notifyAllCandidates(requestId, request.getScope(), senior);
-        List<BotApiMethod<?>> actions = new ArrayList<>();
+        List<SubstitutionCandidateOfferMessage> offers = substitutionService.notifyAllCandidates(requestId, request.getScope(), senior);
+        List<BotApiMethod<?>> actions = new ArrayList<>(offers.size() + 1);
         actions.add(editMessage(callbackQuery.getMessage(), "📣 Пропозицію надіслано кандидатам.", null));
-        actions.addAll(buildCandidateOffers(request, candidates));
+        actions.addAll(offers);
         return new BotResponse(actions);
     }
 
@@ -398,7 +369,7 @@ public class SubstitutionInteractionHandler {
         UUID requestId = CallbackIdEncoder.decode(callbackQuery.getData().substring(CB_SENIOR_PICK_LIST.length()));
         UserAccount senior = requireSenior(callbackQuery);
         SubstitutionRequest request = substitutionService.getRequest(requestId);
-        List<UserAccount> candidates = substitutionService.findCandidates(requestId, request.getScope(), senior);
+        List<AccountSnapshot> candidates = substitutionService.findCandidates(requestId, request.getScope(), senior);
         InlineKeyboardMarkup keyboard = buildCandidatePickKeyboard(requestId, candidates, 0);
         String text = renderCandidatesSummary(request, candidates);
         return BotResponse.of(editMessage(callbackQuery.getMessage(), text, keyboard));
@@ -413,7 +384,7 @@ public class SubstitutionInteractionHandler {
         int page = Integer.parseInt(parts[1]);
         UserAccount senior = requireSenior(callbackQuery);
         SubstitutionRequest request = substitutionService.getRequest(requestId);
-        List<UserAccount> candidates = substitutionService.findCandidates(requestId, request.getScope(), senior);
+        List<AccountSnapshot> candidates = substitutionService.findCandidates(requestId, request.getScope(), senior);
         InlineKeyboardMarkup keyboard = buildCandidatePickKeyboard(requestId, candidates, page);
         String text = renderCandidatesSummary(request, candidates);
         return BotResponse.of(editMessage(callbackQuery.getMessage(), text, keyboard));
@@ -428,11 +399,11 @@ public class SubstitutionInteractionHandler {
         UUID requestId = CallbackIdEncoder.decode(parts[0]);
         UUID candidateId = CallbackIdEncoder.decode(parts[1]);
         SubstitutionRequest request = substitutionService.getRequest(requestId);
-        UserAccount candidate = substitutionService.notifySingleCandidate(requestId, candidateId, request.getScope(), senior);
+        SubstitutionCandidateOfferMessage offer = substitutionService.notifySingleCandidate(requestId, candidateId, request.getScope(), senior);
 
         List<BotApiMethod<?>> actions = new ArrayList<>();
         actions.add(editMessage(callbackQuery.getMessage(), "✅ Пропозицію надіслано кандидату.", null));
-        actions.addAll(buildCandidateOffers(request, List.of(candidate)));
+        actions.add(offer);
         return new BotResponse(actions);
     }
 
@@ -530,7 +501,6 @@ public class SubstitutionInteractionHandler {
         List<BotApiMethod<?>> actions = new ArrayList<>();
         actions.add(editMessage(callbackQuery.getMessage(), "✅ Підміну підтверджено. Запит закрито.", null));
         actions.addAll(notifyRequesterAndSeniors(request));
-        actions.addAll(notifyOtherCandidates(request));
         return new BotResponse(actions);
     }
 
@@ -705,7 +675,7 @@ public class SubstitutionInteractionHandler {
         ));
     }
 
-    private InlineKeyboardMarkup buildCandidatePickKeyboard(UUID requestId, List<UserAccount> candidates, int page) {
+    private InlineKeyboardMarkup buildCandidatePickKeyboard(UUID requestId, List<AccountSnapshot> candidates, int page) {
         List<List<InlineKeyboardButton>> rows = new ArrayList<>();
         if (!candidates.isEmpty()) {
             int totalPages = Math.max(1, (int) Math.ceil(candidates.size() / (double) CANDIDATE_PAGE_SIZE));
@@ -713,10 +683,10 @@ public class SubstitutionInteractionHandler {
             int start = safePage * CANDIDATE_PAGE_SIZE;
             int end = Math.min(candidates.size(), start + CANDIDATE_PAGE_SIZE);
             List<InlineKeyboardButton> row = new ArrayList<>();
-            for (UserAccount candidate : candidates.subList(start, end)) {
+            for (AccountSnapshot candidate : candidates.subList(start, end)) {
                 row.add(InlineKeyboardFactory.button(
-                        candidate.getLastName(),
-                        CB_SENIOR_PICK + CallbackIdEncoder.encode(requestId) + ":" + CallbackIdEncoder.encode(candidate.getId())
+                        candidate.lastName(),
+                        CB_SENIOR_PICK + CallbackIdEncoder.encode(requestId) + ":" + CallbackIdEncoder.encode(candidate.id())
                 ));
                 if (row.size() == 2) {
                     rows.add(row);
@@ -747,7 +717,7 @@ public class SubstitutionInteractionHandler {
         return InlineKeyboardFactory.rows(rows);
     }
 
-    private String renderCandidatesSummary(SubstitutionRequest request, List<UserAccount> candidates) {
+    private String renderCandidatesSummary(SubstitutionRequest request, List<AccountSnapshot> candidates) {
         StringBuilder builder = new StringBuilder();
         builder.append("🔎 Знайдено вільних на ")
                 .append(DATE_FORMAT.format(request.getRequestDate()))
@@ -755,38 +725,13 @@ public class SubstitutionInteractionHandler {
                 .append(candidates.size());
         if (!candidates.isEmpty()) {
             int index = 1;
-            for (UserAccount candidate : candidates) {
-                builder.append("\n").append(index++).append(") ").append(candidate.getLastName());
+            for (AccountSnapshot candidate : candidates) {
+                builder.append("\n").append(index++).append(") ").append(candidate.lastName());
             }
         }
         return builder.toString();
     }
 
-    private List<BotApiMethod<?>> buildCandidateOffers(SubstitutionRequest request, List<UserAccount> candidates) {
-        List<BotApiMethod<?>> actions = new ArrayList<>();
-        InlineKeyboardMarkup keyboard = InlineKeyboardFactory.rows(List.of(
-                List.of(
-                        InlineKeyboardFactory.button("✅ Так, можу", CB_CANDIDATE_ACCEPT + CallbackIdEncoder.encode(request.getId())),
-                        InlineKeyboardFactory.button("❌ Ні", CB_CANDIDATE_DECLINE + CallbackIdEncoder.encode(request.getId()))
-                )
-        ));
-        for (UserAccount candidate : candidates) {
-            String text = """
-                    🔁 Пропозиція підміни
-                    📍 Локація: %s
-                    📅 Дата: %s
-                    Чи готові ви вийти?
-                    """.formatted(request.getLocation().getName(), DATE_FORMAT.format(request.getRequestDate()));
-            actions.add(notificationService.candidateOfferMessage(
-                    request.getId(),
-                    candidate.getTelegramChatId(),
-                    text,
-                    keyboard
-            ));
-        }
-        return actions;
-    }
-
     List<BotApiMethod<?>> notifyTmApproval(SubstitutionRequest request) {
         List<BotApiMethod<?>> actions = new ArrayList<>();
         UserAccount tmUser = null;
@@ -879,23 +824,6 @@ public class SubstitutionInteractionHandler {
 
     private List<BotApiMethod<?>> notifyCancellation(SubstitutionRequest request) {
         List<BotApiMethod<?>> actions = new ArrayList<>();
-        List<SubstitutionRequestCandidate> notified = substitutionService.findNotifiedCandidates(request.getId());
-        for (SubstitutionRequestCandidate candidate : notified) {
-            Long chatId = candidate.getNotifiedChatId();
-            if (chatId == null) {
-                continue;
-            }
-            if (candidate.getNotifiedMessageId() != null) {
-                actions.add(notificationService.editMessage(
-                        chatId,
-                        candidate.getNotifiedMessageId().intValue(),
-                        "❌ Підміна скасована.",
-                        null
-                ));
-            } else {
-                actions.add(notificationService.sendMessage(chatId, "❌ Підміна скасована.", null));
-            }
-        }
         actions.add(notificationService.sendMessage(
                 request.getRequester().getTelegramChatId(),
                 "⚠️ Підміну скасовано. Ви працюєте за графіком.",
@@ -904,37 +832,6 @@ public class SubstitutionInteractionHandler {
         return actions;
     }
 
-    private List<BotApiMethod<?>> notifyOtherCandidates(SubstitutionRequest request) {
-        List<SubstitutionRequestCandidate> candidates = substitutionService.findExpiredCandidates(request.getId());
-        return notifyOtherCandidates(candidates);
-    }
-
-    private List<BotApiMethod<?>> notifyOtherCandidates(List<SubstitutionRequestCandidate> candidates) {
-        List<BotApiMethod<?>> actions = new ArrayList<>();
-        for (SubstitutionRequestCandidate candidate : candidates) {
-            if (candidate.getState() != SubstitutionCandidateState.EXPIRED
-                    && candidate.getState() != SubstitutionCandidateState.DECLINED) {
-                continue;
-            }
-            Long chatId = candidate.getNotifiedChatId();
-            if (chatId == null) {
-                continue;
-            }
-            if (candidate.getNotifiedMessageId() != null) {
-                actions.add(notificationService.editMessage(
-                        chatId,
-                        candidate.getNotifiedMessageId().intValue(),
-                        "✅ Підміну вже взяли, дякуємо.",
-                        null
-                ));
-            } else {
-                actions.add(notificationService.sendMessage(chatId, "✅ Підміну вже взяли, дякуємо.", null));
-            }
-        }
-        return actions;
-    }
-
-
     private EditMessageText editMessage(Message message, String text, InlineKeyboardMarkup keyboard) {
         return notificationService.editMessage(message.getChatId(), message.getMessageId(), text, keyboard);
     }
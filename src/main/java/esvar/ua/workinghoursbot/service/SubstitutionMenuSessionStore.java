@@ -1,18 +1,20 @@
 package esvar.ua.workinghoursbot.service;
 
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import org.springframework.stereotype.Component;
 
 @Component
 public class SubstitutionMenuSessionStore {
 
-    private final Map<Long, MenuSession> sessions = new ConcurrentHashMap<>();
+    private final SessionStore<Long, MenuSession> sessions;
+
+    public SubstitutionMenuSessionStore(SessionStores sessionStores) {
+        this.sessions = sessionStores.create("substitution-menus");
+    }
 
     public Optional<MenuSession> findSession(Long telegramUserId) {
-        return Optional.ofNullable(sessions.get(telegramUserId));
+        return sessions.find(telegramUserId);
     }
 
     public void updateSession(Long telegramUserId, Long chatId, Integer messageId) {
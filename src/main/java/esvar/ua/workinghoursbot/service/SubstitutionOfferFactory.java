@@ -0,0 +1,48 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.bot.InlineKeyboardFactory;
+import esvar.ua.workinghoursbot.bot.SubstitutionCandidateOfferMessage;
+import esvar.ua.workinghoursbot.domain.SubstitutionRequest;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+
+/**
+ * Builds the "can you take the shift?" offers sent to substitution candidates. Text and keyboard depend only
+ * on the request, so they are built once and shared by every offer of a fan-out.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubstitutionOfferFactory {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final TelegramNotificationService notificationService;
+
+    public List<SubstitutionCandidateOfferMessage> offers(SubstitutionRequest request,
+                                                          Collection<AccountSnapshot> candidates) {
+        String text = """
+                🔁 Пропозиція підміни
+                📍 Локація: %s
+                📅 Дата: %s
+                Чи готові ви вийти?
+                """.formatted(request.getLocation().getName(), DATE_FORMAT.format(request.getRequestDate()));
+        InlineKeyboardMarkup keyboard = InlineKeyboardFactory.rows(List.of(
+                List.of(
+                        InlineKeyboardFactory.button("✅ Так, можу",
+                                SubstitutionInteractionHandler.CB_CANDIDATE_ACCEPT + CallbackIdEncoder.encode(request.getId())),
+                        InlineKeyboardFactory.button("❌ Ні",
+                                SubstitutionInteractionHandler.CB_CANDIDATE_DECLINE + CallbackIdEncoder.encode(request.getId()))
+                )
+        ));
+        List<SubstitutionCandidateOfferMessage> offers = new ArrayList<>(candidates.size());
+        for (AccountSnapshot candidate : candidates) {
+            offers.add(notificationService.candidateOfferMessage(request.getId(), candidate.chatId(), text, keyboard));
+        }
+        return offers;
+    }
+}
@@ -1,5 +1,6 @@
 package esvar.ua.workinghoursbot.service;
 
+import esvar.ua.workinghoursbot.bot.SubstitutionCandidateOfferMessage;
 import esvar.ua.workinghoursbot.domain.AuditEventType;
 import esvar.ua.workinghoursbot.domain.Location;
 import esvar.ua.workinghoursbot.domain.RegistrationStatus;
@@ -11,6 +12,7 @@ import esvar.ua.workinghoursbot.domain.SubstitutionRequestCandidate;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequestScope;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequestStatus;
 import esvar.ua.workinghoursbot.domain.UserAccount;
+import esvar.ua.workinghoursbot.repository.OfferMessageRef;
 import esvar.ua.workinghoursbot.repository.ScheduleDayRepository;
 import esvar.ua.workinghoursbot.repository.SubstitutionRequestCandidateRepository;
 import esvar.ua.workinghoursbot.repository.SubstitutionRequestRepository;
@@ -19,18 +21,17 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.CannotAcquireLockException;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,12 +40,17 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class SubstitutionService {
 
-    private static final Set<Role> CANDIDATE_ROLES = EnumSet.of(Role.SELLER, Role.SENIOR_SELLER);
     private static final Set<SubstitutionRequestStatus> ACTIVE_STATUSES = EnumSet.of(
             SubstitutionRequestStatus.NEW,
             SubstitutionRequestStatus.IN_PROGRESS,
             SubstitutionRequestStatus.WAITING_TM_APPROVAL
     );
+    private static final Set<SubstitutionRequestStatus> OPEN_FOR_OFFERS = EnumSet.of(
+            SubstitutionRequestStatus.NEW,
+            SubstitutionRequestStatus.IN_PROGRESS
+    );
+    private static final String OFFER_TAKEN_NOTICE = "✅ Підміну вже взяли, дякуємо.";
+    private static final String OFFER_CANCELLED_NOTICE = "❌ Підміна скасована.";
     private static final java.time.format.DateTimeFormatter DATE_FORMAT = java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
     private final SubstitutionRequestRepository substitutionRequestRepository;
@@ -53,6 +59,10 @@ public class SubstitutionService {
     private final ScheduleDayRepository scheduleDayRepository;
     private final SchedulePersistenceService schedulePersistenceService;
     private final AuditService auditService;
+    private final CandidatePoolService candidatePoolService;
+    private final SubstitutionOfferFactory offerFactory;
+    private final OfferAcceptanceGate acceptanceGate;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<LocalDate> getPlannedWorkDates(Long telegramUserId) {
@@ -67,20 +77,17 @@ public class SubstitutionService {
         }
         YearMonth current = YearMonth.now();
         YearMonth next = current.plusMonths(1);
-        Set<LocalDate> currentDates = schedulePersistenceService.loadMonth(
+        List<LocalDate> combined = new ArrayList<>(schedulePersistenceService.loadMonth(
                 telegramUserId,
                 location.getId(),
                 current
-        );
-        Set<LocalDate> nextDates = schedulePersistenceService.loadMonth(
+        ).toDates());
+        combined.addAll(schedulePersistenceService.loadMonth(
                 telegramUserId,
                 location.getId(),
                 next
-        );
-        List<LocalDate> combined = new ArrayList<>();
-        combined.addAll(currentDates);
-        combined.addAll(nextDates);
-        return combined.stream().distinct().sorted().toList();
+        ).toDates());
+        return List.copyOf(combined);
     }
 
     @Transactional(readOnly = true)
@@ -178,8 +185,9 @@ public class SubstitutionService {
         request.setResolvedByUser(senior);
         request.setResolvedAt(Instant.now());
         SubstitutionRequest saved = substitutionRequestRepository.save(request);
+        acceptanceGate.releaseAfterCommit(requestId);
 
-        markOtherCandidatesExpired(request.getId());
+        expireOutstandingOffers(request.getId(), OFFER_CANCELLED_NOTICE);
 
         log.info("Request rejected by senior. requestId={}, seniorId={}, reason={}", requestId, senior.getId(), reason);
         return saved;
@@ -211,145 +219,109 @@ public class SubstitutionService {
     }
 
     @Transactional(readOnly = true)
-    public List<UserAccount> findCandidates(UUID requestId, SubstitutionRequestScope scope, UserAccount senior) {
+    public List<AccountSnapshot> findCandidates(UUID requestId, SubstitutionRequestScope scope, UserAccount senior) {
         SubstitutionRequest request = substitutionRequestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalStateException("Запит не знайдено."));
-        List<UserAccount> pool;
-        if (scope == SubstitutionRequestScope.LOCATION) {
-            pool = userAccountRepository.findByStatusAndRoleInAndLocation_Id(
-                    RegistrationStatus.APPROVED,
-                    List.copyOf(CANDIDATE_ROLES),
-                    request.getLocation().getId()
-            );
-        } else if (scope == SubstitutionRequestScope.TM) {
-            Optional<UserAccount> tmOptional = userAccountRepository.findActiveTmByManagedLocation(
-                    request.getLocation().getId()
-            );
-            if (tmOptional.isEmpty()) {
-                pool = userAccountRepository.findByStatusAndRoleInAndLocation_Id(
-                        RegistrationStatus.APPROVED,
-                        List.copyOf(CANDIDATE_ROLES),
-                        request.getLocation().getId()
-                );
-            } else {
-                pool = userAccountRepository.findByStatusAndRoleInAndLocationManagedByTm(
-                        RegistrationStatus.APPROVED,
-                        List.copyOf(CANDIDATE_ROLES),
-                        tmOptional.get().getId()
-                );
-            }
-        } else {
-            pool = userAccountRepository.findByStatusAndRoleIn(
-                    RegistrationStatus.APPROVED,
-                    List.copyOf(CANDIDATE_ROLES)
-            );
-        }
-
-        LocalDate requestDate = request.getRequestDate();
-        UUID requesterId = request.getRequester().getId();
-        return pool.stream()
-                .filter(user -> !user.getId().equals(requesterId))
-                .filter(user -> !isWorking(user.getTelegramUserId(), requestDate))
-                .sorted(Comparator.comparing(UserAccount::getLastName, String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toList());
+        return candidatePoolService.findFree(
+                scope,
+                request.getLocation().getId(),
+                request.getRequestDate(),
+                request.getRequester().getId()
+        );
     }
 
     @Transactional
-    public List<UserAccount> notifyAllCandidates(UUID requestId, SubstitutionRequestScope scope, UserAccount senior) {
+    public List<SubstitutionCandidateOfferMessage> notifyAllCandidates(UUID requestId,
+                                                                       SubstitutionRequestScope scope,
+                                                                       UserAccount senior) {
         SubstitutionRequest request = substitutionRequestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalStateException("Запит не знайдено."));
         if (request.getStatus() != SubstitutionRequestStatus.IN_PROGRESS) {
             throw new IllegalStateException("Запит не в роботі.");
         }
-        List<UserAccount> candidates = findCandidates(requestId, scope, senior);
-        candidates.forEach(candidate -> upsertCandidate(request, candidate, SubstitutionCandidateState.NOTIFIED));
+        List<AccountSnapshot> candidates = findCandidates(requestId, scope, senior);
+        upsertCandidates(request, candidates, SubstitutionCandidateState.NOTIFIED);
         log.info("Notified all candidates. requestId={}, count={}", requestId, candidates.size());
-        return candidates;
+        return offerFactory.offers(request, candidates);
     }
 
     @Transactional
-    public UserAccount notifySingleCandidate(UUID requestId,
-                                             UUID candidateId,
-                                             SubstitutionRequestScope scope,
-                                             UserAccount senior) {
-        List<UserAccount> candidates = findCandidates(requestId, scope, senior);
+    public SubstitutionCandidateOfferMessage notifySingleCandidate(UUID requestId,
+                                                                   UUID candidateId,
+                                                                   SubstitutionRequestScope scope,
+                                                                   UserAccount senior) {
+        List<AccountSnapshot> candidates = findCandidates(requestId, scope, senior);
         SubstitutionRequest request = substitutionRequestRepository.findById(requestId)
                 .orElseThrow(() -> new IllegalStateException("Запит не знайдено."));
         if (request.getStatus() != SubstitutionRequestStatus.IN_PROGRESS) {
             throw new IllegalStateException("Запит не в роботі.");
         }
-        UserAccount candidate = candidates.stream()
-                .filter(user -> user.getId().equals(candidateId))
+        AccountSnapshot candidate = candidates.stream()
+                .filter(user -> user.id().equals(candidateId))
                 .findFirst()
                 .orElseThrow(() -> new IllegalStateException("Кандидат недоступний."));
-        upsertCandidate(request, candidate, SubstitutionCandidateState.NOTIFIED);
+        upsertCandidates(request, List.of(candidate), SubstitutionCandidateState.NOTIFIED);
         log.info("Notified single candidate. requestId={}, candidateId={}", requestId, candidateId);
-        return candidate;
+        return offerFactory.offers(request, List.of(candidate)).get(0);
     }
 
+    /**
+     * First writer wins: the in-process gate turns away concurrent taps on the same request without touching
+     * the database, and the conditional update decides between processes or after a restart.
+     */
     @Transactional
     public AcceptOfferResult acceptOffer(UUID requestId, Long candidateTelegramUserId) {
-        UserAccount candidate = userAccountRepository.findByTelegramUserId(candidateTelegramUserId)
-                .orElseThrow(() -> new IllegalStateException("Користувача не знайдено."));
-
-        for (int attempt = 0; attempt < 2; attempt++) {
-            try {
-                SubstitutionRequest request = substitutionRequestRepository.findWithLockById(requestId)
-                        .orElseThrow(() -> new IllegalStateException("Запит не знайдено."));
-
-                if (request.getStatus() == SubstitutionRequestStatus.APPROVED) {
-                    return AcceptOfferResult.alreadyApproved(request, candidate);
-                }
-                if (request.getStatus() == SubstitutionRequestStatus.REJECTED
-                        || request.getStatus() == SubstitutionRequestStatus.WAITING_TM_APPROVAL
-                        || request.getStatus() == SubstitutionRequestStatus.CANCELLED) {
-                    return AcceptOfferResult.closed(request, candidate);
-                }
-
-                request.setStatus(SubstitutionRequestStatus.WAITING_TM_APPROVAL);
-                request.setProposedReplacementUser(candidate);
-                substitutionRequestRepository.save(request);
-
-                SubstitutionRequestCandidate candidateEntry = candidateRepository
-                        .findByRequest_IdAndCandidate_Id(requestId, candidate.getId())
-                        .orElseGet(() -> {
-                            SubstitutionRequestCandidate entry = new SubstitutionRequestCandidate();
-                            entry.setRequest(request);
-                            entry.setCandidate(candidate);
-                            entry.setState(SubstitutionCandidateState.NOTIFIED);
-                            return entry;
-                        });
-                candidateEntry.setState(SubstitutionCandidateState.ACCEPTED);
-                candidateEntry.setNotifiedChatId(candidate.getTelegramChatId());
-                candidateRepository.save(candidateEntry);
-
-                log.info("Offer accepted. requestId={}, candidateId={}", requestId, candidate.getId());
-                auditService.log(
-                        AuditEventType.SWAP_CANDIDATE_SELECTED,
-                        candidate.getId(),
-                        request.getRequester().getId(),
-                        request.getLocation().getId(),
-                        "%s %s | Локація: %s | Кандидат: %s".formatted(
-                                DATE_FORMAT.format(request.getRequestDate()),
-                                request.getRequester().getLastName(),
-                                request.getLocation().getName(),
-                                candidate.getLastName()
-                        )
-                );
-                return AcceptOfferResult.approved(request, candidate, List.of());
-            } catch (OptimisticLockingFailureException | CannotAcquireLockException ex) {
-                log.warn("Lock conflict on accept offer. requestId={}, candidateId={}, attempt={}",
-                        requestId, candidate.getId(), attempt + 1);
-                if (attempt == 1) {
-                    SubstitutionRequest request = substitutionRequestRepository.findById(requestId)
-                            .orElseThrow(() -> new IllegalStateException("Запит не знайдено."));
-                    return AcceptOfferResult.alreadyApproved(request, candidate);
-                }
+        if (!acceptanceGate.tryClaim(requestId, candidateTelegramUserId)) {
+            return AcceptOfferResult.taken();
+        }
+        boolean won = false;
+        try {
+            UserAccount candidate = userAccountRepository.findByTelegramUserId(candidateTelegramUserId)
+                    .orElseThrow(() -> new IllegalStateException("Користувача не знайдено."));
+            int claimed = substitutionRequestRepository.claimReplacement(
+                    requestId,
+                    candidate,
+                    SubstitutionRequestStatus.WAITING_TM_APPROVAL,
+                    OPEN_FOR_OFFERS
+            );
+            SubstitutionRequest request = substitutionRequestRepository.findById(requestId)
+                    .orElseThrow(() -> new IllegalStateException("Запит не знайдено."));
+            if (claimed == 0) {
+                return request.getStatus() == SubstitutionRequestStatus.APPROVED
+                        ? AcceptOfferResult.alreadyApproved(request, candidate)
+                        : AcceptOfferResult.closed(request, candidate);
             }
+            won = true;
+
+            SubstitutionRequestCandidate candidateEntry = candidateRepository
+                    .findByRequest_IdAndCandidate_Id(requestId, candidate.getId())
+                    .orElseGet(() -> {
+                        SubstitutionRequestCandidate entry = new SubstitutionRequestCandidate();
+                        entry.setRequest(request);
+                        entry.setCandidate(candidate);
+                        return entry;
+                    });
+            candidateEntry.setState(SubstitutionCandidateState.ACCEPTED);
+            candidateEntry.setNotifiedChatId(candidate.getTelegramChatId());
+            candidateRepository.save(candidateEntry);
+
+            log.info("Offer accepted. requestId={}, candidateId={}", requestId, candidate.getId());
+            auditService.log(
+                    AuditEventType.SWAP_CANDIDATE_SELECTED,
+                    candidate.getId(),
+                    request.getRequester().getId(),
+                    request.getLocation().getId(),
+                    "%s %s | Локація: %s | Кандидат: %s".formatted(
+                            DATE_FORMAT.format(request.getRequestDate()),
+                            request.getRequester().getLastName(),
+                            request.getLocation().getName(),
+                            candidate.getLastName()
+                    )
+            );
+            return AcceptOfferResult.approved(request, candidate, List.of());
+        } finally {
+            acceptanceGate.settle(requestId, won);
         }
-        SubstitutionRequest request = substitutionRequestRepository.findById(requestId)
-                .orElseThrow(() -> new IllegalStateException("Запит не знайдено."));
-        return AcceptOfferResult.alreadyApproved(request, candidate);
     }
 
     @Transactional(readOnly = true)
@@ -436,6 +408,7 @@ public class SubstitutionService {
         request.setTmDecision("APPROVE");
         request.setTmDecidedAt(Instant.now());
         SubstitutionRequest saved = substitutionRequestRepository.save(request);
+        acceptanceGate.releaseAfterCommit(requestId);
 
         schedulePersistenceService.applyReplacement(
                 request.getRequester().getTelegramUserId(),
@@ -444,7 +417,7 @@ public class SubstitutionService {
                 request.getRequestDate()
         );
 
-        markOtherCandidatesExpired(requestId);
+        expireOutstandingOffers(requestId, OFFER_TAKEN_NOTICE);
 
         log.info("Request approved by TM. requestId={}, tmId={}", requestId, tmUser.getId());
         auditService.log(
@@ -476,6 +449,7 @@ public class SubstitutionService {
         request.setTmDecidedAt(Instant.now());
         request.setProposedReplacementUser(null);
         SubstitutionRequest saved = substitutionRequestRepository.save(request);
+        acceptanceGate.releaseAfterCommit(requestId);
         log.info("Request rejected by TM. requestId={}, tmId={}", requestId, tmUser.getId());
         auditService.log(
                 AuditEventType.SWAP_TM_REJECTED,
@@ -505,7 +479,8 @@ public class SubstitutionService {
         request.setResolvedAt(Instant.now());
         request.setProposedReplacementUser(null);
         SubstitutionRequest saved = substitutionRequestRepository.save(request);
-        markOtherCandidatesExpired(requestId);
+        expireOutstandingOffers(requestId, OFFER_CANCELLED_NOTICE);
+        acceptanceGate.releaseAfterCommit(requestId);
         auditService.log(
                 AuditEventType.SWAP_CANCELLED,
                 senior.getId(),
@@ -644,47 +619,52 @@ public class SubstitutionService {
         return userAccountRepository.findActiveTmByManagedLocation(location.getId());
     }
 
-    @Transactional(readOnly = true)
-    public List<SubstitutionRequestCandidate> findNotifiedCandidates(UUID requestId) {
-        return candidateRepository.findByRequest_IdAndState(requestId, SubstitutionCandidateState.NOTIFIED);
-    }
-
-    @Transactional(readOnly = true)
-    public List<SubstitutionRequestCandidate> findExpiredCandidates(UUID requestId) {
-        return candidateRepository.findByRequest_IdAndStateIn(
-                requestId,
-                List.of(SubstitutionCandidateState.EXPIRED, SubstitutionCandidateState.DECLINED)
-        );
-    }
-
-    private void upsertCandidate(SubstitutionRequest request, UserAccount candidate, SubstitutionCandidateState state) {
-        SubstitutionRequestCandidate entry = candidateRepository.findByRequest_IdAndCandidate_Id(
-                request.getId(),
-                candidate.getId()
-        ).orElseGet(() -> {
-            SubstitutionRequestCandidate candidateEntry = new SubstitutionRequestCandidate();
-            candidateEntry.setRequest(request);
-            candidateEntry.setCandidate(candidate);
-            return candidateEntry;
-        });
-        entry.setState(state);
-        entry.setNotifiedChatId(candidate.getTelegramChatId());
-        candidateRepository.save(entry);
+    /**
+     * One query for the rows the request already has, then a single {@code saveAll}: new rows go out as one
+     * JDBC batch instead of a lookup and an insert per candidate.
+     */
+    private void upsertCandidates(SubstitutionRequest request,
+                                  List<AccountSnapshot> candidates,
+                                  SubstitutionCandidateState state) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Map<UUID, SubstitutionRequestCandidate> existing = new HashMap<>();
+        for (SubstitutionRequestCandidate entry : candidateRepository.findByRequest_Id(request.getId())) {
+            existing.put(entry.getCandidate().getId(), entry);
+        }
+        List<SubstitutionRequestCandidate> entries = new ArrayList<>(candidates.size());
+        for (AccountSnapshot candidate : candidates) {
+            SubstitutionRequestCandidate entry = existing.get(candidate.id());
+            if (entry == null) {
+                entry = new SubstitutionRequestCandidate();
+                entry.setRequest(request);
+                entry.setCandidate(userAccountRepository.getReferenceById(candidate.id()));
+            }
+            entry.setState(state);
+            entry.setNotifiedChatId(candidate.chatId());
+            entries.add(entry);
+        }
+        candidateRepository.saveAll(entries);
     }
 
-    private List<SubstitutionRequestCandidate> markOtherCandidatesExpired(UUID requestId) {
-        List<SubstitutionRequestCandidate> notified = candidateRepository.findByRequest_IdAndState(
+    /**
+     * One UPDATE moves every outstanding offer to EXPIRED; their messages are replaced by {@code notice} in one
+     * batch after commit by {@link CandidateOfferExpiryRelay}.
+     */
+    private void expireOutstandingOffers(UUID requestId, String notice) {
+        List<OfferMessageRef> offers = candidateRepository.findOfferMessages(requestId, SubstitutionCandidateState.NOTIFIED);
+        int expired = candidateRepository.transitionState(
                 requestId,
-                SubstitutionCandidateState.NOTIFIED
+                SubstitutionCandidateState.NOTIFIED,
+                SubstitutionCandidateState.EXPIRED,
+                Instant.now()
         );
-        if (notified.isEmpty()) {
-            return List.of();
-        }
-        for (SubstitutionRequestCandidate candidate : notified) {
-            candidate.setState(SubstitutionCandidateState.EXPIRED);
+        if (expired == 0) {
+            return;
         }
-        candidateRepository.saveAll(notified);
-        return notified;
+        log.info("Expired outstanding offers. requestId={}, count={}", requestId, expired);
+        eventPublisher.publishEvent(new CandidateOffersExpiredEvent(requestId, offers, notice));
     }
 
     @Getter
@@ -718,6 +698,13 @@ public class SubstitutionService {
             return new AcceptOfferResult(request, candidate, List.of(), Status.CLOSED);
         }
 
+        /**
+         * Another candidate holds the request; nothing was loaded to answer this one.
+         */
+        public static AcceptOfferResult taken() {
+            return new AcceptOfferResult(null, null, List.of(), Status.CLOSED);
+        }
+
         public enum Status {
             WAITING_TM_APPROVAL,
             ALREADY_APPROVED,
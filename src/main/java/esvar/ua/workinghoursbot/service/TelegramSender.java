@@ -1,48 +1,44 @@
 package esvar.ua.workinghoursbot.service;
 
-import esvar.ua.workinghoursbot.bot.WorkingHoursTelegramBot;
+import java.util.Map;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class TelegramSender {
 
-    private final ObjectProvider<WorkingHoursTelegramBot> telegramBotProvider;
+    private final OutboxService outboxService;
 
     public void send(SendMessage message) {
-        if (message == null) {
-            return;
-        }
-        WorkingHoursTelegramBot telegramBot = telegramBotProvider.getIfAvailable();
-        if (telegramBot == null) {
-            return;
-        }
-        try {
-            telegramBot.execute(message);
-        } catch (TelegramApiException ex) {
-            log.warn("Не вдалося надіслати повідомлення в Telegram.", ex);
-        }
+        send(message, null);
     }
 
     public void send(BotApiMethod<?> method) {
+        send(method, null);
+    }
+
+    /**
+     * Queues the call in the outbox of the current transaction; it is delivered after commit.
+     * Repeated calls with the same idempotency key are ignored.
+     */
+    public void send(BotApiMethod<?> method, String idempotencyKey) {
         if (method == null) {
             return;
         }
-        WorkingHoursTelegramBot telegramBot = telegramBotProvider.getIfAvailable();
-        if (telegramBot == null) {
+        outboxService.enqueue(method, idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString());
+    }
+
+    /**
+     * Queues a batch keyed by idempotency key with one conditional outbox insert per message.
+     */
+    public void sendAll(Map<String, ? extends BotApiMethod<?>> methodsByKey) {
+        if (methodsByKey == null || methodsByKey.isEmpty()) {
             return;
         }
-        try {
-            telegramBot.execute(method);
-        } catch (TelegramApiException ex) {
-            log.warn("Не вдалося виконати команду Telegram.", ex);
-        }
+        outboxService.enqueueAll(methodsByKey);
     }
 }
@@ -0,0 +1,88 @@
+package esvar.ua.workinghoursbot.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timer wheel of key deadlines. Scheduling is O(1); advancing only visits the slots that passed since
+ * the previous advance. Deadlines further away than one revolution simply stay in their slot until their turn.
+ * A key may sit in several slots after being rescheduled, so callers re-check the real deadline of what fires.
+ */
+final class TimerWheel<K> {
+
+    private final long tickMillis;
+    private final List<Map<K, Long>> slots;
+    private long cursor;
+
+    TimerWheel(long tickMillis, int size, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new HashMap<>());
+        }
+        this.cursor = nowMillis / tickMillis;
+    }
+
+    synchronized void schedule(K key, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, cursor + 1);
+        slot(tick).put(key, deadlineMillis);
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and returns the keys whose deadline has passed.
+     */
+    synchronized List<K> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        long steps = Math.min(target - cursor, slots.size());
+        List<K> due = new ArrayList<>();
+        for (long tick = cursor + 1; tick <= cursor + steps; tick++) {
+            Iterator<Map.Entry<K, Long>> timers = slot(tick).entrySet().iterator();
+            while (timers.hasNext()) {
+                Map.Entry<K, Long> timer = timers.next();
+                if (timer.getValue() <= nowMillis) {
+                    due.add(timer.getKey());
+                    timers.remove();
+                }
+            }
+        }
+        cursor = Math.max(cursor, target);
+        return due;
+    }
+
+    /**
+     * Removes and returns the timer that is due soonest, or {@code null} if the wheel is empty.
+     */
+    synchronized Timer<K> pollEarliest() {
+        Map<K, Long> earliestSlot = null;
+        Map.Entry<K, Long> earliest = null;
+        for (long tick = cursor + 1; tick <= cursor + slots.size(); tick++) {
+            Map<K, Long> slot = slot(tick);
+            for (Map.Entry<K, Long> timer : slot.entrySet()) {
+                if (earliest == null || timer.getValue() < earliest.getValue()) {
+                    earliest = timer;
+                    earliestSlot = slot;
+                }
+            }
+            // Anything due in this revolution beats every later slot.
+            if (earliest != null && earliest.getValue() / tickMillis <= tick) {
+                break;
+            }
+        }
+        if (earliest == null) {
+            return null;
+        }
+        Timer<K> timer = new Timer<>(earliest.getKey(), earliest.getValue());
+        earliestSlot.remove(timer.key());
+        return timer;
+    }
+
+    private Map<K, Long> slot(long tick) {
+        return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+    }
+
+    record Timer<K>(K key, long deadlineMillis) {
+    }
+}
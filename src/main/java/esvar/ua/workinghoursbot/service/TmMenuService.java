@@ -1,6 +1,8 @@
 package esvar.ua.workinghoursbot.service;
 
 import esvar.ua.workinghoursbot.bot.BotResponse;
+import esvar.ua.workinghoursbot.bot.CallbackRouteContributor;
+import esvar.ua.workinghoursbot.bot.CallbackRouteRegistry;
 import esvar.ua.workinghoursbot.bot.KeyboardFactory;
 import esvar.ua.workinghoursbot.domain.AuditEventType;
 import esvar.ua.workinghoursbot.domain.Location;
@@ -24,7 +26,7 @@ import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 @Service
 @RequiredArgsConstructor
 @Transactional
-public class TmMenuService {
+public class TmMenuService implements CallbackRouteContributor {
 
     private static final String BUTTON_REQUESTS = "Заявки";
     private static final String BUTTON_LOCATIONS = "Локації";
@@ -90,14 +92,13 @@ public class TmMenuService {
         };
     }
 
-    public BotResponse handleCallback(CallbackQuery callbackQuery) {
-        if (callbackQuery == null || callbackQuery.getFrom() == null) {
-            return BotResponse.empty();
-        }
+    @Override
+    public void registerCallbackRoutes(CallbackRouteRegistry routes) {
+        routes.prefix(TM_SCHEDULE_CALLBACK, this::handleScheduleCallback);
+    }
+
+    private BotResponse handleScheduleCallback(CallbackQuery callbackQuery) {
         String data = callbackQuery.getData();
-        if (data == null || !data.startsWith(TM_SCHEDULE_CALLBACK)) {
-            return BotResponse.empty();
-        }
         UserAccount tm = userAccountService.findByTelegramUserId(callbackQuery.getFrom().getId()).orElse(null);
         if (tm == null || tm.getRole() != Role.TM || tm.getStatus() != RegistrationStatus.APPROVED) {
             return BotResponse.empty();
@@ -1,21 +1,17 @@
 package esvar.ua.workinghoursbot.service;
 
 import esvar.ua.workinghoursbot.domain.Location;
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
 import esvar.ua.workinghoursbot.domain.RegistrationStatus;
 import esvar.ua.workinghoursbot.domain.Role;
-import esvar.ua.workinghoursbot.domain.ScheduleDay;
-import esvar.ua.workinghoursbot.domain.ScheduleStatus;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequest;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequestStatus;
 import esvar.ua.workinghoursbot.domain.UserAccount;
-import esvar.ua.workinghoursbot.repository.ScheduleDayRepository;
 import esvar.ua.workinghoursbot.repository.SubstitutionRequestRepository;
 import esvar.ua.workinghoursbot.repository.UserAccountRepository;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.TextStyle;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -23,8 +19,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
@@ -33,31 +27,25 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMa
 @RequiredArgsConstructor
 public class TmScheduleCalendarService {
 
-    private static final List<String> WEEKDAY_LABELS = List.of("Пн", "Вт", "Ср", "Чт", "Пт", "Сб", "Нд");
-    private static final int CELL_WIDTH = 4;
     private static final String BLUE = "🔵";
     private static final String GREEN = "🟢";
     private static final String ORANGE = "🟠";
     private static final String EMPTY_MARK = "·";
 
-    private final ScheduleDayRepository scheduleDayRepository;
+    private final SchedulePersistenceService schedulePersistenceService;
     private final SubstitutionRequestRepository substitutionRequestRepository;
     private final UserAccountRepository userAccountRepository;
     private final ScheduleCalendarKeyboardBuilder keyboardBuilder;
+    private final TmScheduleViewCache viewCache;
 
     public TmScheduleView buildLocationView(Location location, YearMonth month) {
+        return viewCache.get(location.getId(), month, () -> render(location, month));
+    }
+
+    private TmScheduleViewCache.CachedView render(Location location, YearMonth month) {
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
-        List<ScheduleDay> days = scheduleDayRepository.findByLocationIdAndDateBetween(location.getId(), start, end)
-                .stream()
-                .filter(day -> day.getStatus() == ScheduleStatus.WORK)
-                .toList();
-
-        Map<Long, Set<LocalDate>> workDaysByUser = days.stream()
-                .collect(Collectors.groupingBy(
-                        ScheduleDay::getTelegramUserId,
-                        Collectors.mapping(ScheduleDay::getDate, Collectors.toSet())
-                ));
+        Map<Long, MonthSchedule> workDaysByUser = schedulePersistenceService.loadLocationMonth(location.getId(), month);
 
         List<UserAccount> sellers = userAccountRepository.findByStatusAndRoleAndLocation_Id(
                         RegistrationStatus.APPROVED,
@@ -85,32 +73,34 @@ public class TmScheduleCalendarService {
             }
         }
 
-        Set<LocalDate> firstDays = firstSeller == null
-                ? Set.of()
-                : workDaysByUser.getOrDefault(firstSeller.getTelegramUserId(), Set.of());
-        Set<LocalDate> secondDays = secondSeller == null
-                ? Set.of()
-                : workDaysByUser.getOrDefault(secondSeller.getTelegramUserId(), Set.of());
+        MonthSchedule empty = MonthSchedule.empty(month);
+        MonthSchedule firstDays = firstSeller == null
+                ? empty
+                : workDaysByUser.getOrDefault(firstSeller.getTelegramUserId(), empty);
+        MonthSchedule secondDays = secondSeller == null
+                ? empty
+                : workDaysByUser.getOrDefault(secondSeller.getTelegramUserId(), empty);
 
         Map<UserAccount, Integer> substitutionCounts = new HashMap<>();
         int firstCount = 0;
         int secondCount = 0;
-        Map<LocalDate, String> markerByDate = new HashMap<>();
+        // Indexed by day of month; index 0 is unused.
+        String[] markerByDay = new String[month.lengthOfMonth() + 1];
 
-        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-            if (substitutionByDate.containsKey(date)) {
-                markerByDate.put(date, ORANGE);
-                UserAccount replacement = substitutionByDate.get(date);
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            UserAccount replacement = substitutionByDate.get(month.atDay(day));
+            if (replacement != null) {
+                markerByDay[day] = ORANGE;
                 substitutionCounts.merge(replacement, 1, Integer::sum);
                 continue;
             }
-            if (firstDays.contains(date)) {
-                markerByDate.put(date, BLUE);
+            if (firstDays.contains(day)) {
+                markerByDay[day] = BLUE;
                 firstCount++;
                 continue;
             }
-            if (secondDays.contains(date)) {
-                markerByDate.put(date, GREEN);
+            if (secondDays.contains(day)) {
+                markerByDay[day] = GREEN;
                 secondCount++;
             }
         }
@@ -118,7 +108,9 @@ public class TmScheduleCalendarService {
         StringBuilder text = new StringBuilder();
         text.append("📍 ").append(location.getName()).append("\n");
         text.append("📅 ").append(formatMonth(month)).append("\n\n");
-        text.append("<pre>").append(buildTable(month, markerByDate)).append("</pre>\n");
+        text.append("<pre>");
+        MonthTableRenderer.appendTable(text, month, day -> markerByDay[day] == null ? EMPTY_MARK : markerByDay[day]);
+        text.append("</pre>\n");
         text.append("Легенда: 🔵 перший продавець | 🟢 другий продавець | 🟠 підміна\n");
         text.append("\nПідсумок змін:\n");
         int index = 1;
@@ -139,8 +131,15 @@ public class TmScheduleCalendarService {
                     .append(substitutionCounts.getOrDefault(replacement, 0)).append(" змін\n");
         }
 
+        Set<Long> shownTelegramUserIds = new HashSet<>();
+        sellers.forEach(seller -> shownTelegramUserIds.add(seller.getTelegramUserId()));
+        replacements.forEach(replacement -> shownTelegramUserIds.add(replacement.getTelegramUserId()));
+
         InlineKeyboardMarkup keyboard = keyboardBuilder.buildTmViewKeyboard(location.getId(), month);
-        return new TmScheduleView(text.toString().trim(), keyboard);
+        return new TmScheduleViewCache.CachedView(
+                new TmScheduleView(text.toString().trim(), keyboard),
+                shownTelegramUserIds
+        );
     }
 
     private String formatMonth(YearMonth month) {
@@ -148,50 +147,6 @@ public class TmScheduleCalendarService {
         return monthName + " " + month.getYear();
     }
 
-    private String buildTable(YearMonth month, Map<LocalDate, String> markerByDate) {
-        StringBuilder table = new StringBuilder();
-        table.append(buildHeaderRow()).append("\n");
-        LocalDate firstDay = month.atDay(1);
-        int startIndex = firstDay.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
-        int day = 1;
-        int daysInMonth = month.lengthOfMonth();
-        for (int week = 0; week < 6 && day <= daysInMonth; week++) {
-            StringBuilder row = new StringBuilder();
-            for (int weekday = 0; weekday < 7; weekday++) {
-                if (week == 0 && weekday < startIndex || day > daysInMonth) {
-                    row.append(padCell(""));
-                } else {
-                    LocalDate date = month.atDay(day);
-                    String marker = markerByDate.getOrDefault(date, EMPTY_MARK);
-                    String cell = String.format("%02d%s", day, marker);
-                    row.append(padCell(cell));
-                    day++;
-                }
-            }
-            table.append(row.toString().stripTrailing());
-            if (day <= daysInMonth) {
-                table.append("\n");
-            }
-        }
-        return table.toString();
-    }
-
-    private String buildHeaderRow() {
-        StringBuilder row = new StringBuilder();
-        for (String label : WEEKDAY_LABELS) {
-            row.append(padCell(label));
-        }
-        return row.toString().stripTrailing();
-    }
-
-    private String padCell(String value) {
-        String padded = value == null ? "" : value;
-        if (padded.length() >= CELL_WIDTH) {
-            return padded + " ";
-        }
-        return String.format("%1$-" + CELL_WIDTH + "s", padded);
-    }
-
     public record TmScheduleView(String text, InlineKeyboardMarkup keyboard) {
     }
 }
@@ -16,14 +16,25 @@ public class TmScheduleEditGateService {
 
     private final LocationRepository locationRepository;
 
+    public boolean isScheduleEditEnabled(AccountSnapshot account) {
+        if (account == null || account.id() == null) {
+            return false;
+        }
+        if (account.locationId() != null) {
+            return isLocationScheduleEditEnabled(account.locationId());
+        }
+        // Snapshot without a location (e.g. cached just before approval): ask the account row itself.
+        return locationRepository
+                .findScheduleEditEnabledByAccount_Id(account.id())
+                .orElse(false);
+    }
+
     public boolean isScheduleEditEnabled(UserAccount account) {
         if (account == null || account.getId() == null) return false;
 
         // якщо в account є locationId — краще так
         if (account.getLocation() != null && account.getLocation().getId() != null) {
-            return locationRepository
-                    .findScheduleEditEnabledById(account.getLocation().getId())
-                    .orElse(false);
+            return isLocationScheduleEditEnabled(account.getLocation().getId());
         }
 
         // або через accountId
@@ -32,6 +43,16 @@ public class TmScheduleEditGateService {
                 .orElse(false);
     }
 
+    private boolean isLocationScheduleEditEnabled(UUID locationId) {
+        return UpdateContext.current()
+                .map(context -> context.scheduleEditEnabled(locationId, this::loadScheduleEditFlag))
+                .orElseGet(() -> loadScheduleEditFlag(locationId));
+    }
+
+    private boolean loadScheduleEditFlag(UUID locationId) {
+        return locationRepository.findScheduleEditEnabledById(locationId).orElse(false);
+    }
+
     @Transactional // перевизначає readOnly=true на рівні класу
     public Location updateScheduleEditFlag(Location location, boolean newValue) {
         if (location == null || location.getId() == null) {
@@ -51,6 +72,7 @@ public class TmScheduleEditGateService {
         }
 
         managed.setScheduleEditEnabled(newValue);
+        UpdateContext.current().ifPresent(UpdateContext::forgetScheduleEditFlags);
 
         // За бажанням можна явно зберегти;
         // якщо репозиторій – JpaRepository, save необов'язковий, але не завадить.
@@ -62,6 +84,7 @@ public class TmScheduleEditGateService {
         if (tmAccount == null || tmAccount.getId() == null) {
             throw new IllegalArgumentException("TM account and its id must not be null");
         }
+        UpdateContext.current().ifPresent(UpdateContext::forgetScheduleEditFlags);
         return locationRepository.updateScheduleEditEnabledByManagedTmId(tmAccount.getId(), newValue);
     }
 }
@@ -0,0 +1,125 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.domain.Location;
+import esvar.ua.workinghoursbot.domain.UserAccount;
+import esvar.ua.workinghoursbot.repository.UserAccountRepository;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Rendered TM schedule views per (location, month), so paging through months does not go to the database.
+ * A view is dropped when its month changes ({@link ScheduleChangedEvent}) and when an account it shows, or an
+ * account of its location, changes ({@link UserAccountChangedEvent}), which covers seller approval and removal.
+ */
+@Component
+public class TmScheduleViewCache {
+
+    private final UserAccountRepository userAccountRepository;
+    private final SessionStore<ViewKey, CachedView> views;
+    // Bumped on every invalidation so a render that raced with a write does not re-cache stale data.
+    private final AtomicLong generation = new AtomicLong();
+
+    public TmScheduleViewCache(UserAccountRepository userAccountRepository, SessionStores sessionStores) {
+        this.userAccountRepository = userAccountRepository;
+        this.views = sessionStores.create("tm-schedule-views");
+    }
+
+    public TmScheduleCalendarService.TmScheduleView get(UUID locationId, YearMonth month, Supplier<CachedView> renderer) {
+        ViewKey key = new ViewKey(locationId, month);
+        CachedView cached = views.get(key);
+        if (cached != null) {
+            return cached.view();
+        }
+        long renderedAt = generation.get();
+        CachedView rendered = renderer.get();
+        if (generation.get() == renderedAt) {
+            views.put(key, rendered);
+        }
+        return rendered.view();
+    }
+
+    public void invalidate(UUID locationId, YearMonth month) {
+        generation.incrementAndGet();
+        views.remove(new ViewKey(locationId, month));
+    }
+
+    @EventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        invalidate(event.locationId(), event.month());
+    }
+
+    /**
+     * Evicts again once the writing transaction is over: a reader may have re-rendered the
+     * pre-commit rows between the write and the commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onScheduleChangeCompleted(ScheduleChangedEvent event) {
+        invalidate(event.locationId(), event.month());
+    }
+
+    /**
+     * The location is looked up while the write is still visible to us; a newly approved seller is not in any
+     * cached view yet, so matching on shown accounts alone would miss it.
+     */
+    @EventListener
+    public void onAccountChanged(UserAccountChangedEvent event) {
+        Long telegramUserId = event.telegramUserId();
+        UUID locationId = telegramUserId == null
+                ? null
+                : userAccountRepository.findByTelegramUserId(telegramUserId)
+                        .map(UserAccount::getLocation)
+                        .map(Location::getId)
+                        .orElse(null);
+        invalidateAccount(telegramUserId, locationId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidateAccount(telegramUserId, locationId);
+            }
+        });
+    }
+
+    private void invalidateAccount(Long telegramUserId, UUID locationId) {
+        if (telegramUserId == null) {
+            invalidateWhere((key, view) -> true);
+            return;
+        }
+        invalidateWhere((key, view) -> key.locationId().equals(locationId)
+                || view.telegramUserIds().contains(telegramUserId));
+    }
+
+    private void invalidateWhere(BiPredicate<ViewKey, CachedView> predicate) {
+        generation.incrementAndGet();
+        List<ViewKey> stale = new ArrayList<>();
+        views.forEach((key, view) -> {
+            if (predicate.test(key, view)) {
+                stale.add(key);
+            }
+        });
+        stale.forEach(views::remove);
+    }
+
+    /**
+     * A rendered view and every account it shows.
+     */
+    public record CachedView(TmScheduleCalendarService.TmScheduleView view, Set<Long> telegramUserIds) {
+    }
+
+    private record ViewKey(UUID locationId, YearMonth month) {
+    }
+}
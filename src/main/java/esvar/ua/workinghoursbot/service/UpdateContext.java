@@ -0,0 +1,92 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.domain.UserAccount;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Facts resolved while handling one update. {@code UpdateRouter} opens it around {@code route(update)}
+ * on the handling thread; services consult {@link #current()} and fall back to plain lookups outside
+ * of an update (scheduled jobs, tests). Accounts are remembered by id only: the handlers of one update may run
+ * in separate transactions, and an entity must not outlive the persistence context that loaded it.
+ */
+public final class UpdateContext implements AutoCloseable {
+
+    private static final ThreadLocal<UpdateContext> CURRENT = new ThreadLocal<>();
+
+    private final Map<Long, Optional<UUID>> accountIds = new HashMap<>();
+    private final Map<UUID, Boolean> scheduleEditFlags = new HashMap<>();
+    private int statementCount;
+    private int memoizedHits;
+
+    private UpdateContext() {
+    }
+
+    public static UpdateContext open() {
+        UpdateContext context = new UpdateContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static Optional<UpdateContext> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Loads the account by Telegram id the first time and by primary key afterwards, which the current
+     * persistence context answers without a statement when it already holds the entity.
+     */
+    public Optional<UserAccount> account(Long telegramUserId,
+                                         Function<Long, Optional<UserAccount>> loader,
+                                         Function<UUID, Optional<UserAccount>> byId) {
+        Optional<UUID> accountId = accountIds.get(telegramUserId);
+        if (accountId != null) {
+            memoizedHits++;
+            return accountId.flatMap(byId);
+        }
+        Optional<UserAccount> account = loader.apply(telegramUserId);
+        accountIds.put(telegramUserId, account.map(UserAccount::getId));
+        return account;
+    }
+
+    public boolean scheduleEditEnabled(UUID locationId, Function<UUID, Boolean> loader) {
+        Boolean enabled = scheduleEditFlags.get(locationId);
+        if (enabled != null) {
+            memoizedHits++;
+            return enabled;
+        }
+        enabled = loader.apply(locationId);
+        scheduleEditFlags.put(locationId, enabled);
+        return enabled;
+    }
+
+    public void forgetAccount(Long telegramUserId) {
+        accountIds.remove(telegramUserId);
+    }
+
+    public void forgetScheduleEditFlags() {
+        scheduleEditFlags.clear();
+    }
+
+    void recordStatement() {
+        statementCount++;
+    }
+
+    public int statementCount() {
+        return statementCount;
+    }
+
+    public int memoizedHits() {
+        return memoizedHits;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package esvar.ua.workinghoursbot.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares while an {@link UpdateContext} is open.
+ */
+public class UpdateStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        UpdateContext.current().ifPresent(UpdateContext::recordStatement);
+        return sql;
+    }
+}
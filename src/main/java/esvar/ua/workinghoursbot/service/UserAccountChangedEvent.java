@@ -0,0 +1,4 @@
+package esvar.ua.workinghoursbot.service;
+
+public record UserAccountChangedEvent(Long telegramUserId) {
+}
@@ -10,6 +10,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,19 +20,42 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserAccountService {
 
     private final UserAccountRepository userAccountRepository;
+    private final AccountSnapshotCache accountSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Optional<UserAccount> findByTelegramUserId(Long telegramUserId) {
-        return userAccountRepository.findByTelegramUserId(telegramUserId);
+        return UpdateContext.current()
+                .map(context -> context.account(
+                        telegramUserId,
+                        userAccountRepository::findByTelegramUserId,
+                        userAccountRepository::findById
+                ))
+                .orElseGet(() -> userAccountRepository.findByTelegramUserId(telegramUserId));
+    }
+
+    /**
+     * Cached routing view of the account; use {@link #findByTelegramUserId} when the entity itself is needed.
+     */
+    public Optional<AccountSnapshot> findSnapshot(Long telegramUserId) {
+        return accountSnapshotCache.find(telegramUserId);
     }
 
     @Transactional
     public UserAccount save(UserAccount userAccount) {
-        return userAccountRepository.save(userAccount);
+        UserAccount saved = userAccountRepository.save(userAccount);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(saved.getTelegramUserId()));
+        return saved;
     }
 
     @Transactional
     public void deleteByTelegramUserId(Long telegramUserId) {
         userAccountRepository.deleteByTelegramUserId(telegramUserId);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(telegramUserId));
+    }
+
+    @EventListener
+    public void onAccountChanged(UserAccountChangedEvent event) {
+        UpdateContext.current().ifPresent(context -> context.forgetAccount(event.telegramUserId()));
     }
 
     @Transactional(readOnly = true)
@@ -70,7 +95,7 @@ public class UserAccountService {
             tmAccount.setManagedLocations(locations);
         }
         if (locations.add(location)) {
-            userAccountRepository.save(tmAccount);
+            save(tmAccount);
         }
     }
 
@@ -84,7 +109,7 @@ public class UserAccountService {
             return;
         }
         if (locations.remove(location)) {
-            userAccountRepository.save(tmAccount);
+            save(tmAccount);
         }
     }
 }
@@ -0,0 +1,18 @@
+PRAGMA foreign_keys = ON;
+
+CREATE TABLE IF NOT EXISTS telegram_outbox (
+    id TEXT PRIMARY KEY,
+    idempotency_key TEXT NOT NULL UNIQUE,
+    chat_id TEXT,
+    method_type TEXT NOT NULL,
+    payload TEXT NOT NULL,
+    status TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at BIGINT NOT NULL,
+    created_at TEXT NOT NULL,
+    sent_at BIGINT,
+    last_error TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_telegram_outbox_status_next_attempt
+    ON telegram_outbox(status, next_attempt_at);
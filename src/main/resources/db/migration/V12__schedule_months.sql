@@ -0,0 +1,29 @@
+-- V12__schedule_months.sql
+-- Packed schedule storage: one row per seller, location and month, bit (day - 1) of work_mask marks a working day.
+CREATE TABLE IF NOT EXISTS schedule_months (
+    id TEXT PRIMARY KEY,
+    telegram_user_id BIGINT NOT NULL,
+    location_id TEXT NOT NULL,
+    month TEXT NOT NULL,
+    work_mask INTEGER NOT NULL,
+    updated_at TEXT NOT NULL,
+    UNIQUE (telegram_user_id, location_id, month)
+);
+
+CREATE INDEX IF NOT EXISTS idx_schedule_months_location_month
+    ON schedule_months(location_id, month);
+
+INSERT INTO schedule_months (id, telegram_user_id, location_id, month, work_mask, updated_at)
+SELECT lower(
+               hex(randomblob(4)) || '-' || hex(randomblob(2)) || '-4' || substr(hex(randomblob(2)), 2) || '-'
+                   || substr('89ab', 1 + (abs(random()) % 4), 1) || substr(hex(randomblob(2)), 2) || '-'
+                   || hex(randomblob(6))
+       ),
+       telegram_user_id,
+       location_id,
+       substr(date, 1, 7),
+       SUM(1 << (CAST(substr(date, 9, 2) AS INTEGER) - 1)),
+       strftime('%Y-%m-%dT%H:%M:%SZ', 'now')
+FROM schedule_days
+WHERE status = 'WORK'
+GROUP BY telegram_user_id, location_id, substr(date, 1, 7);
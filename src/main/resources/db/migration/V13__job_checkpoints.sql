@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    job_name TEXT PRIMARY KEY,
+    run_key TEXT NOT NULL,
+    last_key TEXT,
+    processed BIGINT NOT NULL DEFAULT 0,
+    completed_at TEXT,
+    updated_at TEXT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_shift_confirmations_status_id
+    ON shift_confirmations(status, id);
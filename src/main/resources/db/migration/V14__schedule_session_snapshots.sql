@@ -0,0 +1,16 @@
+-- V14__schedule_session_snapshots.sql
+-- Write-behind copy of in-memory schedule edit sessions. drafts packs every draft month as
+-- 4 bytes (year * 12 + month - 1) followed by its 4-byte work mask, big-endian.
+CREATE TABLE IF NOT EXISTS schedule_session_snapshots (
+    telegram_user_id BIGINT PRIMARY KEY,
+    mode TEXT NOT NULL,
+    active_location_id TEXT,
+    active_month TEXT,
+    calendar_chat_id BIGINT,
+    calendar_message_id INTEGER,
+    drafts BLOB NOT NULL,
+    last_updated_at TEXT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_schedule_session_snapshots_updated
+    ON schedule_session_snapshots(last_updated_at);
@@ -0,0 +1 @@
+ALTER TABLE job_checkpoints ADD COLUMN failed_keys TEXT;
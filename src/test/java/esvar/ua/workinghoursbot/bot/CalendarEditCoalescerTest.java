@@ -0,0 +1,99 @@
+package esvar.ua.workinghoursbot.bot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import esvar.ua.workinghoursbot.config.OutboundProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CalendarEditCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<CalendarKeyboardEditMessage> sent = new CopyOnWriteArrayList<>();
+
+    @Test
+    void sendsTheLatestEditOfEachMessageWhenTheWindowCloses() throws Exception {
+        CalendarEditCoalescer coalescer = coalescer(Duration.ofMillis(50));
+        CountDownLatch released = new CountDownLatch(2);
+        CalendarKeyboardEditMessage latest = edit("1", 10);
+        CalendarKeyboardEditMessage otherMessage = edit("1", 11);
+
+        coalescer.offer(edit("1", 10), this::record);
+        coalescer.offer(edit("1", 10), this::record);
+        coalescer.offer(latest, edit -> {
+            record(edit);
+            released.countDown();
+        });
+        coalescer.offer(otherMessage, edit -> {
+            record(edit);
+            released.countDown();
+        });
+
+        assertThat(released.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(sent).containsExactlyInAnyOrder(latest, otherMessage);
+        assertThat(meterRegistry.get("bot.outbound.calendar.coalesced").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void flushSendsPendingEditsOfTheChatOnly() {
+        CalendarEditCoalescer coalescer = coalescer(Duration.ofMinutes(1));
+        CalendarKeyboardEditMessage chatOne = edit("1", 10);
+        coalescer.offer(chatOne, this::record);
+        coalescer.offer(edit("2", 20), this::record);
+
+        coalescer.flush("1");
+
+        assertThat(sent).containsExactly(chatOne);
+    }
+
+    @Test
+    void flushWaitsForAnEditTheTimerIsHandingOver() throws Exception {
+        CalendarEditCoalescer coalescer = coalescer(Duration.ofMillis(10));
+        CountDownLatch handingOver = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        CalendarKeyboardEditMessage edit = edit("1", 10);
+        coalescer.offer(edit, released -> {
+            handingOver.countDown();
+            awaitQuietly(proceed);
+            record(released);
+        });
+        assertThat(handingOver.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread flushing = Thread.ofVirtual().start(() -> coalescer.flush("1"));
+        flushing.join(200);
+        assertThat(flushing.isAlive()).isTrue();
+        proceed.countDown();
+        flushing.join(5_000);
+
+        assertThat(flushing.isAlive()).isFalse();
+        assertThat(sent).containsExactly(edit);
+    }
+
+    private CalendarEditCoalescer coalescer(Duration window) {
+        return new CalendarEditCoalescer(new OutboundProperties(30, 1, 3, 20, 8, 5, window), meterRegistry);
+    }
+
+    private void record(CalendarKeyboardEditMessage edit) {
+        sent.add(edit);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CalendarKeyboardEditMessage edit(String chatId, int messageId) {
+        CalendarKeyboardEditMessage edit = new CalendarKeyboardEditMessage("calendar");
+        edit.setChatId(chatId);
+        edit.setMessageId(messageId);
+        return edit;
+    }
+}
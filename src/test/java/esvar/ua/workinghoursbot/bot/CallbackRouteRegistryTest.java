@@ -0,0 +1,58 @@
+package esvar.ua.workinghoursbot.bot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.User;
+
+class CallbackRouteRegistryTest {
+
+    @Test
+    void dispatchesToExactThenLongestPrefixRoute() {
+        List<String> hits = new ArrayList<>();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CallbackRouteRegistry registry = new CallbackRouteRegistry(List.of(routes -> {
+            routes.prefix("SENIOR_SUB_PICK:", query -> record(hits, "pick"));
+            routes.prefix("SENIOR_SUB_PICK_LIST:", query -> record(hits, "list"));
+            routes.prefix("SUB_REQ_CREATE", query -> record(hits, "create"));
+            routes.exact("SUB_REQ_CREATE_URGENT_TODAY", query -> record(hits, "urgent"));
+        }), meterRegistry);
+
+        registry.route(callback("SENIOR_SUB_PICK_LIST:abc"));
+        registry.route(callback("SENIOR_SUB_PICK:abc:1"));
+        registry.route(callback("SUB_REQ_CREATE_URGENT_TODAY"));
+        registry.route(callback("SUB_REQ_CREATE:2024-01-01"));
+        BotResponse miss = registry.route(callback("UNKNOWN:1"));
+
+        assertThat(hits).containsExactly("list", "pick", "urgent", "create");
+        assertThat(miss.actions()).isEmpty();
+        assertThat(meterRegistry.get("bot.callback.misses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsDuplicateRoutes() {
+        assertThatThrownBy(() -> new CallbackRouteRegistry(List.of(
+                routes -> routes.prefix("E:", query -> BotResponse.empty()),
+                routes -> routes.prefix("E:", query -> BotResponse.empty())
+        ), new SimpleMeterRegistry())).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static BotResponse record(List<String> hits, String route) {
+        hits.add(route);
+        return BotResponse.of(new AnswerCallbackQuery("id"));
+    }
+
+    private static CallbackQuery callback(String data) {
+        CallbackQuery query = new CallbackQuery();
+        query.setId("id");
+        query.setData(data);
+        query.setFrom(new User(1L, "Test", false));
+        return query;
+    }
+}
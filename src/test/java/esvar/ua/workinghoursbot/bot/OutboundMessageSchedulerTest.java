@@ -0,0 +1,132 @@
+package esvar.ua.workinghoursbot.bot;
+
+import esvar.ua.workinghoursbot.config.OutboundProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboundMessageSchedulerTest {
+
+    @Mock
+    private ObjectProvider<WorkingHoursTelegramBot> botProvider;
+    @Mock
+    private WorkingHoursTelegramBot bot;
+
+    private OutboundMessageScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        when(botProvider.getIfAvailable()).thenReturn(bot);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void interactiveLaneOvertakesBulkBacklog() throws Exception {
+        scheduler = start(new OutboundProperties(100, 100, 10, 100, 1, 3, null));
+        List<String> sent = new CopyOnWriteArrayList<>();
+        CompletableFuture<Message> blocker = new CompletableFuture<>();
+        when(bot.executeAsync(any(SendMessage.class))).thenAnswer(invocation -> {
+            SendMessage message = invocation.getArgument(0);
+            sent.add(message.getText());
+            return "blocker".equals(message.getText()) ? blocker : CompletableFuture.completedFuture(new Message());
+        });
+
+        scheduler.submit(message("1", "blocker"), OutboundLane.BULK);
+        awaitSize(sent, 1);
+        CompletableFuture<Message> bulk = scheduler.submit(message("2", "bulk"), OutboundLane.BULK);
+        CompletableFuture<Message> interactive = scheduler.submit(message("3", "reply"), OutboundLane.INTERACTIVE);
+        blocker.complete(new Message());
+
+        CompletableFuture.allOf(bulk, interactive).get(5, TimeUnit.SECONDS);
+        assertThat(sent).containsExactly("blocker", "reply", "bulk");
+    }
+
+    @Test
+    void honoursRetryAfterFromTelegram() throws Exception {
+        scheduler = start(new OutboundProperties(100, 100, 10, 100, 4, 3, null));
+        TelegramApiRequestException tooManyRequests = mock(TelegramApiRequestException.class);
+        ResponseParameters parameters = new ResponseParameters();
+        parameters.setRetryAfter(1);
+        when(tooManyRequests.getParameters()).thenReturn(parameters);
+        when(bot.executeAsync(any(SendMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(tooManyRequests))
+                .thenReturn(CompletableFuture.completedFuture(new Message()));
+
+        long startedAt = System.nanoTime();
+        scheduler.submit(message("1", "hello"), OutboundLane.BULK).get(5, TimeUnit.SECONDS);
+
+        assertThat(System.nanoTime() - startedAt).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(900));
+        verify(bot, times(2)).executeAsync(any(SendMessage.class));
+    }
+
+    @Test
+    void pausesEveryChatWhenABroadcastIsFloodWaited() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        scheduler = start(new OutboundProperties(100, 100, 10, 100, 4, 3, null), meterRegistry);
+        TelegramApiRequestException tooManyRequests = mock(TelegramApiRequestException.class);
+        ResponseParameters parameters = new ResponseParameters();
+        parameters.setRetryAfter(1);
+        when(tooManyRequests.getParameters()).thenReturn(parameters);
+        when(bot.executeAsync(any(SendMessage.class)))
+                .thenReturn(CompletableFuture.failedFuture(tooManyRequests))
+                .thenReturn(CompletableFuture.completedFuture(new Message()));
+
+        long startedAt = System.nanoTime();
+        CompletableFuture<Message> first = scheduler.submit(message("1", "first"), OutboundLane.BULK);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("bot.outbound.retries").counter().count() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        scheduler.submit(message("2", "other chat"), OutboundLane.BULK).get(5, TimeUnit.SECONDS);
+
+        assertThat(System.nanoTime() - startedAt).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(900));
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    private OutboundMessageScheduler start(OutboundProperties properties) {
+        return start(properties, new SimpleMeterRegistry());
+    }
+
+    private OutboundMessageScheduler start(OutboundProperties properties, SimpleMeterRegistry meterRegistry) {
+        OutboundMessageScheduler started = new OutboundMessageScheduler(botProvider, properties, meterRegistry);
+        started.start();
+        return started;
+    }
+
+    private static SendMessage message(String chatId, String text) {
+        return SendMessage.builder().chatId(chatId).text(text).build();
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(list).hasSize(size);
+    }
+}
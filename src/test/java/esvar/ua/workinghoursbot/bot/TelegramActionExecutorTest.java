@@ -0,0 +1,163 @@
+package esvar.ua.workinghoursbot.bot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import esvar.ua.workinghoursbot.config.OutboundProperties;
+import esvar.ua.workinghoursbot.service.ScheduleSessionStore;
+import esvar.ua.workinghoursbot.service.SubstitutionMenuSessionStore;
+import esvar.ua.workinghoursbot.service.SubstitutionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TelegramActionExecutorTest {
+
+    @Mock
+    private OutboundMessageScheduler scheduler;
+    @Mock
+    private ScheduleSessionStore scheduleSessionStore;
+    @Mock
+    private SubstitutionService substitutionService;
+    @Mock
+    private SubstitutionMenuSessionStore substitutionMenuSessionStore;
+
+    private TelegramActionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        CalendarEditCoalescer coalescer = new CalendarEditCoalescer(
+                new OutboundProperties(30, 1, 3, 20, 8, 5, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry()
+        );
+        executor = new TelegramActionExecutor(scheduler, scheduleSessionStore, substitutionService,
+                substitutionMenuSessionStore, coalescer);
+    }
+
+    @Test
+    void keepsOrderWithinChatAndRunsOtherChatsInParallel() {
+        SendMessage first = message("1", "first");
+        SendMessage second = message("1", "second");
+        SendMessage other = message("2", "other");
+        CompletableFuture<Message> firstSent = new CompletableFuture<>();
+        when(scheduler.submit(argThat((SendMessage m) -> m != null && "first".equals(m.getText())), eq(OutboundLane.INTERACTIVE)))
+                .thenReturn(firstSent);
+        when(scheduler.submit(argThat((SendMessage m) -> m != null && "other".equals(m.getText())), eq(OutboundLane.INTERACTIVE)))
+                .thenReturn(CompletableFuture.completedFuture(sent(2L, 20)));
+        when(scheduler.submit(argThat((SendMessage m) -> m != null && "second".equals(m.getText())), eq(OutboundLane.INTERACTIVE)))
+                .thenReturn(CompletableFuture.completedFuture(sent(1L, 11)));
+
+        CompletableFuture<Void> done = executor.execute(BotResponse.of(first, second, other));
+
+        verify(scheduler).submit(other, OutboundLane.INTERACTIVE);
+        verify(scheduler, never()).submit(second, OutboundLane.INTERACTIVE);
+        assertThat(done).isNotDone();
+
+        firstSent.complete(sent(1L, 10));
+
+        assertThat(done).isCompleted();
+        verify(scheduler).submit(second, OutboundLane.INTERACTIVE);
+        verify(scheduleSessionStore).updateMessageIdForChat(1L, 10);
+        verify(scheduleSessionStore).updateMessageIdForChat(1L, 11);
+        verify(scheduleSessionStore).updateMessageIdForChat(2L, 20);
+    }
+
+    @Test
+    void registersCandidateOfferOnCompletion() {
+        UUID requestId = UUID.randomUUID();
+        SubstitutionCandidateOfferMessage offer = new SubstitutionCandidateOfferMessage(requestId);
+        offer.setChatId("5");
+        offer.setText("offer");
+        when(scheduler.submit(offer, OutboundLane.BULK)).thenReturn(CompletableFuture.completedFuture(sent(5L, 50)));
+
+        executor.execute(BotResponse.of(offer)).join();
+
+        verify(substitutionService).registerCandidateNotification(requestId, 5L, 50);
+    }
+
+    @Test
+    void resendsCalendarWhenKeyboardEditFails() throws Exception {
+        CalendarKeyboardEditMessage edit = calendarEdit();
+        when(scheduler.submit(edit, OutboundLane.INTERACTIVE))
+                .thenReturn(CompletableFuture.failedFuture(new TelegramApiRequestException("message to edit not found")));
+        List<String> sentTexts = new ArrayList<>();
+        when(scheduler.submit(any(SendMessage.class), eq(OutboundLane.INTERACTIVE))).thenAnswer(invocation -> {
+            sentTexts.add(invocation.<SendMessage>getArgument(0).getText());
+            return CompletableFuture.completedFuture(sent(3L, 30 + sentTexts.size()));
+        });
+
+        executor.execute(BotResponse.of(edit));
+        executor.execute(BotResponse.of(message("3", "next")));
+
+        assertThat(sentTexts).containsExactly("calendar", "next");
+        verify(scheduleSessionStore).updateMessageIdForChat(3L, 31);
+        assertThat(new ObjectMapper().writeValueAsString(edit)).doesNotContain("calendar");
+    }
+
+    @Test
+    void sendsOnlyTheLatestCalendarEditBeforeTheNextActionOfTheChat() {
+        CalendarKeyboardEditMessage firstTap = calendarEdit();
+        CalendarKeyboardEditMessage secondTap = calendarEdit();
+        secondTap.setReplyMarkup(new InlineKeyboardMarkup(List.of(List.of(
+                InlineKeyboardButton.builder().text("01✅").callbackData("E:D:2024-03-01").build()))));
+        SendMessage saved = message("3", "saved");
+        when(scheduler.submit(secondTap, OutboundLane.INTERACTIVE)).thenReturn(CompletableFuture.completedFuture(true));
+        when(scheduler.submit(saved, OutboundLane.INTERACTIVE))
+                .thenReturn(CompletableFuture.completedFuture(sent(3L, 32)));
+
+        assertThat(executor.execute(BotResponse.of(firstTap))).isCompleted();
+        assertThat(executor.execute(BotResponse.of(secondTap))).isCompleted();
+        verify(scheduler, never()).submit(any(), any());
+
+        executor.execute(BotResponse.of(saved)).join();
+
+        InOrder order = inOrder(scheduler);
+        order.verify(scheduler).submit(secondTap, OutboundLane.INTERACTIVE);
+        order.verify(scheduler).submit(saved, OutboundLane.INTERACTIVE);
+        verify(scheduler, never()).submit(firstTap, OutboundLane.INTERACTIVE);
+    }
+
+    private static CalendarKeyboardEditMessage calendarEdit() {
+        CalendarKeyboardEditMessage edit = new CalendarKeyboardEditMessage("calendar");
+        edit.setChatId("3");
+        edit.setMessageId(30);
+        edit.setReplyMarkup(new InlineKeyboardMarkup(List.of()));
+        return edit;
+    }
+
+    private static SendMessage message(String chatId, String text) {
+        return SendMessage.builder().chatId(chatId).text(text).build();
+    }
+
+    private static Message sent(Long chatId, int messageId) {
+        Chat chat = new Chat();
+        chat.setId(chatId);
+        Message message = new Message();
+        message.setChat(chat);
+        message.setMessageId(messageId);
+        return message;
+    }
+}
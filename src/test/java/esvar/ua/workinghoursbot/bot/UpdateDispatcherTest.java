@@ -0,0 +1,111 @@
+package esvar.ua.workinghoursbot.bot;
+
+import esvar.ua.workinghoursbot.config.UpdateDispatcherProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpdateDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UpdateDispatcher dispatcher = new UpdateDispatcher(
+            new UpdateDispatcherProperties(4, Duration.ofSeconds(1)), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void keepsUpdatesOfSameUserInOrder() throws InterruptedException {
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(50);
+
+        for (int i = 0; i < 50; i++) {
+            dispatcher.dispatch(messageFrom(1L, i), update -> {
+                handled.add(update.getUpdateId());
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(handled).isSorted().hasSize(50);
+        assertThat(meterRegistry.get("bot.dispatcher.lag").timer().count()).isEqualTo(50);
+    }
+
+    @Test
+    void slowUserDoesNotBlockOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherHandled = new CountDownLatch(1);
+
+        dispatcher.dispatch(messageFrom(1L, 1), update -> awaitQuietly(release));
+        dispatcher.dispatch(messageFrom(2L, 2), update -> otherHandled.countDown());
+
+        assertThat(otherHandled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(dispatcher.queueDepth()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void groupsPolledBatchByUserAndKeepsEachUserInOrder() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Update> batch = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            batch.add(messageFrom((long) (i % 3), i));
+        }
+        Map<Long, List<Integer>> handled = new ConcurrentHashMap<>();
+        CountDownLatch othersDone = new CountDownLatch(20);
+        CountDownLatch allDone = new CountDownLatch(30);
+
+        dispatcher.dispatchAll(batch, update -> {
+            long userId = update.getMessage().getFrom().getId();
+            if (userId == 0L) {
+                awaitQuietly(release);
+            } else {
+                othersDone.countDown();
+            }
+            handled.computeIfAbsent(userId, ignored -> new CopyOnWriteArrayList<>()).add(update.getUpdateId());
+            allDone.countDown();
+        });
+
+        assertThat(othersDone.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+        assertThat(allDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(handled).hasSize(3);
+        handled.values().forEach(ids -> assertThat(ids).isSorted().hasSize(10));
+        assertThat(meterRegistry.get("bot.dispatcher.latency").timer().count()).isEqualTo(30);
+        assertThat(meterRegistry.get("bot.dispatcher.batch.size").summary().totalAmount()).isEqualTo(30);
+    }
+
+    private static Update messageFrom(Long userId, int updateId) {
+        User user = new User();
+        user.setId(userId);
+        Message message = new Message();
+        message.setFrom(user);
+        Update update = new Update();
+        update.setUpdateId(updateId);
+        update.setMessage(message);
+        return update;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
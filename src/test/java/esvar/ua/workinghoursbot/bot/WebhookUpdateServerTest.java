@@ -0,0 +1,94 @@
+package esvar.ua.workinghoursbot.bot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import esvar.ua.workinghoursbot.config.WebhookProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+class WebhookUpdateServerTest {
+
+    private static final String PATH = "/telegram/webhook";
+    private static final String SECRET = "test-secret";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingQueue<Update> received = new LinkedBlockingQueue<>();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private WebhookUpdateServer server;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = new WebhookUpdateServer(
+                new WebhookProperties(true, 0, PATH, SECRET, null), received::add, meterRegistry);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void acknowledgesRecordedUpdateAndHandsItOn() throws Exception {
+        HttpResponse<Void> response = post(recordedUpdate(), SECRET);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        Update update = received.poll(5, TimeUnit.SECONDS);
+        assertThat(update).isNotNull();
+        assertThat(update.getUpdateId()).isEqualTo(912345678);
+        assertThat(update.getMessage().getText()).isEqualTo("/start");
+        assertThat(update.getMessage().getFrom().getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void rejectsRequestsWithoutTheSecretToken() throws Exception {
+        assertThat(post(recordedUpdate(), null).statusCode()).isEqualTo(401);
+        assertThat(post(recordedUpdate(), "wrong").statusCode()).isEqualTo(401);
+        assertThat(post("{not json", SECRET).statusCode()).isEqualTo(400);
+
+        assertThat(received.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(meterRegistry.get("bot.webhook.updates").tag("result", "unauthorized").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("bot.webhook.updates").tag("result", "malformed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refusesToRunWithoutASecretToken() {
+        assertThatThrownBy(() -> new WebhookUpdateServer(
+                new WebhookProperties(true, 0, PATH, " ", null), received::add, meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new WebhookUpdateServer(
+                new WebhookProperties(true, 0, PATH, null, null), received::add, meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private HttpResponse<Void> post(String body, String secret) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.port() + PATH))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (secret != null) {
+            request.header(WebhookUpdateServer.SECRET_TOKEN_HEADER, secret);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String recordedUpdate() throws Exception {
+        try (InputStream in = WebhookUpdateServerTest.class.getResourceAsStream("/telegram/update-message.json")) {
+            return new String(in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package esvar.ua.workinghoursbot.domain;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MonthScheduleTest {
+
+    @Test
+    void togglesAndCountsDays() {
+        YearMonth month = YearMonth.of(2024, 2);
+        MonthSchedule schedule = MonthSchedule.of(month, List.of(month.atDay(1), month.atDay(29), LocalDate.of(2024, 3, 1)));
+
+        assertThat(schedule.workingCount()).isEqualTo(2);
+        assertThat(schedule.offCount()).isEqualTo(27);
+        assertThat(schedule.contains(29)).isTrue();
+        assertThat(schedule.contains(LocalDate.of(2024, 3, 1))).isFalse();
+
+        MonthSchedule toggled = schedule.toggle(month.atDay(1)).toggle(15);
+        assertThat(schedule.contains(1)).isTrue();
+        assertThat(toggled.toDates()).containsExactly(month.atDay(15), month.atDay(29));
+        assertThat(toggled.cleared().isEmpty()).isTrue();
+    }
+
+    @Test
+    void rejectsDaysOutsideOfMonth() {
+        YearMonth month = YearMonth.of(2023, 2);
+
+        assertThatThrownBy(() -> new MonthSchedule(month, 1 << 28)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MonthSchedule.empty(month).toggle(29)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(new MonthSchedule(YearMonth.of(2023, 1), (int) ((1L << 31) - 1)).workingCount()).isEqualTo(31);
+    }
+}
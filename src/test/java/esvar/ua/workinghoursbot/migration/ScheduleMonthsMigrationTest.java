@@ -0,0 +1,64 @@
+package esvar.ua.workinghoursbot.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+class ScheduleMonthsMigrationTest {
+
+    @Test
+    void backfillsPackedMonthsFromScheduleDays() throws Exception {
+        Path dbPath = Path.of("target", "schedule_months_migration.db");
+        Files.deleteIfExists(dbPath);
+        String url = "jdbc:sqlite:" + dbPath.toAbsolutePath();
+
+        Flyway.configure()
+                .dataSource(url, "", "")
+                .locations("classpath:db/migration")
+                .mixed(true)
+                .target("11")
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO schedule_days (id, telegram_user_id, location_id, date, status, updated_at)
+                    VALUES ('d-1', 7, 'loc-1', '2024-01-01', 'WORK', '2024-01-01T00:00:00Z'),
+                           ('d-2', 7, 'loc-1', '2024-01-31', 'WORK', '2024-01-01T00:00:00Z'),
+                           ('d-3', 7, 'loc-1', '2024-01-15', 'OFF', '2024-01-01T00:00:00Z'),
+                           ('d-4', 7, 'loc-1', '2024-02-02', 'WORK', '2024-01-01T00:00:00Z')
+                    """);
+        }
+
+        Flyway.configure()
+                .dataSource(url, "", "")
+                .locations("classpath:db/migration")
+                .mixed(true)
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT id, month, work_mask FROM schedule_months WHERE telegram_user_id = 7 ORDER BY month"
+             )) {
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getString("month")).isEqualTo("2024-01");
+            assertThat(resultSet.getLong("work_mask")).isEqualTo(1L | 1L << 30);
+            assertThat(UUID.fromString(resultSet.getString("id"))).isNotNull();
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getString("month")).isEqualTo("2024-02");
+            assertThat(resultSet.getLong("work_mask")).isEqualTo(1L << 1);
+            assertThat(resultSet.next()).isFalse();
+        }
+    }
+}
@@ -21,6 +21,6 @@ class SimplifiedDomainMigrationTest {
                 .load();
 
         flyway.migrate();
-        assertEquals("10", flyway.info().current().getVersion().getVersion());
+        assertEquals("15", flyway.info().current().getVersion().getVersion());
     }
 }
@@ -0,0 +1,80 @@
+package esvar.ua.workinghoursbot.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import esvar.ua.workinghoursbot.domain.OutboxMessage;
+import esvar.ua.workinghoursbot.domain.OutboxStatus;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class OutboxMessageRepositoryTest {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void insertIfAbsentSkipsDuplicateKeysWithoutFailingTheTransaction() {
+        String key = "test-" + UUID.randomUUID();
+        OutboxMessage first = message(key);
+        OutboxMessage duplicate = message(key);
+
+        Boolean[] inserted = transactionTemplate.execute(status -> new Boolean[] {
+                outboxMessageRepository.insertIfAbsent(first),
+                outboxMessageRepository.insertIfAbsent(duplicate)
+        });
+
+        try {
+            assertThat(inserted).containsExactly(true, false);
+            OutboxMessage stored = outboxMessageRepository.findById(first.getId()).orElseThrow();
+            assertThat(stored.getIdempotencyKey()).isEqualTo(key);
+            assertThat(stored.getStatus()).isEqualTo(OutboxStatus.PENDING);
+            assertThat(stored.getCreatedAt()).isEqualTo(first.getCreatedAt());
+            assertThat(outboxMessageRepository.existsById(duplicate.getId())).isFalse();
+        } finally {
+            outboxMessageRepository.deleteById(first.getId());
+        }
+    }
+
+    @Test
+    void findReadyExcludingSkipsRowsInFlight() {
+        OutboxMessage inFlight = message("test-" + UUID.randomUUID());
+        OutboxMessage waiting = message("test-" + UUID.randomUUID());
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxMessageRepository.insertIfAbsent(inFlight);
+            outboxMessageRepository.insertIfAbsent(waiting);
+        });
+
+        try {
+            assertThat(outboxMessageRepository.findReadyExcluding(OutboxStatus.PENDING, 1_000L,
+                    List.of(inFlight.getId()), PageRequest.of(0, 1_000)))
+                    .extracting(OutboxMessage::getId)
+                    .contains(waiting.getId())
+                    .doesNotContain(inFlight.getId());
+        } finally {
+            outboxMessageRepository.deleteAllById(List.of(inFlight.getId(), waiting.getId()));
+        }
+    }
+
+    private static OutboxMessage message(String key) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(UUID.randomUUID());
+        message.setIdempotencyKey(key);
+        message.setChatId("42");
+        message.setMethodType("org.telegram.telegrambots.meta.api.methods.send.SendMessage");
+        message.setPayload("{\"chat_id\":\"42\",\"text\":\"hi\"}");
+        message.setStatus(OutboxStatus.PENDING);
+        message.setNextAttemptAt(1_000L);
+        message.setCreatedAt(Instant.parse("2024-01-01T09:00:00.123Z"));
+        return message;
+    }
+}
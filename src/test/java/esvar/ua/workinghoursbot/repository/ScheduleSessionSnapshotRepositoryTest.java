@@ -0,0 +1,62 @@
+package esvar.ua.workinghoursbot.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import esvar.ua.workinghoursbot.domain.ScheduleSessionSnapshot;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+class ScheduleSessionSnapshotRepositoryTest {
+
+    private static final Long TELEGRAM_USER_ID = 9_301L;
+
+    @Autowired
+    private ScheduleSessionSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void upsertAllInsertsNewRowsAndOverwritesExistingOnes() {
+        ScheduleSessionSnapshot first = snapshot("NORMAL", null, null, Instant.parse("2024-03-01T09:00:00.123Z"));
+        UUID locationId = UUID.randomUUID();
+        ScheduleSessionSnapshot second = snapshot("EDIT_SCHEDULE", locationId, YearMonth.of(2024, 3),
+                Instant.parse("2024-03-01T09:05:00Z"));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> snapshotRepository.upsertAll(List.of(first)));
+            transactionTemplate.executeWithoutResult(status -> snapshotRepository.upsertAll(List.of(second)));
+
+            ScheduleSessionSnapshot stored = snapshotRepository.findById(TELEGRAM_USER_ID).orElseThrow();
+            assertThat(stored.getMode()).isEqualTo("EDIT_SCHEDULE");
+            assertThat(stored.getActiveLocationId()).isEqualTo(locationId);
+            assertThat(stored.getActiveMonth()).isEqualTo(YearMonth.of(2024, 3));
+            assertThat(stored.getCalendarChatId()).isEqualTo(TELEGRAM_USER_ID);
+            assertThat(stored.getCalendarMessageId()).isEqualTo(31);
+            assertThat(stored.getDrafts()).isEqualTo(second.getDrafts());
+            assertThat(stored.getLastUpdatedAt()).isEqualTo(second.getLastUpdatedAt());
+        } finally {
+            snapshotRepository.deleteById(TELEGRAM_USER_ID);
+        }
+    }
+
+    private static ScheduleSessionSnapshot snapshot(String mode, UUID locationId, YearMonth month, Instant updatedAt) {
+        ScheduleSessionSnapshot snapshot = new ScheduleSessionSnapshot();
+        snapshot.setTelegramUserId(TELEGRAM_USER_ID);
+        snapshot.setMode(mode);
+        snapshot.setActiveLocationId(locationId);
+        snapshot.setActiveMonth(month);
+        snapshot.setCalendarChatId(locationId == null ? null : TELEGRAM_USER_ID);
+        snapshot.setCalendarMessageId(locationId == null ? null : 31);
+        snapshot.setDrafts(locationId == null ? new byte[0] : new byte[] {0, 0, 94, 2, 0, 0, 0, 5});
+        snapshot.setLastUpdatedAt(updatedAt);
+        return snapshot;
+    }
+}
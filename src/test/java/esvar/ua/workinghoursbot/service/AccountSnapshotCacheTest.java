@@ -0,0 +1,75 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import esvar.ua.workinghoursbot.config.AccountCacheProperties;
+import esvar.ua.workinghoursbot.domain.RegistrationStatus;
+import esvar.ua.workinghoursbot.domain.Role;
+import esvar.ua.workinghoursbot.domain.UserAccount;
+import esvar.ua.workinghoursbot.repository.UserAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AccountSnapshotCacheTest {
+
+    @Mock
+    private UserAccountRepository userAccountRepository;
+
+    @Test
+    void servesRepeatedLookupsFromCacheUntilInvalidated() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AccountSnapshotCache cache = new AccountSnapshotCache(
+                userAccountRepository,
+                new AccountCacheProperties(10, Duration.ofMinutes(1)),
+                Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC),
+                meterRegistry
+        );
+        UserAccount account = new UserAccount();
+        account.setTelegramUserId(5L);
+        account.setTelegramChatId(5L);
+        account.setRole(Role.SELLER);
+        account.setStatus(RegistrationStatus.APPROVED);
+        when(userAccountRepository.findByTelegramUserId(5L)).thenReturn(Optional.of(account));
+
+        assertThat(cache.find(5L)).map(AccountSnapshot::role).contains(Role.SELLER);
+        account.setRole(Role.SENIOR_SELLER);
+        assertThat(cache.find(5L)).map(AccountSnapshot::role).contains(Role.SELLER);
+
+        cache.onAccountChanged(new UserAccountChangedEvent(5L));
+        assertThat(cache.find(5L)).map(AccountSnapshot::role).contains(Role.SENIOR_SELLER);
+
+        verify(userAccountRepository, times(2)).findByTelegramUserId(5L);
+        assertThat(meterRegistry.get("bot.account.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bot.account.cache").tag("result", "miss").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void cachesMissingAccountsAndStaysBounded() {
+        AccountSnapshotCache cache = new AccountSnapshotCache(
+                userAccountRepository,
+                new AccountCacheProperties(2, Duration.ofMinutes(1)),
+                Clock.systemUTC(),
+                new SimpleMeterRegistry()
+        );
+
+        assertThat(cache.find(1L)).isEmpty();
+        assertThat(cache.find(1L)).isEmpty();
+        cache.find(2L);
+        cache.find(3L);
+
+        verify(userAccountRepository, times(1)).findByTelegramUserId(1L);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+}
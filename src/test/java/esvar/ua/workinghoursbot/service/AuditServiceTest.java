@@ -42,7 +42,7 @@ class AuditServiceTest {
         assertThat(saved.getEventType()).isEqualTo(AuditEventType.USER_START);
         assertThat(saved.getActorUserId()).isEqualTo(actorId);
         assertThat(saved.getLocationId()).isEqualTo(locationId);
-        verify(telegramSender).send(any(org.telegram.telegrambots.meta.api.methods.send.SendMessage.class));
+        verify(telegramSender).send(any(org.telegram.telegrambots.meta.api.methods.send.SendMessage.class), any());
     }
 
     @Test
@@ -54,6 +54,6 @@ class AuditServiceTest {
         auditService.log(AuditEventType.USER_START, null, null, null, "payload");
 
         verify(auditEventRepository).save(any(AuditEvent.class));
-        verify(telegramSender, never()).send(any(org.telegram.telegrambots.meta.api.methods.send.SendMessage.class));
+        verify(telegramSender, never()).send(any(org.telegram.telegrambots.meta.api.methods.send.SendMessage.class), any());
     }
 }
@@ -0,0 +1,69 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import esvar.ua.workinghoursbot.bot.OutboundLane;
+import esvar.ua.workinghoursbot.bot.OutboundMessageScheduler;
+import esvar.ua.workinghoursbot.repository.OfferMessageRef;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+
+@ExtendWith(MockitoExtension.class)
+class CandidateOfferExpiryRelayTest {
+
+    @Mock
+    private OutboundMessageScheduler scheduler;
+
+    @Test
+    void stripsEachExpiredOfferOnceOnTheBulkLaneAndTracksTheBatch() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CandidateOfferExpiryRelay relay = new CandidateOfferExpiryRelay(
+                scheduler, new TelegramNotificationService(), meterRegistry);
+        CompletableFuture<Serializable> failing = new CompletableFuture<>();
+        when(scheduler.submit(any(EditMessageText.class), eq(OutboundLane.BULK)))
+                .thenReturn(CompletableFuture.completedFuture(true))
+                .thenReturn(failing);
+
+        CompletableFuture<Void> done = relay.strip(new CandidateOffersExpiredEvent(UUID.randomUUID(), List.of(
+                new OfferMessageRef(1L, 10L),
+                new OfferMessageRef(1L, 10L),
+                new OfferMessageRef(2L, 20L)
+        ), "✅ Підміну вже взяли, дякуємо."));
+
+        ArgumentCaptor<EditMessageText> edits = ArgumentCaptor.forClass(EditMessageText.class);
+        verify(scheduler, times(2)).submit(edits.capture(), eq(OutboundLane.BULK));
+        assertThat(edits.getAllValues())
+                .extracting(EditMessageText::getChatId, EditMessageText::getMessageId)
+                .containsExactly(
+                        tuple("1", 10),
+                        tuple("2", 20)
+                );
+        assertThat(edits.getAllValues()).allSatisfy(edit -> {
+            assertThat(edit.getText()).isEqualTo("✅ Підміну вже взяли, дякуємо.");
+            assertThat(edit.getReplyMarkup()).isNull();
+        });
+        assertThat(done).isNotDone();
+
+        failing.completeExceptionally(new IllegalStateException("message to edit not found"));
+
+        assertThat(done).isCompleted();
+        assertThat(meterRegistry.get("bot.substitution.offer.strip").tag("result", "ok").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bot.substitution.offer.strip").tag("result", "failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bot.substitution.offer.expiry").timer().count()).isEqualTo(1);
+    }
+}
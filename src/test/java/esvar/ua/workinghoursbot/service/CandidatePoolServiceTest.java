@@ -0,0 +1,126 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import esvar.ua.workinghoursbot.config.CandidatePoolProperties;
+import esvar.ua.workinghoursbot.domain.RegistrationStatus;
+import esvar.ua.workinghoursbot.domain.ScheduleStatus;
+import esvar.ua.workinghoursbot.domain.SubstitutionRequestScope;
+import esvar.ua.workinghoursbot.domain.UserAccount;
+import esvar.ua.workinghoursbot.repository.ScheduleDayRepository;
+import esvar.ua.workinghoursbot.repository.UserAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CandidatePoolServiceTest {
+
+    private static final UUID LOCATION_ID = UUID.randomUUID();
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 10);
+
+    @Mock
+    private UserAccountRepository userAccountRepository;
+
+    @Mock
+    private ScheduleDayRepository scheduleDayRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CandidatePoolService service;
+
+    private UserAccount requester;
+    private UserAccount busy;
+    private UserAccount free;
+
+    @BeforeEach
+    void setUp() {
+        service = new CandidatePoolService(
+                userAccountRepository,
+                scheduleDayRepository,
+                new CandidatePoolProperties(Duration.ofMinutes(10)),
+                Clock.fixed(Instant.parse("2024-03-01T00:00:00Z"), ZoneOffset.UTC),
+                meterRegistry
+        );
+        requester = account("Requester", 1L);
+        busy = account("Busy", 2L);
+        free = account("Free", 3L);
+        when(userAccountRepository.findByStatusAndRoleInAndLocation_Id(eq(RegistrationStatus.APPROVED), anyList(),
+                eq(LOCATION_ID))).thenReturn(List.of(requester, busy, free));
+    }
+
+    @Test
+    void repeatedSearchesReuseThePoolAndWorkingSet() {
+        when(scheduleDayRepository.findTelegramUserIdsByDateAndStatus(DATE, ScheduleStatus.WORK)).thenReturn(Set.of(2L));
+
+        List<AccountSnapshot> first = service.findFree(SubstitutionRequestScope.LOCATION, LOCATION_ID, DATE,
+                requester.getId());
+        List<AccountSnapshot> second = service.findFree(SubstitutionRequestScope.LOCATION, LOCATION_ID, DATE,
+                requester.getId());
+
+        assertThat(first).extracting(AccountSnapshot::lastName).containsExactly("Free");
+        assertThat(second).isEqualTo(first);
+        verify(userAccountRepository, times(1)).findByStatusAndRoleInAndLocation_Id(eq(RegistrationStatus.APPROVED),
+                anyList(), eq(LOCATION_ID));
+        verify(scheduleDayRepository, times(1)).findTelegramUserIdsByDateAndStatus(DATE, ScheduleStatus.WORK);
+        assertThat(meterRegistry.get("bot.candidate.pool").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void scheduleChangeReloadsWorkingSetOfThatMonth() {
+        when(scheduleDayRepository.findTelegramUserIdsByDateAndStatus(DATE, ScheduleStatus.WORK))
+                .thenReturn(Set.of(2L))
+                .thenReturn(Set.of(3L));
+
+        assertThat(service.findFree(SubstitutionRequestScope.LOCATION, LOCATION_ID, DATE, null))
+                .extracting(AccountSnapshot::lastName)
+                .containsExactly("Free", "Requester");
+
+        service.onScheduleChanged(new ScheduleChangedEvent(LOCATION_ID, YearMonth.from(DATE)));
+
+        assertThat(service.findFree(SubstitutionRequestScope.LOCATION, LOCATION_ID, DATE, null))
+                .extracting(AccountSnapshot::lastName)
+                .containsExactly("Busy", "Requester");
+        verify(userAccountRepository, times(1)).findByStatusAndRoleInAndLocation_Id(eq(RegistrationStatus.APPROVED),
+                anyList(), eq(LOCATION_ID));
+    }
+
+    @Test
+    void locationChangeReloadsThePool() {
+        when(scheduleDayRepository.findTelegramUserIdsByDateAndStatus(DATE, ScheduleStatus.WORK)).thenReturn(Set.of());
+
+        service.findFree(SubstitutionRequestScope.LOCATION, LOCATION_ID, DATE, null);
+        service.onLocationChanged(new LocationChangedEvent(LOCATION_ID));
+        service.findFree(SubstitutionRequestScope.LOCATION, LOCATION_ID, DATE, null);
+
+        verify(userAccountRepository, times(2)).findByStatusAndRoleInAndLocation_Id(eq(RegistrationStatus.APPROVED),
+                anyList(), eq(LOCATION_ID));
+    }
+
+    private static UserAccount account(String lastName, Long telegramUserId) {
+        UserAccount account = new UserAccount();
+        account.setId(UUID.randomUUID());
+        account.setTelegramUserId(telegramUserId);
+        account.setTelegramChatId(telegramUserId);
+        account.setLastName(lastName);
+        account.setStatus(RegistrationStatus.APPROVED);
+        return account;
+    }
+}
@@ -0,0 +1,127 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import esvar.ua.workinghoursbot.domain.JobCheckpoint;
+import esvar.ua.workinghoursbot.repository.JobCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedJobRunnerTest {
+
+    private static final List<String> ITEMS = List.of("a", "b", "c", "d", "e");
+
+    @Mock
+    private JobCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicReference<JobCheckpoint> stored = new AtomicReference<>();
+
+    private ChunkedJobRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T16:00:00Z"), ZoneId.of("Europe/Kiev"));
+        runner = new ChunkedJobRunner(checkpointRepository, new TransactionTemplate(transactionManager),
+                meterRegistry, clock);
+        when(checkpointRepository.findById("job")).thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+        when(checkpointRepository.save(any())).thenAnswer(invocation -> {
+            stored.set(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    void skipsAnItemThatKeepsFailingAndRecordsItsKey() {
+        List<String> seen = new ArrayList<>();
+
+        long processed = runner.run("job", "2024-01-01", 2, this::fetch, item -> item, item -> {
+            if (item.equals("d")) {
+                throw new IllegalStateException("boom");
+            }
+            seen.add(item);
+        });
+
+        assertThat(processed).isEqualTo(4);
+        // "c" ran once in the rolled back chunk and once on its own.
+        assertThat(seen).containsExactly("a", "b", "c", "c", "e");
+        assertThat(stored.get().getFailedKeys()).isEqualTo("d");
+        assertThat(stored.get().getProcessed()).isEqualTo(4);
+        assertThat(stored.get().getCompletedAt()).isNotNull();
+        assertThat(meterRegistry.counter("bot.job.item.failures", "job", "job").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("bot.job.failures", "job", "job").count()).isZero();
+        verify(transactionManager, times(2)).rollback(any());
+
+        runner.run("job", "2024-01-02", 2, this::fetch, item -> item, item -> { });
+        assertThat(stored.get().getFailedKeys()).isNull();
+    }
+
+    @Test
+    void stopsWhenAChunkCannotBeFetchedAndResumesAfterLastCommittedKey() {
+        List<String> seen = new ArrayList<>();
+        AtomicBoolean sourceDown = new AtomicBoolean(true);
+
+        long firstRun = runner.run("job", "2024-01-01", 2, (afterKey, limit) -> {
+            if ("b".equals(afterKey) && sourceDown.get()) {
+                throw new IllegalStateException("database is locked");
+            }
+            return fetch(afterKey, limit);
+        }, item -> item, seen::add);
+
+        assertThat(firstRun).isEqualTo(2);
+        assertThat(stored.get().getLastKey()).isEqualTo("b");
+        assertThat(runner.isUnfinished("job", "2024-01-01")).isTrue();
+        assertThat(meterRegistry.counter("bot.job.failures", "job", "job").count()).isEqualTo(1);
+
+        sourceDown.set(false);
+        long secondRun = runner.run("job", "2024-01-01", 2, this::fetch, item -> item, seen::add);
+
+        assertThat(secondRun).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(ITEMS);
+        assertThat(stored.get().getProcessed()).isEqualTo(5);
+        assertThat(stored.get().getCompletedAt()).isNotNull();
+        assertThat(meterRegistry.counter("bot.job.items", "job", "job").count()).isEqualTo(5);
+        assertThat(meterRegistry.timer("bot.job.chunk", "job", "job").count()).isEqualTo(3);
+    }
+
+    @Test
+    void finishedCheckpointStartsNextRunFromTheBeginning() {
+        runner.run("job", "2024-01-01", 10, this::fetch, item -> item, item -> { });
+        List<String> seen = new ArrayList<>();
+
+        runner.run("job", "2024-01-02", 10, this::fetch, item -> item, seen::add);
+
+        assertThat(seen).containsExactlyElementsOf(ITEMS);
+        assertThat(stored.get().getRunKey()).isEqualTo("2024-01-02");
+    }
+
+    private List<String> fetch(String afterKey, int limit) {
+        return ITEMS.stream()
+                .filter(item -> afterKey == null || item.compareTo(afterKey) > 0)
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,175 @@
+package esvar.ua.workinghoursbot.service;
+
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link MonthTableRenderer} with the grids the TM and seller views rendered before it, copied here
+ * unchanged. Not run by the build; after {@code mvn test-compile}, start {@link #main} with the test classpath. Add
+ * {@code -prof gc} on the JMH command line to see allocation per render.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonthTableRendererBenchmark {
+
+    private static final List<String> WEEKDAY_LABELS = List.of("Пн", "Вт", "Ср", "Чт", "Пт", "Сб", "Нд");
+    private static final int CELL_WIDTH = 4;
+
+    private final StringBuilder out = new StringBuilder(1024);
+    private YearMonth month;
+    private MonthSchedule workDays;
+    private String[] markerByDay;
+
+    @Setup
+    public void setUp() {
+        month = YearMonth.of(2024, 3);
+        workDays = MonthSchedule.of(month, LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 5),
+                LocalDate.of(2024, 3, 18), LocalDate.of(2024, 3, 31));
+        markerByDay = new String[month.lengthOfMonth() + 1];
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            markerByDay[day] = day % 3 == 0 ? "🔵" : day % 3 == 1 ? "🟢" : null;
+        }
+    }
+
+    @Benchmark
+    public int sharedSellerTable() {
+        out.setLength(0);
+        MonthTableRenderer.appendTable(out, month, day -> workDays.contains(day) ? "✅" : "❌");
+        return out.length();
+    }
+
+    @Benchmark
+    public int sharedTmTable() {
+        out.setLength(0);
+        MonthTableRenderer.appendTable(out, month, day -> markerByDay[day] == null ? "·" : markerByDay[day]);
+        return out.length();
+    }
+
+    /**
+     * The TM grid as {@code TmScheduleCalendarService.buildTable} rendered it before the shared renderer.
+     */
+    @Benchmark
+    public String previousTmTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(previousTmHeaderRow()).append("\n");
+        LocalDate firstDay = month.atDay(1);
+        int startIndex = firstDay.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
+        int day = 1;
+        int daysInMonth = month.lengthOfMonth();
+        for (int week = 0; week < 6 && day <= daysInMonth; week++) {
+            StringBuilder row = new StringBuilder();
+            for (int weekday = 0; weekday < 7; weekday++) {
+                if (week == 0 && weekday < startIndex || day > daysInMonth) {
+                    row.append(previousTmPadCell(""));
+                } else {
+                    String marker = markerByDay[day] == null ? "·" : markerByDay[day];
+                    String cell = (day < 10 ? "0" : "") + day + marker;
+                    row.append(previousTmPadCell(cell));
+                    day++;
+                }
+            }
+            table.append(row.toString().stripTrailing());
+            if (day <= daysInMonth) {
+                table.append("\n");
+            }
+        }
+        return table.toString();
+    }
+
+    /**
+     * The seller grid as {@code ScheduleRenderer.appendHeaderRow}/{@code appendWeeks} rendered it before the
+     * shared renderer.
+     */
+    @Benchmark
+    public int previousSellerTable() {
+        out.setLength(0);
+        int headerStart = out.length();
+        for (String label : WEEKDAY_LABELS) {
+            int cellStart = out.length();
+            out.append(label);
+            previousSellerAppendCell(out, cellStart);
+        }
+        previousSellerStripTrailing(out, headerStart);
+        out.append("\n");
+        int startIndex = month.atDay(1).getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue();
+        int day = 1;
+        int daysInMonth = month.lengthOfMonth();
+        for (int week = 0; week < 6 && day <= daysInMonth; week++) {
+            int rowStart = out.length();
+            for (int weekday = 0; weekday < 7; weekday++) {
+                int cellStart = out.length();
+                if (!(week == 0 && weekday < startIndex || day > daysInMonth)) {
+                    out.append((char) ('0' + day / 10))
+                            .append((char) ('0' + day % 10))
+                            .append(workDays.contains(day) ? '✅' : '❌');
+                    day++;
+                }
+                previousSellerAppendCell(out, cellStart);
+            }
+            previousSellerStripTrailing(out, rowStart);
+            if (day <= daysInMonth) {
+                out.append("\n");
+            }
+        }
+        return out.length();
+    }
+
+    private static String previousTmHeaderRow() {
+        StringBuilder row = new StringBuilder();
+        for (String label : WEEKDAY_LABELS) {
+            row.append(previousTmPadCell(label));
+        }
+        return row.toString().stripTrailing();
+    }
+
+    private static String previousTmPadCell(String value) {
+        String padded = value == null ? "" : value;
+        if (padded.length() >= CELL_WIDTH) {
+            return padded + " ";
+        }
+        return String.format("%1$-" + CELL_WIDTH + "s", padded);
+    }
+
+    private static void previousSellerAppendCell(StringBuilder table, int cellStart) {
+        int length = table.length() - cellStart;
+        int padding = length >= CELL_WIDTH ? 1 : CELL_WIDTH - length;
+        for (int i = 0; i < padding; i++) {
+            table.append(' ');
+        }
+    }
+
+    private static void previousSellerStripTrailing(StringBuilder table, int rowStart) {
+        int end = table.length();
+        while (end > rowStart && table.charAt(end - 1) == ' ') {
+            end--;
+        }
+        table.setLength(end);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MonthTableRendererBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
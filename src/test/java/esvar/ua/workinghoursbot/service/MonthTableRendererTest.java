@@ -0,0 +1,24 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.YearMonth;
+import org.junit.jupiter.api.Test;
+
+class MonthTableRendererTest {
+
+    @Test
+    void padsCellsByMarkerWidthAndStripsRowEnds() {
+        StringBuilder out = new StringBuilder("<pre>");
+
+        MonthTableRenderer.appendTable(out, YearMonth.of(2024, 2), day -> day == 1 ? "🔵" : day % 7 == 0 ? "·" : "");
+
+        assertThat(out.toString()).isEqualTo("<pre>"
+                + "Пн  Вт  Ср  Чт  Пт  Сб  Нд\n"
+                + "            01🔵 02  03  04\n"
+                + "05  06  07· 08  09  10  11\n"
+                + "12  13  14· 15  16  17  18\n"
+                + "19  20  21· 22  23  24  25\n"
+                + "26  27  28· 29");
+    }
+}
@@ -0,0 +1,37 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import esvar.ua.workinghoursbot.config.SessionStoreProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class OfferAcceptanceGateTest {
+
+    @Test
+    void wonClaimIsDroppedOnceIdleForTheStoreTtl() {
+        AtomicLong now = new AtomicLong(Instant.parse("2024-03-01T10:00:00Z").toEpochMilli());
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.millis()).thenAnswer(invocation -> now.get());
+        SessionStores sessionStores = new SessionStores(
+                new SessionStoreProperties(100, Duration.ofMinutes(30), Map.of()), clock, new SimpleMeterRegistry());
+        OfferAcceptanceGate gate = new OfferAcceptanceGate(sessionStores, new SimpleMeterRegistry());
+        UUID requestId = UUID.randomUUID();
+
+        assertThat(gate.tryClaim(requestId, 1L)).isTrue();
+        gate.settle(requestId, true);
+        assertThat(gate.tryClaim(requestId, 2L)).isFalse();
+
+        now.addAndGet(Duration.ofMinutes(31).toMillis());
+        sessionStores.expire();
+
+        assertThat(gate.tryClaim(requestId, 3L)).isTrue();
+    }
+}
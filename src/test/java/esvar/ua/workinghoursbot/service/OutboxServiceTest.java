@@ -0,0 +1,120 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import esvar.ua.workinghoursbot.bot.InlineKeyboardFactory;
+import esvar.ua.workinghoursbot.bot.KeyboardFactory;
+import esvar.ua.workinghoursbot.config.OutboxProperties;
+import esvar.ua.workinghoursbot.domain.OutboxMessage;
+import esvar.ua.workinghoursbot.domain.OutboxStatus;
+import esvar.ua.workinghoursbot.repository.OutboxMessageRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-01-01T09:00:00Z"), ZoneId.of("Europe/Kiev"));
+
+    private OutboxService service;
+
+    @BeforeEach
+    void setUp() {
+        OutboxProperties properties = new OutboxProperties(10, 3, Duration.ofSeconds(5), Duration.ofSeconds(12),
+                Duration.ofDays(7));
+        service = new OutboxService(outboxMessageRepository, properties, eventPublisher, clock);
+    }
+
+    @Test
+    void enqueueStoresDecodableMessageAndSkipsDuplicates() {
+        // The second insert hits the unique key, as a concurrent or repeated enqueue would.
+        when(outboxMessageRepository.insertIfAbsent(any())).thenReturn(true, false);
+        SendMessage message = SendMessage.builder()
+                .chatId("42")
+                .text("✅ Підтвердження виходу на зміну")
+                .replyMarkup(KeyboardFactory.yesNoKeyboard())
+                .build();
+
+        service.enqueue(message, "k1");
+        service.enqueue(message, "k1");
+
+        ArgumentCaptor<OutboxMessage> captor = ArgumentCaptor.forClass(OutboxMessage.class);
+        verify(outboxMessageRepository, times(2)).insertIfAbsent(captor.capture());
+        OutboxMessage stored = captor.getAllValues().get(0);
+        verify(eventPublisher).publishEvent(new OutboxEnqueuedEvent(stored.getId()));
+        assertThat(stored.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(stored.getChatId()).isEqualTo("42");
+        assertThat(stored.getNextAttemptAt()).isEqualTo(clock.millis());
+
+        SendMessage decoded = (SendMessage) service.decode(stored);
+        assertThat(decoded.getText()).isEqualTo(message.getText());
+        assertThat(decoded.getReplyMarkup()).isInstanceOf(ReplyKeyboardMarkup.class);
+    }
+
+    @Test
+    void decodesInlineKeyboardEdits() {
+        EditMessageText edit = EditMessageText.builder()
+                .chatId("42")
+                .messageId(7)
+                .text("text")
+                .replyMarkup(InlineKeyboardFactory.rows(List.of(
+                        List.of(InlineKeyboardFactory.button("Так", "YES")))))
+                .build();
+        when(outboxMessageRepository.insertIfAbsent(any())).thenReturn(true);
+
+        service.enqueue(edit, "k2");
+
+        ArgumentCaptor<OutboxMessage> captor = ArgumentCaptor.forClass(OutboxMessage.class);
+        verify(outboxMessageRepository).insertIfAbsent(captor.capture());
+        EditMessageText decoded = (EditMessageText) service.decode(captor.getValue());
+        assertThat(decoded.getMessageId()).isEqualTo(7);
+        assertThat(decoded.getReplyMarkup()).isInstanceOf(InlineKeyboardMarkup.class);
+        assertThat(decoded.getReplyMarkup().getKeyboard().get(0).get(0).getCallbackData()).isEqualTo("YES");
+    }
+
+    @Test
+    void failuresBackOffExponentiallyUntilDropped() {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(UUID.randomUUID());
+        message.setStatus(OutboxStatus.PENDING);
+        when(outboxMessageRepository.findById(message.getId())).thenReturn(Optional.of(message));
+
+        service.markFailed(message.getId(), new IllegalStateException("timeout"), false);
+        assertThat(message.getNextAttemptAt()).isEqualTo(clock.millis() + 5_000);
+        service.markFailed(message.getId(), new IllegalStateException("timeout"), false);
+        assertThat(message.getNextAttemptAt()).isEqualTo(clock.millis() + 10_000);
+        assertThat(message.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        service.markFailed(message.getId(), new IllegalStateException("timeout"), false);
+
+        assertThat(message.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(service.backoff(5)).isEqualTo(Duration.ofSeconds(12));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
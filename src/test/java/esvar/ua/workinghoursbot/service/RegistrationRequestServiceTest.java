@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class RegistrationRequestServiceTest {
@@ -28,12 +29,14 @@ class RegistrationRequestServiceTest {
     private UserAccountRepository userAccountRepository;
     @Mock
     private AuditService auditService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     private RegistrationRequestService service;
 
     @BeforeEach
     void setUp() {
-        service = new RegistrationRequestService(userAccountRepository, auditService);
+        service = new RegistrationRequestService(userAccountRepository, auditService, eventPublisher);
     }
 
     @Test
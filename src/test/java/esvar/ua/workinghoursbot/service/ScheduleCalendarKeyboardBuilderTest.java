@@ -0,0 +1,55 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import esvar.ua.workinghoursbot.config.SessionStoreProperties;
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+class ScheduleCalendarKeyboardBuilderTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 2);
+
+    private final ScheduleCalendarKeyboardBuilder builder = new ScheduleCalendarKeyboardBuilder(new SessionStores(
+            new SessionStoreProperties(100, Duration.ofMinutes(30), null),
+            Clock.systemUTC(),
+            new SimpleMeterRegistry()
+    ));
+
+    @Test
+    void laysOutTheMonthFromTheTemplate() {
+        InlineKeyboardMarkup keyboard = builder.buildEditKeyboard(MonthSchedule.of(MONTH, LocalDate.of(2024, 2, 1)));
+
+        List<List<InlineKeyboardButton>> rows = keyboard.getKeyboard();
+        assertThat(rows).hasSize(6);
+        assertThat(rows.get(0)).extracting(InlineKeyboardButton::getText)
+                .containsExactly("Пн", "Вт", "Ср", "Чт", "Пт", "Сб", "Нд");
+        assertThat(rows.get(1)).extracting(InlineKeyboardButton::getText)
+                .containsExactly("·", "·", "·", "01✅", "02❌", "03❌", "04❌");
+        assertThat(rows.get(1).get(3).getCallbackData()).isEqualTo("E:D:2024-02-01");
+        assertThat(rows.get(5)).extracting(InlineKeyboardButton::getText)
+                .containsExactly("26❌", "27❌", "28❌", "29❌", "·", "·", "·");
+    }
+
+    @Test
+    void sharesUnchangedCellsBetweenToggles() {
+        MonthSchedule before = MonthSchedule.of(MONTH, LocalDate.of(2024, 2, 1));
+        MonthSchedule after = MonthSchedule.of(MONTH, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 2));
+
+        List<List<InlineKeyboardButton>> first = builder.buildEditKeyboard(before).getKeyboard();
+        List<List<InlineKeyboardButton>> second = builder.buildEditKeyboard(after).getKeyboard();
+
+        assertThat(second.get(0)).isSameAs(first.get(0));
+        assertThat(second.get(1).get(3)).isSameAs(first.get(1).get(3));
+        assertThat(second.get(1).get(4)).isNotSameAs(first.get(1).get(4));
+        assertThat(second.get(1).get(4).getText()).isEqualTo("02✅");
+    }
+}
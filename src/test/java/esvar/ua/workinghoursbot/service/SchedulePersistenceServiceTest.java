@@ -0,0 +1,117 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import esvar.ua.workinghoursbot.domain.Location;
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
+import esvar.ua.workinghoursbot.domain.ScheduleDay;
+import esvar.ua.workinghoursbot.domain.ScheduleStatus;
+import esvar.ua.workinghoursbot.domain.ScheduleMonth;
+import esvar.ua.workinghoursbot.repository.LocationRepository;
+import esvar.ua.workinghoursbot.repository.ScheduleDayRepository;
+import esvar.ua.workinghoursbot.repository.ScheduleMonthRepository;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class SchedulePersistenceServiceTest {
+
+    private static final UUID LOCATION_ID = UUID.fromString("00000000-0000-0000-0000-000000009100");
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2030, 3);
+    private static final YearMonth LAST_MONTH = YearMonth.of(2030, 5);
+
+    @Autowired
+    private SchedulePersistenceService schedulePersistenceService;
+
+    @Autowired
+    private ScheduleDayRepository scheduleDayRepository;
+
+    @Autowired
+    private ScheduleMonthRepository scheduleMonthRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        Location location = new Location();
+        location.setId(LOCATION_ID);
+        location.setCode("SPT9100");
+        location.setName("Schedule persistence test");
+        locationRepository.save(location);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        scheduleDayRepository.deleteAll(scheduleDayRepository.findByLocationIdAndDateBetween(
+                LOCATION_ID, FIRST_MONTH.atDay(1), LAST_MONTH.atEndOfMonth()));
+        for (YearMonth month = FIRST_MONTH; !month.isAfter(LAST_MONTH); month = month.plusMonths(1)) {
+            scheduleMonthRepository.deleteAll(scheduleMonthRepository.findByLocationIdAndMonth(LOCATION_ID, month));
+        }
+        locationRepository.findById(LOCATION_ID).ifPresent(locationRepository::delete);
+    }
+
+    @Test
+    void saveMonthOnlyRewritesChangedDates() {
+        Long userId = 9_101L;
+        UUID locationId = LOCATION_ID;
+        YearMonth month = FIRST_MONTH;
+        schedulePersistenceService.saveMonth(userId, locationId,
+                MonthSchedule.of(month, month.atDay(1), month.atDay(2), month.atDay(3)));
+        LocalDate offDay = month.atDay(5);
+        ScheduleDay off = new ScheduleDay();
+        off.setTelegramUserId(userId);
+        off.setLocationId(locationId);
+        off.setDate(offDay);
+        off.setStatus(ScheduleStatus.OFF);
+        scheduleDayRepository.save(off);
+        Map<LocalDate, UUID> before = idsByDate(userId, locationId, month);
+
+        schedulePersistenceService.saveMonth(userId, locationId,
+                MonthSchedule.of(month, month.atDay(2), month.atDay(3), month.atDay(4), offDay, month.plusMonths(1).atDay(1)));
+        Map<LocalDate, UUID> after = idsByDate(userId, locationId, month);
+
+        assertThat(schedulePersistenceService.loadMonth(userId, locationId, month).toDates())
+                .containsExactly(month.atDay(2), month.atDay(3), month.atDay(4), offDay);
+        assertThat(after).doesNotContainKey(month.atDay(1));
+        assertThat(after.get(month.atDay(2))).isEqualTo(before.get(month.atDay(2)));
+        assertThat(after.get(month.atDay(3))).isEqualTo(before.get(month.atDay(3)));
+        assertThat(after.get(offDay)).isEqualTo(off.getId());
+        assertThat(schedulePersistenceService.loadMonth(userId, locationId, month.plusMonths(1)).isEmpty()).isTrue();
+    }
+
+    @Test
+    void writesPackedMonthAlongsideRows() {
+        Long userId = 9_201L;
+        Long replacementId = 9_202L;
+        UUID locationId = LOCATION_ID;
+        YearMonth month = FIRST_MONTH.plusMonths(1);
+        schedulePersistenceService.saveMonth(userId, locationId, MonthSchedule.of(month, month.atDay(1), month.atDay(30)));
+
+        schedulePersistenceService.applyReplacement(userId, replacementId, locationId, month.atDay(30));
+
+        assertThat(scheduleMonthRepository.findByTelegramUserIdAndLocationIdAndMonth(userId, locationId, month))
+                .map(ScheduleMonth::getWorkMask)
+                .contains(1);
+        assertThat(schedulePersistenceService.loadLocationMonth(locationId, month))
+                .containsEntry(userId, MonthSchedule.of(month, month.atDay(1)))
+                .containsEntry(replacementId, MonthSchedule.of(month, month.atDay(30)));
+        assertThat(scheduleMonthRepository.findByLocationIdAndMonth(locationId, month)).hasSize(2);
+    }
+
+    private Map<LocalDate, UUID> idsByDate(Long userId, UUID locationId, YearMonth month) {
+        return scheduleDayRepository.findByTelegramUserIdAndLocationIdAndDateBetween(
+                        userId, locationId, month.atDay(1), month.atEndOfMonth())
+                .stream()
+                .collect(Collectors.toMap(ScheduleDay::getDate, ScheduleDay::getId));
+    }
+}
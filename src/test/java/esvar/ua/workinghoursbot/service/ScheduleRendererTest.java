@@ -1,8 +1,8 @@
 package esvar.ua.workinghoursbot.service;
 
+import esvar.ua.workinghoursbot.domain.MonthSchedule;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -13,10 +13,10 @@ class ScheduleRendererTest {
     void rendersMonospacedCalendarWithHeader() {
         ScheduleRenderer renderer = new ScheduleRenderer();
         YearMonth month = YearMonth.of(2024, 1);
-        Set<LocalDate> workDays = Set.of(LocalDate.of(2024, 1, 1));
+        MonthSchedule workDays = MonthSchedule.of(month, LocalDate.of(2024, 1, 1));
 
         ScheduleService.ScheduleSummary summary = new ScheduleService.ScheduleSummary(1, 30, 31);
-        String output = renderer.renderMonthTable("Тест", month, workDays, summary);
+        String output = renderer.renderMonthTable("Тест", workDays, summary);
 
         assertThat(output).contains("<pre>");
         assertThat(output).contains("</pre>");
@@ -24,5 +24,6 @@ class ScheduleRendererTest {
         assertThat(output).contains("01✅");
         assertThat(output).contains("02❌");
         assertThat(output).contains("Робочі: 1 | Вихідні: 30");
+        assertThat(output).contains("01✅ 02❌ 03❌ 04❌ 05❌ 06❌ 07❌\n08❌");
     }
 }
@@ -0,0 +1,117 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import esvar.ua.workinghoursbot.config.SessionStoreProperties;
+import esvar.ua.workinghoursbot.domain.ScheduleSessionSnapshot;
+import esvar.ua.workinghoursbot.repository.ScheduleSessionSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleSessionStoreTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    @Mock
+    private ScheduleSessionSnapshotRepository snapshotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Clock clock;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushesChangedSessionsOnceAndRestoresTheirDrafts() {
+        ScheduleSessionStore store = store(Clock.systemUTC());
+        UUID locationId = UUID.randomUUID();
+        ScheduleSession session = store.getOrCreate(7L);
+        session.setMode(InteractionMode.EDIT_SCHEDULE);
+        session.setActiveLocationId(locationId);
+        session.setActiveYearMonth(MONTH);
+        session.toggleDraftDay(MONTH.atDay(3));
+        session.toggleDraftDay(MONTH.atDay(31));
+
+        store.flush();
+        store.flush();
+
+        ArgumentCaptor<List<ScheduleSessionSnapshot>> saved = ArgumentCaptor.forClass(List.class);
+        verify(snapshotRepository, times(1)).upsertAll(saved.capture());
+        assertThat(saved.getValue()).hasSize(1);
+        assertThat(saved.getValue().get(0).getDrafts()).hasSize(8);
+
+        ScheduleSessionStore restarted = store(Clock.systemUTC());
+        when(snapshotRepository.findAll()).thenReturn(saved.getValue());
+        restarted.restore();
+
+        ScheduleSession restored = restarted.find(7L).orElseThrow();
+        assertThat(restored.getMode()).isEqualTo(InteractionMode.EDIT_SCHEDULE);
+        assertThat(restored.getActiveLocationId()).isEqualTo(locationId);
+        assertThat(restored.getActiveYearMonth()).isEqualTo(MONTH);
+        assertThat(restored.getOrCreateDraft(MONTH).toDates())
+                .containsExactly(MONTH.atDay(3), LocalDate.of(2024, 3, 31));
+        restarted.flush();
+        verify(snapshotRepository, times(1)).upsertAll(anyList());
+    }
+
+    @Test
+    void evictsIdleSessionsAndDropsTheirSnapshots() {
+        AtomicLong now = new AtomicLong(Instant.parse("2024-03-01T10:00:00Z").toEpochMilli());
+        when(clock.millis()).thenAnswer(invocation -> now.get());
+        SessionStores sessionStores = sessionStores(clock);
+        ScheduleSessionStore store = store(sessionStores, clock);
+        store.getOrCreate(7L).toggleDraftDay(MONTH.atDay(1));
+
+        now.addAndGet(Duration.ofHours(25).toMillis());
+        sessionStores.expire();
+        store.flush();
+
+        assertThat(store.find(7L)).isEmpty();
+        verify(snapshotRepository).deleteAllByIdInBatch(Set.of(7L));
+        verify(snapshotRepository, never()).upsertAll(anyList());
+    }
+
+    private ScheduleSessionStore store(Clock clock) {
+        return store(sessionStores(clock), clock);
+    }
+
+    private ScheduleSessionStore store(SessionStores sessionStores, Clock clock) {
+        return new ScheduleSessionStore(
+                snapshotRepository,
+                sessionStores,
+                new TransactionTemplate(transactionManager),
+                clock,
+                new SimpleMeterRegistry()
+        );
+    }
+
+    private static SessionStores sessionStores(Clock clock) {
+        return new SessionStores(
+                new SessionStoreProperties(100, Duration.ofHours(24), null),
+                clock,
+                new SimpleMeterRegistry()
+        );
+    }
+}
@@ -15,11 +15,14 @@ class ScheduleSessionTest {
         YearMonth next = current.plusMonths(1);
         LocalDate day = current.atDay(10);
 
-        session.getOrCreateDraft(current).add(day);
+        session.toggleDraftDay(day);
         assertThat(session.hasDraft(current)).isTrue();
-        assertThat(session.getOrCreateDraft(current)).contains(day);
+        assertThat(session.getOrCreateDraft(current).contains(day)).isTrue();
 
         assertThat(session.hasDraft(next)).isFalse();
-        assertThat(session.getOrCreateDraft(next)).isEmpty();
+        assertThat(session.getOrCreateDraft(next).isEmpty()).isTrue();
+
+        session.toggleDraftDay(day);
+        assertThat(session.getOrCreateDraft(current).isEmpty()).isTrue();
     }
 }
@@ -13,11 +13,13 @@ import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
 class SellerOnboardingServiceTest {
     private JoinRequestRepository joinRequestRepository;
     private UserAccountRepository userAccountRepository;
     private LocationRepository locationRepository;
+    private ApplicationEventPublisher eventPublisher;
     private SellerOnboardingService service;
 
     @BeforeEach
@@ -25,8 +27,10 @@ class SellerOnboardingServiceTest {
         joinRequestRepository = mock(JoinRequestRepository.class);
         userAccountRepository = mock(UserAccountRepository.class);
         locationRepository = mock(LocationRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
         service = new SellerOnboardingService(joinRequestRepository, userAccountRepository, locationRepository,
-                new DomainProperties(new DomainProperties.Tm("1234", 3), new DomainProperties.Schedule(2)));
+                new DomainProperties(new DomainProperties.Tm("1234", 3), new DomainProperties.Schedule(2, DomainProperties.ScheduleStorageMode.ROWS)),
+                eventPublisher);
     }
 
     @Test
@@ -43,7 +47,7 @@ class SellerOnboardingServiceTest {
         UUID requestId = UUID.randomUUID();
         UUID tmId = UUID.randomUUID();
         UserAccount tm = new UserAccount(); tm.setId(tmId);
-        UserAccount seller = new UserAccount(); seller.setId(UUID.randomUUID());
+        UserAccount seller = new UserAccount(); seller.setId(UUID.randomUUID()); seller.setTelegramUserId(42L);
         Location location = new Location(); location.setId(UUID.randomUUID());
 
         JoinRequest pending = new JoinRequest();
@@ -55,6 +59,7 @@ class SellerOnboardingServiceTest {
 
         JoinRequest approved = service.approve(requestId, tmId);
         assertEquals(JoinRequestStatus.APPROVED, approved.getStatus());
+        verify(eventPublisher).publishEvent(new UserAccountChangedEvent(seller.getTelegramUserId()));
 
         when(joinRequestRepository.findById(requestId)).thenReturn(Optional.of(approved));
         JoinRequest second = service.approve(requestId, tmId);
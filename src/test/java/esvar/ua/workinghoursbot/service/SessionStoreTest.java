@@ -0,0 +1,120 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+import esvar.ua.workinghoursbot.config.SessionStoreProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SessionStoreTest {
+
+    private final AtomicLong now = new AtomicLong(Instant.parse("2024-03-01T10:00:00Z").toEpochMilli());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> evicted = new ArrayList<>();
+
+    @Mock
+    private Clock clock;
+
+    private SessionStores sessionStores;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.millis()).thenAnswer(invocation -> now.get());
+        sessionStores = new SessionStores(
+                new SessionStoreProperties(3, Duration.ofMinutes(30),
+                        Map.of("short", new SessionStoreProperties.Limits(0, Duration.ofMinutes(5)))),
+                clock,
+                meterRegistry
+        );
+    }
+
+    @Test
+    void expiresKeysIdleForLongerThanTheirTtl() {
+        SessionStore<Long, String> store = sessionStores.create("short", (key, value) -> evicted.add(value));
+        store.put(1L, "idle");
+        store.put(2L, "busy");
+
+        advance(Duration.ofMinutes(3));
+        assertThat(store.get(2L)).isEqualTo("busy");
+        advance(Duration.ofMinutes(3));
+        sessionStores.expire();
+
+        assertThat(store.find(1L)).isEmpty();
+        assertThat(store.get(2L)).isEqualTo("busy");
+        assertThat(evicted).containsExactly("idle");
+
+        advance(Duration.ofMinutes(6));
+        sessionStores.expire();
+
+        assertThat(store.size()).isZero();
+        assertThat(evicted).containsExactly("idle", "busy");
+        assertThat(meterRegistry.get("bot.session.store.evictions")
+                .tags("store", "short", "cause", "expired").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void restoredKeyKeepsTheIdleTimeItAlreadyHad() {
+        SessionStore<Long, String> store = sessionStores.create("short", (key, value) -> evicted.add(value));
+        Instant restoredAt = Instant.ofEpochMilli(now.get());
+        assertThat(store.putIfAbsent(1L, "restored", restoredAt.minus(Duration.ofMinutes(4)))).isNull();
+        store.putIfAbsent(2L, "fresh", restoredAt);
+
+        advance(Duration.ofMinutes(2));
+        sessionStores.expire();
+
+        assertThat(store.containsKey(1L)).isFalse();
+        assertThat(store.containsKey(2L)).isTrue();
+        assertThat(evicted).containsExactly("restored");
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedKeyWhenFull() {
+        SessionStore<Long, String> store = sessionStores.create("bounded", (key, value) -> evicted.add(value));
+        store.put(1L, "first");
+        advance(Duration.ofSeconds(10));
+        store.put(2L, "second");
+        advance(Duration.ofSeconds(10));
+        store.put(3L, "third");
+        advance(Duration.ofSeconds(10));
+        store.get(1L);
+
+        store.put(4L, "fourth");
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(evicted).containsExactly("second");
+        assertThat(store.containsKey(1L)).isTrue();
+        assertThat(meterRegistry.get("bot.session.store.evictions")
+                .tags("store", "bounded", "cause", "size").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void reportsSizeAndHitRatio() {
+        SessionStore<Long, String> store = sessionStores.create("metered");
+        store.computeIfAbsent(1L, key -> "created");
+        store.computeIfAbsent(1L, key -> "ignored");
+        store.get(1L);
+        store.remove(1L);
+
+        assertThat(meterRegistry.get("bot.session.store.size").tag("store", "metered").gauge().value()).isZero();
+        assertThat(meterRegistry.get("bot.session.store.hit.ratio").tag("store", "metered").gauge().value())
+                .isCloseTo(2.0 / 3, within(0.001));
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toMillis());
+    }
+}
@@ -4,24 +4,34 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import esvar.ua.workinghoursbot.bot.BotResponse;
+import esvar.ua.workinghoursbot.config.JobProperties;
+import esvar.ua.workinghoursbot.domain.AuditEvent;
+import esvar.ua.workinghoursbot.domain.JobCheckpoint;
 import esvar.ua.workinghoursbot.domain.Location;
 import esvar.ua.workinghoursbot.domain.RegistrationStatus;
+import esvar.ua.workinghoursbot.domain.ScheduleStatus;
 import esvar.ua.workinghoursbot.domain.ShiftConfirmation;
 import esvar.ua.workinghoursbot.domain.ShiftConfirmationStatus;
 import esvar.ua.workinghoursbot.domain.SubstitutionRequest;
 import esvar.ua.workinghoursbot.domain.UserAccount;
-import esvar.ua.workinghoursbot.repository.ScheduleDayRepository;
+import esvar.ua.workinghoursbot.repository.JobCheckpointRepository;
 import esvar.ua.workinghoursbot.repository.ShiftConfirmationRepository;
+import esvar.ua.workinghoursbot.repository.ShiftConfirmationTarget;
 import esvar.ua.workinghoursbot.repository.UserAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,6 +40,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,9 +51,6 @@ class ShiftConfirmationServiceTest {
     @Mock
     private ShiftConfirmationRepository confirmationRepository;
 
-    @Mock
-    private ScheduleDayRepository scheduleDayRepository;
-
     @Mock
     private UserAccountRepository userAccountRepository;
 
@@ -59,22 +69,35 @@ class ShiftConfirmationServiceTest {
     @Mock
     private MainMenuService mainMenuService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JobCheckpointRepository checkpointRepository;
+
     private Clock clock;
 
+    private PendingConfirmationIndex pendingConfirmationIndex;
+
     private ShiftConfirmationService service;
 
     @BeforeEach
     void setUp() {
         clock = Clock.fixed(Instant.parse("2024-01-01T09:00:00Z"), ZoneId.of("Europe/Kiev"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        pendingConfirmationIndex = new PendingConfirmationIndex(confirmationRepository, new SimpleMeterRegistry());
         service = new ShiftConfirmationService(
                 confirmationRepository,
-                scheduleDayRepository,
                 userAccountRepository,
                 substitutionService,
                 substitutionNotificationService,
                 telegramSender,
                 auditService,
                 mainMenuService,
+                new JobProperties(2),
+                new ChunkedJobRunner(checkpointRepository, transactionTemplate, new SimpleMeterRegistry(), clock),
+                pendingConfirmationIndex,
+                transactionTemplate,
                 clock
         );
     }
@@ -82,31 +105,29 @@ class ShiftConfirmationServiceTest {
     @Test
     void handleYesConfirmationUpdatesStatus() {
         ShiftConfirmation confirmation = buildConfirmation(ShiftConfirmationStatus.PENDING);
-        when(confirmationRepository.findFirstByTelegramUserIdAndStatusOrderByAskedAtDesc(
-                confirmation.getTelegramUserId(),
-                ShiftConfirmationStatus.PENDING
-        )).thenReturn(Optional.of(confirmation));
+        indexPending(confirmation);
 
         UserAccount account = buildAccount();
         when(userAccountRepository.findByTelegramUserId(confirmation.getTelegramUserId()))
                 .thenReturn(Optional.of(account));
         when(mainMenuService.mainMenuKeyboard(anyLong())).thenReturn(new ReplyKeyboardMarkup());
 
-        service.handleResponse(confirmation.getTelegramUserId(), account.getTelegramChatId(), "Так");
+        when(confirmationRepository.resolvePending(eq(confirmation.getId()), eq(ShiftConfirmationStatus.YES), any()))
+                .thenReturn(1);
 
-        ArgumentCaptor<ShiftConfirmation> captor = ArgumentCaptor.forClass(ShiftConfirmation.class);
-        verify(confirmationRepository).save(captor.capture());
-        assertThat(captor.getValue().getStatus()).isEqualTo(ShiftConfirmationStatus.YES);
+        BotResponse response =
+                service.handleResponse(confirmation.getTelegramUserId(), account.getTelegramChatId(), "Так");
+
+        assertThat(response.actions()).hasSize(1);
+        assertThat(pendingConfirmationIndex.latest(confirmation.getTelegramUserId())).isEmpty();
+        verify(confirmationRepository, never()).findFirstByTelegramUserIdAndStatusOrderByAskedAtDesc(any(), any());
         verify(substitutionService, never()).createRequest(anyLong(), any(), anyBoolean(), any(), any());
     }
 
     @Test
     void handleNoConfirmationCreatesSubstitution() {
         ShiftConfirmation confirmation = buildConfirmation(ShiftConfirmationStatus.PENDING);
-        when(confirmationRepository.findFirstByTelegramUserIdAndStatusOrderByAskedAtDesc(
-                confirmation.getTelegramUserId(),
-                ShiftConfirmationStatus.PENDING
-        )).thenReturn(Optional.of(confirmation));
+        indexPending(confirmation);
 
         UserAccount account = buildAccount();
         when(userAccountRepository.findByTelegramUserId(confirmation.getTelegramUserId()))
@@ -118,19 +139,32 @@ class ShiftConfirmationServiceTest {
                 .thenReturn(List.of());
         when(substitutionService.findSeniorForRequest(account.getLocation())).thenReturn(Optional.empty());
 
+        when(confirmationRepository.resolvePending(eq(confirmation.getId()), eq(ShiftConfirmationStatus.NO), any()))
+                .thenReturn(1);
+
         service.handleResponse(confirmation.getTelegramUserId(), account.getTelegramChatId(), "Ні");
 
-        ArgumentCaptor<ShiftConfirmation> captor = ArgumentCaptor.forClass(ShiftConfirmation.class);
-        verify(confirmationRepository).save(captor.capture());
-        assertThat(captor.getValue().getStatus()).isEqualTo(ShiftConfirmationStatus.NO);
+        verify(substitutionService).createRequest(eq(11L), eq(confirmation.getDate()), eq(false), any(), any());
         verify(substitutionNotificationService).notifySeniorAboutRequest(any(SubstitutionRequest.class));
     }
 
+    @Test
+    void answersFromUsersWithoutPendingConfirmationFallThrough() {
+        pendingConfirmationIndex.warmUp();
+
+        BotResponse response = service.handleResponse(11L, 11L, "Так");
+
+        assertThat(response.actions()).isEmpty();
+        verify(confirmationRepository, never()).findFirstByTelegramUserIdAndStatusOrderByAskedAtDesc(any(), any());
+        verify(confirmationRepository, never()).resolvePending(any(), any(), any());
+    }
+
     @Test
     void autoRejectPendingMarksNoAndCreatesSubstitution() {
         ShiftConfirmation confirmation = buildConfirmation(ShiftConfirmationStatus.PENDING);
+        indexPending(confirmation);
         UserAccount account = buildAccount();
-        when(confirmationRepository.findByStatus(ShiftConfirmationStatus.PENDING))
+        when(confirmationRepository.findByStatusAfter(eq(ShiftConfirmationStatus.PENDING), any(), any()))
                 .thenReturn(List.of(confirmation));
         when(userAccountRepository.findByTelegramUserId(confirmation.getTelegramUserId()))
                 .thenReturn(Optional.of(account));
@@ -147,6 +181,56 @@ class ShiftConfirmationServiceTest {
         assertThat(captor.getValue().getStatus()).isEqualTo(ShiftConfirmationStatus.NO);
         assertThat(captor.getValue().isAutoRejected()).isTrue();
         verify(substitutionNotificationService).notifySeniorAboutRequest(any(SubstitutionRequest.class));
+        ArgumentCaptor<JobCheckpoint> checkpoints = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(checkpointRepository, times(2)).save(checkpoints.capture());
+        assertThat(checkpoints.getValue().getLastKey()).isEqualTo(confirmation.getId().toString());
+        assertThat(checkpoints.getValue().getCompletedAt()).isNotNull();
+        assertThat(pendingConfirmationIndex.latest(confirmation.getTelegramUserId())).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendDailyConfirmationsInsertsAndQueuesPerChunk() {
+        LocalDate tomorrow = LocalDate.of(2024, 1, 2);
+        UUID locationId = UUID.randomUUID();
+        List<ShiftConfirmationTarget> targets = List.of(
+                new ShiftConfirmationTarget(11L, locationId, UUID.randomUUID(), 111L, "Перша", "Локація 1"),
+                new ShiftConfirmationTarget(12L, locationId, UUID.randomUUID(), 112L, "Друга", "Локація 1"),
+                new ShiftConfirmationTarget(13L, locationId, UUID.randomUUID(), 113L, "Третя", "Локація 1"));
+        when(confirmationRepository.findConfirmationTargets(tomorrow, ScheduleStatus.WORK)).thenReturn(targets);
+        when(confirmationRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<ShiftConfirmation> saved = invocation.getArgument(0);
+            saved.forEach(ShiftConfirmation::prePersist);
+            return saved;
+        });
+
+        service.sendDailyConfirmations();
+
+        ArgumentCaptor<List<ShiftConfirmation>> confirmations = ArgumentCaptor.forClass(List.class);
+        verify(confirmationRepository, times(2)).saveAll(confirmations.capture());
+        assertThat(confirmations.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(confirmations.getAllValues().get(0))
+                .allSatisfy(confirmation -> {
+                    assertThat(confirmation.getStatus()).isEqualTo(ShiftConfirmationStatus.PENDING);
+                    assertThat(confirmation.getDate()).isEqualTo(tomorrow);
+                });
+
+        ArgumentCaptor<Map<String, SendMessage>> questions = ArgumentCaptor.forClass(Map.class);
+        verify(telegramSender, times(2)).sendAll(questions.capture());
+        assertThat(questions.getAllValues().get(1))
+                .containsOnlyKeys("shift-confirm:13:%s:%s".formatted(locationId, tomorrow));
+        assertThat(questions.getAllValues().get(1).values().iterator().next().getChatId()).isEqualTo("113");
+
+        ArgumentCaptor<List<AuditEvent>> audit = ArgumentCaptor.forClass(List.class);
+        verify(auditService, times(2)).logAll(audit.capture());
+        assertThat(audit.getAllValues().get(0)).hasSize(2);
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(pendingConfirmationIndex.latest(13L)).isPresent();
+    }
+
+    private void indexPending(ShiftConfirmation confirmation) {
+        pendingConfirmationIndex.warmUp();
+        pendingConfirmationIndex.put(PendingConfirmationIndex.PendingConfirmation.of(confirmation));
     }
 
     private ShiftConfirmation buildConfirmation(ShiftConfirmationStatus status) {
@@ -2,6 +2,7 @@ package esvar.ua.workinghoursbot.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import esvar.ua.workinghoursbot.bot.SubstitutionCandidateOfferMessage;
 import esvar.ua.workinghoursbot.domain.Location;
 import esvar.ua.workinghoursbot.domain.RegistrationStatus;
 import esvar.ua.workinghoursbot.domain.Role;
@@ -20,12 +21,18 @@ import esvar.ua.workinghoursbot.repository.SubstitutionRequestRepository;
 import esvar.ua.workinghoursbot.repository.UserAccountRepository;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 
 @SpringBootTest
@@ -55,6 +62,12 @@ class SubstitutionServiceTest {
     @Autowired
     private SubstitutionNotificationService substitutionNotificationService;
 
+    @Autowired
+    private OfferAcceptanceGate acceptanceGate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Test
     void findCandidatesFiltersWorkingUsers() {
         Location location = createLocation("L1");
@@ -70,14 +83,14 @@ class SubstitutionServiceTest {
         request.setScope(SubstitutionRequestScope.LOCATION);
         substitutionRequestRepository.save(request);
 
-        List<UserAccount> candidates = substitutionService.findCandidates(
+        List<AccountSnapshot> candidates = substitutionService.findCandidates(
                 request.getId(),
                 SubstitutionRequestScope.LOCATION,
                 null
         );
 
         assertThat(candidates)
-                .extracting(UserAccount::getId)
+                .extracting(AccountSnapshot::id)
                 .containsExactly(candidateFree.getId());
     }
 
@@ -125,6 +138,166 @@ class SubstitutionServiceTest {
         assertThat(secondResult.getStatus()).isEqualTo(SubstitutionService.AcceptOfferResult.Status.CLOSED);
     }
 
+    @Test
+    void concurrentAcceptorsHaveExactlyOneWinner() throws Exception {
+        Location location = createLocation("L10");
+        UserAccount requester = createUser("Requester10", 3000L, location, Role.SELLER);
+        LocalDate date = LocalDate.now().plusDays(10);
+        SubstitutionRequest request = createRequest(requester, location, date, SubstitutionRequestStatus.IN_PROGRESS);
+        request.setScope(SubstitutionRequestScope.LOCATION);
+        substitutionRequestRepository.save(request);
+        List<UserAccount> acceptors = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            UserAccount candidate = createUser("Acceptor" + i, 3000L + i, location, Role.SELLER);
+            createCandidate(request, candidate);
+            acceptors.add(candidate);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<SubstitutionService.AcceptOfferResult>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (UserAccount acceptor : acceptors) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return substitutionService.acceptOffer(request.getId(), acceptor.getTelegramUserId());
+                }));
+            }
+            start.countDown();
+        }
+
+        List<SubstitutionService.AcceptOfferResult.Status> statuses = new ArrayList<>();
+        for (Future<SubstitutionService.AcceptOfferResult> result : results) {
+            statuses.add(result.get().getStatus());
+        }
+        assertThat(statuses)
+                .filteredOn(status -> status == SubstitutionService.AcceptOfferResult.Status.WAITING_TM_APPROVAL)
+                .hasSize(1);
+        assertThat(statuses)
+                .filteredOn(status -> status == SubstitutionService.AcceptOfferResult.Status.CLOSED)
+                .hasSize(99);
+        assertThat(candidateRepository.findByRequest_IdAndState(request.getId(), SubstitutionCandidateState.ACCEPTED))
+                .hasSize(1);
+        SubstitutionRequest updated = substitutionRequestRepository.findById(request.getId()).orElseThrow();
+        assertThat(updated.getStatus()).isEqualTo(SubstitutionRequestStatus.WAITING_TM_APPROVAL);
+        assertThat(updated.getProposedReplacementUser()).isNotNull();
+    }
+
+    @Test
+    void conditionalUpdateAloneHasExactlyOneWinner() throws Exception {
+        deleteAllRows();
+        Location location = createLocation("L14");
+        UserAccount requester = createUser("Requester14", 3500L, location, Role.SELLER);
+        SubstitutionRequest request = createRequest(requester, location, LocalDate.now().plusDays(14),
+                SubstitutionRequestStatus.IN_PROGRESS);
+        substitutionRequestRepository.save(request);
+        List<UserAccount> acceptors = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            acceptors.add(createUser("DbAcceptor" + i, 3500L + i, location, Role.SELLER));
+        }
+
+        // Bypasses OfferAcceptanceGate, as a second process or a restarted one would.
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (UserAccount acceptor : acceptors) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status -> substitutionRequestRepository.claimReplacement(
+                            request.getId(),
+                            acceptor,
+                            SubstitutionRequestStatus.WAITING_TM_APPROVAL,
+                            List.of(SubstitutionRequestStatus.NEW, SubstitutionRequestStatus.IN_PROGRESS)
+                    ));
+                }));
+            }
+            start.countDown();
+        }
+
+        int winners = 0;
+        for (Future<Integer> result : results) {
+            winners += result.get();
+        }
+        assertThat(winners).isEqualTo(1);
+        SubstitutionRequest updated = substitutionRequestRepository.findById(request.getId()).orElseThrow();
+        assertThat(updated.getStatus()).isEqualTo(SubstitutionRequestStatus.WAITING_TM_APPROVAL);
+        assertThat(updated.getProposedReplacementUser().getId())
+                .isIn(acceptors.stream().map(UserAccount::getId).toList());
+    }
+
+    @Test
+    void stayWorkingReleasesTheAcceptanceClaim() {
+        deleteAllRows();
+        Location location = createLocation("L15");
+        UserAccount senior = createUser("Senior15", 3700L, location, Role.SENIOR_SELLER);
+        UserAccount requester = createUser("Requester15", 3701L, location, Role.SELLER);
+        SubstitutionRequest request = createRequest(requester, location, LocalDate.now().plusDays(15),
+                SubstitutionRequestStatus.IN_PROGRESS);
+        substitutionRequestRepository.save(request);
+        assertThat(acceptanceGate.tryClaim(request.getId(), 3702L)).isTrue();
+
+        substitutionService.cancelByStayWorking(request.getId(), senior.getTelegramUserId());
+
+        assertThat(acceptanceGate.tryClaim(request.getId(), 3703L)).isTrue();
+    }
+
+    @Test
+    void closingRequestExpiresOutstandingOffersInBulk() {
+        Location location = createLocation("L11");
+        UserAccount requester = createUser("Requester11", 4000L, location, Role.SELLER);
+        UserAccount senior = createUser("Senior11", 4001L, location, Role.SENIOR_SELLER);
+        UserAccount first = createUser("First11", 4002L, location, Role.SELLER);
+        UserAccount second = createUser("Second11", 4003L, location, Role.SELLER);
+        UserAccount declining = createUser("Declining11", 4004L, location, Role.SELLER);
+        SubstitutionRequest request = createRequest(requester, location, LocalDate.now().plusDays(11),
+                SubstitutionRequestStatus.IN_PROGRESS);
+        substitutionRequestRepository.save(request);
+        createCandidate(request, first);
+        createCandidate(request, second);
+        createCandidate(request, declining);
+        substitutionService.declineOffer(request.getId(), declining.getTelegramUserId());
+
+        substitutionService.rejectRequest(request.getId(), senior.getTelegramUserId(), "Немає заміни");
+
+        assertThat(candidateRepository.findByRequest_IdAndState(request.getId(), SubstitutionCandidateState.EXPIRED))
+                .extracting(SubstitutionRequestCandidate::getNotifiedChatId)
+                .containsExactlyInAnyOrder(4002L, 4003L);
+        assertThat(candidateRepository.findByRequest_IdAndState(request.getId(), SubstitutionCandidateState.DECLINED))
+                .hasSize(1);
+    }
+
+    @Test
+    void notifyAllCandidatesUpsertsRowsAndReturnsOffers() {
+        Location location = createLocation("L9");
+        UserAccount requester = createUser("Requester9", 1100L, location, Role.SELLER);
+        UserAccount known = createUser("Known9", 1200L, location, Role.SELLER);
+        UserAccount fresh = createUser("Fresh9", 1300L, location, Role.SENIOR_SELLER);
+
+        LocalDate date = LocalDate.now().plusDays(9);
+        createWorkDay(requester.getTelegramUserId(), location.getId(), date);
+
+        SubstitutionRequest request = createRequest(requester, location, date, SubstitutionRequestStatus.IN_PROGRESS);
+        request.setScope(SubstitutionRequestScope.LOCATION);
+        substitutionRequestRepository.save(request);
+        SubstitutionRequestCandidate declined = new SubstitutionRequestCandidate();
+        declined.setRequest(request);
+        declined.setCandidate(known);
+        declined.setState(SubstitutionCandidateState.DECLINED);
+        candidateRepository.save(declined);
+
+        List<SubstitutionCandidateOfferMessage> offers =
+                substitutionService.notifyAllCandidates(request.getId(), SubstitutionRequestScope.LOCATION, null);
+
+        assertThat(offers)
+                .extracting(SendMessage::getChatId)
+                .containsExactlyInAnyOrder("1200", "1300");
+        assertThat(offers).allSatisfy(offer -> assertThat(offer.getRequestId()).isEqualTo(request.getId()));
+        List<SubstitutionRequestCandidate> rows = candidateRepository.findByRequest_Id(request.getId());
+        assertThat(rows).hasSize(2);
+        assertThat(rows).extracting(SubstitutionRequestCandidate::getState)
+                .containsOnly(SubstitutionCandidateState.NOTIFIED);
+        assertThat(rows).extracting(SubstitutionRequestCandidate::getId).contains(declined.getId());
+    }
+
     @Test
     void findTmForRequestUsesManagedLocations() {
         Location location = createLocation("L3");
@@ -238,6 +411,14 @@ class SubstitutionServiceTest {
                 .isEqualTo("⚠️ Не знайдено ТМ для вашої локації. Зверніться до адміністратора.");
     }
 
+    private void deleteAllRows() {
+        candidateRepository.deleteAll();
+        substitutionRequestRepository.deleteAll();
+        scheduleDayRepository.deleteAll();
+        userAccountRepository.deleteAll();
+        locationRepository.deleteAll();
+    }
+
     private Location createLocation(String name) {
         return createLocation(name, null);
     }
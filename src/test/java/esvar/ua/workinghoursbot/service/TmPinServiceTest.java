@@ -12,7 +12,7 @@ class TmPinServiceTest {
     void shouldBlockAfterMaxAttempts() {
         TmPinService service = new TmPinService(new DomainProperties(
                 new DomainProperties.Tm("1234", 2),
-                new DomainProperties.Schedule(2)
+                new DomainProperties.Schedule(2, DomainProperties.ScheduleStorageMode.ROWS)
         ));
         UserAccount account = new UserAccount();
 
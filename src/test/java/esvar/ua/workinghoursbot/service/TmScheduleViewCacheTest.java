@@ -0,0 +1,98 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import esvar.ua.workinghoursbot.config.SessionStoreProperties;
+import esvar.ua.workinghoursbot.domain.Location;
+import esvar.ua.workinghoursbot.domain.UserAccount;
+import esvar.ua.workinghoursbot.repository.UserAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TmScheduleViewCacheTest {
+
+    private static final UUID LOCATION_ID = UUID.randomUUID();
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final YearMonth APRIL = YearMonth.of(2024, 4);
+
+    @Mock
+    private UserAccountRepository userAccountRepository;
+
+    private final AtomicInteger renders = new AtomicInteger();
+    private TmScheduleViewCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TmScheduleViewCache(userAccountRepository, new SessionStores(
+                new SessionStoreProperties(100, Duration.ofMinutes(30), null),
+                Clock.systemUTC(),
+                new SimpleMeterRegistry()
+        ));
+    }
+
+    @Test
+    void servesPagedMonthsFromMemoryUntilTheirScheduleChanges() {
+        view(MARCH);
+        view(APRIL);
+        view(MARCH);
+        assertThat(renders).hasValue(2);
+
+        cache.onScheduleChanged(new ScheduleChangedEvent(LOCATION_ID, MARCH));
+        view(MARCH);
+        view(APRIL);
+
+        assertThat(renders).hasValue(3);
+    }
+
+    @Test
+    void dropsViewsOfTheLocationWhenOneOfItsSellersIsApproved() {
+        view(MARCH);
+        view(APRIL);
+        Location location = new Location();
+        location.setId(LOCATION_ID);
+        UserAccount seller = new UserAccount();
+        seller.setTelegramUserId(8L);
+        seller.setLocation(location);
+        when(userAccountRepository.findByTelegramUserId(8L)).thenReturn(Optional.of(seller));
+
+        cache.onAccountChanged(new UserAccountChangedEvent(8L));
+        view(MARCH);
+        view(APRIL);
+
+        assertThat(renders).hasValue(4);
+    }
+
+    @Test
+    void dropsViewsShowingARemovedAccount() {
+        view(MARCH);
+        when(userAccountRepository.findByTelegramUserId(7L)).thenReturn(Optional.empty());
+
+        cache.onAccountChanged(new UserAccountChangedEvent(7L));
+        view(MARCH);
+
+        assertThat(renders).hasValue(2);
+    }
+
+    private void view(YearMonth month) {
+        cache.get(LOCATION_ID, month, () -> {
+            renders.incrementAndGet();
+            return new TmScheduleViewCache.CachedView(
+                    new TmScheduleCalendarService.TmScheduleView(month.toString(), null),
+                    Set.of(7L)
+            );
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package esvar.ua.workinghoursbot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import esvar.ua.workinghoursbot.domain.UserAccount;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class UpdateContextTest {
+
+    @Test
+    void memoizesLookupsUntilForgotten() {
+        AtomicInteger loads = new AtomicInteger();
+        UserAccount account = new UserAccount();
+        account.setId(UUID.randomUUID());
+        UserAccount reloaded = new UserAccount();
+        UUID locationId = UUID.randomUUID();
+
+        try (UpdateContext context = UpdateContext.open()) {
+            assertThat(UpdateContext.current()).containsSame(context);
+
+            assertThat(context.account(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.of(account);
+            }, id -> Optional.empty())).containsSame(account);
+            // Later lookups go by primary key, so a later transaction gets its own managed instance.
+            assertThat(context.account(1L, id -> Optional.empty(),
+                    id -> id.equals(account.getId()) ? Optional.of(reloaded) : Optional.empty()))
+                    .containsSame(reloaded);
+            assertThat(context.scheduleEditEnabled(locationId, id -> true)).isTrue();
+            assertThat(context.scheduleEditEnabled(locationId, id -> false)).isTrue();
+
+            context.forgetAccount(1L);
+            context.forgetScheduleEditFlags();
+            assertThat(context.account(1L, id -> Optional.empty(), id -> Optional.of(reloaded))).isEmpty();
+            assertThat(context.account(1L, id -> Optional.of(account), id -> Optional.of(reloaded))).isEmpty();
+            assertThat(context.scheduleEditEnabled(locationId, id -> false)).isFalse();
+
+            new UpdateStatementInspector().inspect("select 1");
+            assertThat(context.statementCount()).isEqualTo(1);
+            assertThat(context.memoizedHits()).isEqualTo(3);
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(UpdateContext.current()).isEmpty();
+    }
+}